@@ -0,0 +1,56 @@
+package net.kolls.railworld.bench;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import net.kolls.railworld.Train;
+import net.kolls.railworld.tc.AutoControl;
+
+/**
+ * Times {@link AutoControl#process()}, which looks ahead of the train
+ * for signals, crossings and the end of the track, for each train in turn.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class AutoControlBenchmark extends Benchmark {
+
+	private Train[] ts;
+	private int k;
+
+	@Override
+	public String name() { return "autoControl.process"; }
+
+	@Override
+	public void trial(Fixture fx) throws Exception {
+		super.trial(fx);
+		ts = new Train[f.trains.size()];
+		for (int i = 0; i < ts.length; i++) {
+			ts[i] = f.trains.get(i);
+			ts[i].setController(new AutoControl());
+		}
+		// get the trains moving so there is something to slow for
+		f.engine.run(50);
+		k = 0;
+	}
+
+	@Override
+	public Object op() {
+		return ts[k++ % ts.length].getController().process();
+	}
+}
@@ -0,0 +1,74 @@
+package net.kolls.railworld.bench;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+/**
+ * One measured operation.  The runner calls {@link #trial(Fixture)} once for each
+ * map and train count, {@link #iteration()} before each timed iteration, and then
+ * {@link #op()} as many times as fit in the iteration.  Whatever {@link #op()} returns
+ * is consumed by the runner so the work cannot be optimized away.
+ *
+ * @author Rick Rutt
+ *
+ */
+public abstract class Benchmark {
+
+	/**
+	 * The fixture for the current trial.
+	 */
+	protected Fixture f;
+
+	/**
+	 *
+	 * @return The name the results are reported under
+	 */
+	public abstract String name();
+
+	/**
+	 *
+	 * @return <code>true</code> if the number of trains affects this benchmark,
+	 * so it should be run for each train count
+	 */
+	public boolean usesTrains() { return true; }
+
+	/**
+	 * Prepare for a trial on a new fixture.
+	 *
+	 * @param fx The fixture
+	 * @throws Exception If the benchmark cannot be set up
+	 */
+	public void trial(Fixture fx) throws Exception {
+		f = fx;
+	}
+
+	/**
+	 * Prepare for an iteration.  Nothing done here is timed.
+	 *
+	 * @throws Exception If the benchmark cannot be set up
+	 */
+	public void iteration() throws Exception { }
+
+	/**
+	 * Perform the operation being measured, once.
+	 *
+	 * @return Any result of the operation, or <code>null</code>
+	 * @throws Exception If the operation fails, which ends the run
+	 */
+	public abstract Object op() throws Exception;
+}
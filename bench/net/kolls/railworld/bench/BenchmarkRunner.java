@@ -0,0 +1,260 @@
+package net.kolls.railworld.bench;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import net.kolls.railworld.Factories;
+import net.kolls.railworld.Sounds;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the benchmarks and writes the results as JSON, laid out as JMH lays out
+ * its own results so the same tools can read them.  Each benchmark is run for
+ * every map and (if it cares) every train count, with some untimed warmup iterations
+ * followed by the timed iterations.  Scores are the average time per operation.
+ * <p>
+ * Options are:
+ * <dl>
+ * <dt><code>-map</code> <i>file or synthetic:N,...</i></dt><dd>Maps to use.  By default, every map in <code>data</code> and a synthetic map of 10000 segments.</dd>
+ * <dt><code>-trains</code> <i>N,...</i></dt><dd>Numbers of trains to place, by default 4 and 64.</dd>
+ * <dt><code>-bench</code> <i>regex</i></dt><dd>Only run benchmarks whose names match.</dd>
+ * <dt><code>-wi</code> <i>N</i></dt><dd>Warmup iterations, by default 3.</dd>
+ * <dt><code>-i</code> <i>N</i></dt><dd>Timed iterations, by default 5.</dd>
+ * <dt><code>-time</code> <i>ms</i></dt><dd>Length of each iteration, by default 1000.</dd>
+ * <dt><code>-o</code> <i>file</i></dt><dd>Where to write the results, by default <code>bench-results.json</code>.</dd>
+ * </dl>
+ *
+ * @author Rick Rutt
+ *
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * Everything measured for one benchmark, map and train count.
+	 */
+	private static class Result {
+		String name, map;
+		int trains;
+		double[] us;
+		long ops;
+	}
+
+	private List<String> maps = new ArrayList<String>();
+	private int[] trains = new int[] { 4, 64 };
+	private Pattern filter = Pattern.compile(".*");
+	private int warmups = 3, iterations = 5;
+	private long time = 1000;
+	private File out = new File("bench-results.json");
+
+	// results are added here so the work is not thrown away
+	private volatile int sink;
+
+	private static List<Benchmark> all() {
+		return Arrays.asList(
+				new StepBenchmark(),
+				new SegFwdBenchmark(),
+				new ConsistBenchmark(false),
+				new ConsistBenchmark(true),
+				new AutoControlBenchmark(),
+				new DrawBenchmark(false),
+				new DrawBenchmark(true),
+				new ReadBenchmark(false),
+				new ReadBenchmark(true));
+	}
+
+	private static int[] ints(String s) {
+		String[] p = s.split(",");
+		int[] v = new int[p.length];
+		for (int i = 0; i < p.length; i++) v[i] = Integer.parseInt(p[i].trim());
+		return v;
+	}
+
+	private void parse(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			String a = args[i];
+			if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + a);
+			String v = args[++i];
+
+			if (a.equals("-map")) maps.addAll(Arrays.asList(v.split(",")));
+			else if (a.equals("-trains")) trains = ints(v);
+			else if (a.equals("-bench")) filter = Pattern.compile(v);
+			else if (a.equals("-wi")) warmups = Integer.parseInt(v);
+			else if (a.equals("-i")) iterations = Integer.parseInt(v);
+			else if (a.equals("-time")) time = Long.parseLong(v);
+			else if (a.equals("-o")) out = new File(v);
+			else throw new IllegalArgumentException("Unknown option " + a);
+		}
+
+		if (maps.isEmpty()) {
+			File[] fs = new File("data").listFiles();
+			if (fs != null) {
+				Arrays.sort(fs);
+				for (File f : fs)
+					if (f.getName().toLowerCase().endsWith(".rwm")) maps.add(f.getPath());
+			}
+			maps.add("synthetic:10000");
+		}
+	}
+
+	// run op as many times as fits, giving microseconds per op
+	private double iterate(Benchmark b, Result r) throws Exception {
+		b.iteration();
+
+		long ops = 0;
+		long start = System.nanoTime();
+		long end = start + time * 1000000L;
+		long now;
+		do {
+			Object o = b.op();
+			if (o != null) sink += o.hashCode();
+			ops++;
+			now = System.nanoTime();
+		} while (now < end);
+
+		r.ops += ops;
+		return (now - start) / 1000.0 / ops;
+	}
+
+	private Result run(Benchmark b, String map, int ntrains) throws Exception {
+		Result r = new Result();
+		r.name = b.name();
+		r.map = map;
+		r.trains = ntrains;
+		r.us = new double[iterations];
+
+		b.trial(new Fixture(map, ntrains));
+
+		for (int i = 0; i < warmups; i++)
+			iterate(b, r);
+		r.ops = 0;
+		for (int i = 0; i < iterations; i++)
+			r.us[i] = iterate(b, r);
+
+		return r;
+	}
+
+	private static double mean(double[] v) {
+		double s = 0;
+		for (double d : v) s += d;
+		return s / v.length;
+	}
+
+	// half the width of the 99.9% confidence interval, by the normal approximation
+	private static double error(double[] v) {
+		if (v.length < 2) return Double.NaN;
+		double m = mean(v), s = 0;
+		for (double d : v) s += (d - m) * (d - m);
+		return 3.291 * Math.sqrt(s / (v.length - 1)) / Math.sqrt(v.length);
+	}
+
+	private static String quote(String s) {
+		StringBuilder sb = new StringBuilder("\"");
+		for (char c : s.toCharArray()) {
+			if (c == '"' || c == '\\') sb.append('\\');
+			if (c < ' ') sb.append(String.format("\\u%04x", (int)c));
+			else sb.append(c);
+		}
+		return sb.append('"').toString();
+	}
+
+	private static String num(double d) {
+		if (Double.isNaN(d) || Double.isInfinite(d)) return "\"NaN\"";
+		return Double.toString(d);
+	}
+
+	private void write(List<Result> rs) throws IOException {
+		Writer w = new FileWriter(out);
+		try {
+			w.write("[\n");
+			for (int i = 0; i < rs.size(); i++) {
+				Result r = rs.get(i);
+				w.write("  {\n");
+				w.write("    \"benchmark\" : " + quote(getClass().getPackage().getName() + "." + r.name) + ",\n");
+				w.write("    \"mode\" : \"avgt\",\n");
+				w.write("    \"threads\" : 1,\n");
+				w.write("    \"forks\" : 0,\n");
+				w.write("    \"jvm\" : " + quote(System.getProperty("java.home")) + ",\n");
+				w.write("    \"jdkVersion\" : " + quote(System.getProperty("java.version")) + ",\n");
+				w.write("    \"warmupIterations\" : " + warmups + ",\n");
+				w.write("    \"warmupTime\" : \"" + time + " ms\",\n");
+				w.write("    \"measurementIterations\" : " + iterations + ",\n");
+				w.write("    \"measurementTime\" : \"" + time + " ms\",\n");
+				w.write("    \"params\" : {\n");
+				w.write("      \"map\" : " + quote(r.map) + ",\n");
+				w.write("      \"trains\" : \"" + r.trains + "\"\n");
+				w.write("    },\n");
+				w.write("    \"primaryMetric\" : {\n");
+				w.write("      \"score\" : " + num(mean(r.us)) + ",\n");
+				w.write("      \"scoreError\" : " + num(error(r.us)) + ",\n");
+				w.write("      \"scoreUnit\" : \"us/op\",\n");
+				w.write("      \"rawData\" : [ [ ");
+				for (int j = 0; j < r.us.length; j++)
+					w.write((j > 0 ? ", " : "") + num(r.us[j]));
+				w.write(" ] ]\n");
+				w.write("    },\n");
+				w.write("    \"secondaryMetrics\" : {\n");
+				w.write("      \"ops\" : { \"score\" : " + r.ops + ", \"scoreUnit\" : \"ops\" }\n");
+				w.write("    }\n");
+				w.write(i < rs.size() - 1 ? "  },\n" : "  }\n");
+			}
+			w.write("]\n");
+		} finally {
+			w.close();
+		}
+	}
+
+	/**
+	 * Run the benchmarks.
+	 *
+	 * @param args Options, as described above
+	 * @throws Exception If a map cannot be loaded or a benchmark fails
+	 */
+	public static void main(String[] args) throws Exception {
+		BenchmarkRunner br = new BenchmarkRunner();
+		br.parse(args);
+
+		Factories.init();
+		new Sounds().loadSounds(null, Sounds.SoundSystem.NONE);
+
+		List<Result> rs = new ArrayList<Result>();
+		for (Benchmark b : all()) {
+			if (!br.filter.matcher(b.name()).find()) continue;
+			for (String map : br.maps) {
+				int[] tc = b.usesTrains() ? br.trains : new int[] { br.trains[0] };
+				for (int n : tc) {
+					Result r = br.run(b, map, n);
+					rs.add(r);
+					System.out.println(String.format("%-22s %-36s %6d %14.3f +- %.3f us/op",
+							r.name, r.map, r.trains, mean(r.us), error(r.us)));
+				}
+			}
+		}
+
+		br.write(rs);
+		System.out.println("Results written to " + br.out);
+		System.exit(0);
+	}
+}
@@ -0,0 +1,88 @@
+package net.kolls.railworld.bench;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import net.kolls.railworld.CLoc;
+import net.kolls.railworld.Car;
+import net.kolls.railworld.ConsistVisitor;
+import net.kolls.railworld.ConsistWalker;
+import net.kolls.railworld.Train;
+import net.kolls.railworld.TrainUIController;
+
+import java.awt.geom.Line2D;
+
+/**
+ * Times walking a train car by car, for each train in turn, either with
+ * a {@link TrainUIController} or with a {@link ConsistWalker}.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class ConsistBenchmark extends Benchmark {
+
+	private boolean walker;
+	private Train[] ts;
+	private int k;
+	private double sum;
+
+	private TrainUIController tuic = new TrainUIController() {
+		@Override
+		public void segment(Car c, Line2D l) { sum += l.getX1(); }
+		@Override
+		public void car(Car c, CLoc begin, CLoc end) { }
+	};
+
+	private ConsistWalker cw = new ConsistWalker();
+
+	private ConsistVisitor cv = new ConsistVisitor() {
+		public void car(Train t, Car c, int idx, double[] lines, int n, double[] ends) {
+			if (n > 0) sum += lines[0];
+		}
+	};
+
+	/**
+	 * Create the benchmark.
+	 *
+	 * @param useWalker Walk with a {@link ConsistWalker} rather than a {@link TrainUIController}
+	 */
+	public ConsistBenchmark(boolean useWalker) {
+		walker = useWalker;
+	}
+
+	@Override
+	public String name() { return walker ? "consist.walker" : "consist.act"; }
+
+	@Override
+	public void trial(Fixture fx) throws Exception {
+		super.trial(fx);
+		ts = new Train[f.trains.size()];
+		for (int i = 0; i < ts.length; i++) ts[i] = f.trains.get(i);
+		k = 0;
+	}
+
+	@Override
+	public Object op() {
+		Train t = ts[k++ % ts.length];
+		if (walker)
+			cw.walk(t, cv);
+		else
+			tuic.act(t);
+		return sum;
+	}
+}
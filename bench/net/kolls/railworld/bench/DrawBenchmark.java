@@ -0,0 +1,88 @@
+package net.kolls.railworld.bench;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import net.kolls.railworld.MiniViewer;
+import net.kolls.railworld.play.PlayCanvas;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Times drawing a frame of the play canvas, with its trains, into an off-screen image.
+ * The view either stays on the center of the map or pans across it, which
+ * makes the static layers be rendered again as new tiles come into view.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class DrawBenchmark extends Benchmark {
+
+	private static final int WIDTH = 1024, HEIGHT = 768;
+	private static final int PAN_STEP = 64;
+
+	private boolean pan;
+	private PlayCanvas pc;
+	private BufferedImage bi;
+	private Graphics2D g;
+	private double x, y, w;
+
+	/**
+	 * Create the benchmark.
+	 *
+	 * @param panning Should the view move across the map for each frame?
+	 */
+	public DrawBenchmark(boolean panning) {
+		pan = panning;
+	}
+
+	@Override
+	public String name() { return pan ? "draw.pan" : "draw.static"; }
+
+	@Override
+	public void trial(Fixture fx) throws Exception {
+		super.trial(fx);
+		pc = new PlayCanvas(f.image, f.la, new MiniViewer());
+		pc.trains = f.trains;
+		pc.sm = f.sm;
+
+		bi = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+		g = bi.createGraphics();
+		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+		// the occupancy and geometry are needed for the trains
+		f.engine.step();
+
+		w = f.md.centerX * 2;
+		x = f.md.centerX;
+		y = f.md.centerY;
+	}
+
+	@Override
+	public Object op() {
+		if (pan) {
+			x += PAN_STEP;
+			if (x > w) x = 0;
+		}
+		pc.draw(g, new Point2D.Double(x, y), WIDTH, HEIGHT, 1, true);
+		return bi;
+	}
+}
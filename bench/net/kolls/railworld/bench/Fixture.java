@@ -0,0 +1,188 @@
+package net.kolls.railworld.bench;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import net.kolls.railworld.Car;
+import net.kolls.railworld.Distance;
+import net.kolls.railworld.RailSegment;
+import net.kolls.railworld.Train;
+import net.kolls.railworld.World;
+import net.kolls.railworld.car.Boxcar;
+import net.kolls.railworld.car.Engine;
+import net.kolls.railworld.io.MetaData;
+import net.kolls.railworld.io.RWMWriter;
+import net.kolls.railworld.opening.MapLoader;
+import net.kolls.railworld.play.RailAccident;
+import net.kolls.railworld.play.SimulationEngine;
+import net.kolls.railworld.play.SimulationListener;
+import net.kolls.railworld.play.Trains;
+import net.kolls.railworld.play.script.ScriptManager;
+import net.kolls.railworld.segment.Signal;
+import net.kolls.railworld.segment.TrackSegment;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * A map with trains placed on it, ready to be simulated without a display.
+ * The map is either a Rail World map file or <code>synthetic:N</code> for
+ * a {@link SyntheticMap} of about N segments.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class Fixture {
+
+	/**
+	 * The number of cars in each train, including the engine.
+	 */
+	public static final int CARS = 8;
+
+	// only place trains on segments at least this long
+	private static final Distance MIN_PLACE = new Distance(100, Distance.Measure.FEET);
+
+	/**
+	 * The map this fixture was created from.
+	 */
+	public final String map;
+
+	/**
+	 * The number of trains asked for.
+	 */
+	public final int ntrains;
+
+	/**
+	 * The rail segments, including signals.
+	 */
+	public RailSegment[] la;
+
+	/**
+	 * The map meta data.
+	 */
+	public MetaData md;
+
+	/**
+	 * The map image, or <code>null</code> if there is none.
+	 */
+	public BufferedImage image;
+
+	/**
+	 * The map as a file, for reading back.
+	 */
+	public File file;
+
+	/**
+	 * The trains placed on the map.
+	 */
+	public Trains trains;
+
+	/**
+	 * An empty script manager.
+	 */
+	public ScriptManager sm;
+
+	/**
+	 * An engine over the map and trains.  Accidents stop the trains involved.
+	 */
+	public SimulationEngine engine;
+
+	/**
+	 * Load a map and place trains on it.
+	 *
+	 * @param map A map file name, or <code>synthetic:N</code>
+	 * @param ntrains How many trains to place
+	 * @throws Exception If the map cannot be loaded
+	 */
+	public Fixture(String map, int ntrains) throws Exception {
+		this.map = map;
+		this.ntrains = ntrains;
+
+		if (map.startsWith("synthetic:")) {
+			SyntheticMap sy = new SyntheticMap(Integer.parseInt(map.substring(10)), 1);
+			la = sy.segments();
+			md = sy.metaData();
+
+			file = File.createTempFile("synthetic", ".rwm");
+			file.deleteOnExit();
+			RWMWriter.write(la, md, file);
+		} else {
+			file = new File(map);
+			MapLoader ml = MapLoader.loadFromFile(file);
+			la = ml.getSegments();
+			md = ml.getMetaData();
+			try {
+				image = ml.getImage();
+			} catch (IOException e) {
+				image = null;
+			}
+		}
+		md.ourFile = file;
+		World.current().feetPerPixels = md.feetPerPixel;
+
+		la = Signal.createSignals(la);
+		for (RailSegment r : la) r.recomp();
+
+		sm = new ScriptManager();
+		trains = new Trains();
+		place(ntrains);
+
+		engine = new SimulationEngine(la, trains, sm);
+		engine.addSimulationListener(new SimulationListener() {
+			public void railAccident(RailAccident ra) {
+				ra.t1.setThrottle(0);
+				ra.t1.setVel(0);
+				if (ra.t2 != null) {
+					ra.t2.setThrottle(0);
+					ra.t2.setVel(0);
+				}
+			}
+			public void controllerChanged(Train t) { }
+			public void stepped(SimulationEngine s) { }
+		});
+	}
+
+	// spread the trains evenly over the plain track, all heading toward the end point
+	private void place(int ntrains) {
+		ArrayList<TrackSegment> spots = new ArrayList<TrackSegment>();
+		for (RailSegment r : la)
+			if (r.getClass() == TrackSegment.class && r.length().feet() >= MIN_PLACE.feet()
+					&& r.getDest(TrackSegment.POINT_BEGIN) != null)
+				spots.add((TrackSegment)r);
+
+		if (spots.isEmpty()) return;
+
+		for (int i = 0; i < ntrains; i++) {
+			TrackSegment r = spots.get((int)((long)i * spots.size() / ntrains) % spots.size());
+
+			Car[] cs = new Car[CARS];
+			cs[0] = new Engine();
+			for (int j = 1; j < CARS; j++) cs[j] = new Boxcar();
+
+			Train t = new Train(cs);
+			t.pos.r = r;
+			t.pos.orig = r.getDest(TrackSegment.POINT_BEGIN);
+			t.pos.per = 0.5;
+			t.setThrottle(4);
+			t.getController().setTrainActionScriptNotify(sm);
+			trains.add(t);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package net.kolls.railworld.bench;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import net.kolls.railworld.io.MetaData;
+import net.kolls.railworld.io.RWGReader;
+import net.kolls.railworld.io.RWGWriter;
+import net.kolls.railworld.io.RWMReader;
+
+import java.io.File;
+
+/**
+ * Times parsing a map file with {@link RWMReader}, or a saved game with {@link RWGReader}.
+ * The saved game is written from the fixture first.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class ReadBenchmark extends Benchmark {
+
+	private boolean game;
+	private File rwg;
+
+	/**
+	 * Create the benchmark.
+	 *
+	 * @param savedGame Read a saved game rather than a map
+	 */
+	public ReadBenchmark(boolean savedGame) {
+		game = savedGame;
+	}
+
+	@Override
+	public String name() { return game ? "read.rwg" : "read.rwm"; }
+
+	@Override
+	public boolean usesTrains() { return game; }
+
+	@Override
+	public void trial(Fixture fx) throws Exception {
+		super.trial(fx);
+		if (!game) return;
+
+		rwg = File.createTempFile("bench", ".rwg");
+		rwg.deleteOnExit();
+		RWGWriter.write(f.la, f.trains, f.sm, f.md, rwg);
+	}
+
+	@Override
+	public Object op() throws Exception {
+		if (game)
+			return RWGReader.readForRWM(rwg);
+		return RWMReader.read(f.file, new MetaData());
+	}
+}
@@ -0,0 +1,45 @@
+package net.kolls.railworld.bench;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+/**
+ * Times one step of the {@link net.kolls.railworld.play.SimulationEngine}, which moves
+ * every train, checks for accidents, updates occupancy and runs the controllers.
+ * The trains are placed again before each iteration, so that they are
+ * still moving while measured.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class StepBenchmark extends Benchmark {
+
+	@Override
+	public String name() { return "step"; }
+
+	@Override
+	public void iteration() throws Exception {
+		f = new Fixture(f.map, f.ntrains);
+	}
+
+	@Override
+	public Object op() {
+		f.engine.step();
+		return null;
+	}
+}
@@ -0,0 +1,173 @@
+package net.kolls.railworld.bench;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import net.kolls.railworld.RailSegment;
+import net.kolls.railworld.World;
+import net.kolls.railworld.io.MetaData;
+import net.kolls.railworld.segment.EESegment;
+import net.kolls.railworld.segment.Switch;
+import net.kolls.railworld.segment.TrackSegment;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Generates maps of any size for benchmarking.  The map is a stack of
+ * parallel main lines running east to west, each with an entrance at both ends
+ * and passing sidings placed at random along it.  The same size and seed
+ * always give the same map.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class SyntheticMap {
+
+	// in pixels at the default scale
+	private static final double MARGIN = 200;
+	private static final double ROW_GAP = 150;
+	private static final double SEG_LEN = 300;
+	private static final double EE_LEN = 150;
+	private static final double SIDING_OFFSET = 40;
+
+	// a siding takes up three main line segments
+	private static final int SIDING_SPAN = 3;
+
+	private ArrayList<RailSegment> segs;
+	private Random rnd;
+	private int rows, cols;
+
+	/**
+	 * Lay out a map.
+	 *
+	 * @param segments About how many segments the map should have
+	 * @param seed Seed for placing the sidings
+	 */
+	public SyntheticMap(int segments, long seed) {
+		segs = new ArrayList<RailSegment>();
+		rnd = new Random(seed);
+
+		// about four times as wide as it is tall
+		rows = Math.max(1, (int)Math.round(Math.sqrt(segments / 4.0)));
+		cols = Math.max(SIDING_SPAN + 2, segments / rows);
+
+		for (int r = 0; r < rows; r++)
+			row(r);
+	}
+
+	private static Line2D line(double x1, double y1, double x2, double y2) {
+		return new Line2D.Double(x1, y1, x2, y2);
+	}
+
+	private void row(int r) {
+		double y = MARGIN + r * ROW_GAP;
+		double x = MARGIN;
+
+		EESegment west = new EESegment(null, null, line(x - EE_LEN, y, x, y), "West " + (r+1));
+		segs.add(west);
+		RailSegment prev = west;
+		int prevEnd = TrackSegment.POINT_END;
+
+		int c = 0;
+		while (c < cols) {
+			// one in four stretches gets a passing siding, where there is room
+			if (c + SIDING_SPAN <= cols && c > 0 && rnd.nextInt(4) == 0) {
+				prev = siding(prev, prevEnd, x, y);
+				prevEnd = Switch.POINT_BEGIN;
+				x += SIDING_SPAN * SEG_LEN;
+				c += SIDING_SPAN;
+				continue;
+			}
+
+			TrackSegment t = new TrackSegment(prev, null, line(x, y, x + SEG_LEN, y));
+			segs.add(t);
+			prev.setDest(prevEnd, false, t);
+			prev = t;
+			prevEnd = TrackSegment.POINT_END;
+			x += SEG_LEN;
+			c++;
+		}
+
+		EESegment east = new EESegment(prev, null, line(x, y, x + EE_LEN, y), "East " + (r+1));
+		segs.add(east);
+		prev.setDest(prevEnd, false, east);
+	}
+
+	// lays a siding starting at x, returns the switch at the far end
+	private RailSegment siding(RailSegment prev, int prevEnd, double x, double y) {
+		double x1 = x + SEG_LEN, x2 = x + 2*SEG_LEN, x3 = x + 3*SEG_LEN;
+		double sy = y - SIDING_OFFSET;
+
+		Switch s1 = new Switch(prev, null, null, new Point2D.Double(x, y));
+		prev.setDest(prevEnd, false, s1);
+
+		TrackSegment m1 = new TrackSegment(s1, null, line(x, y, x1, y));
+		TrackSegment m2 = new TrackSegment(m1, null, line(x1, y, x2, y));
+		TrackSegment m3 = new TrackSegment(m2, null, line(x2, y, x3, y));
+		m1.setDest(TrackSegment.POINT_END, false, m2);
+		m2.setDest(TrackSegment.POINT_END, false, m3);
+
+		TrackSegment d1 = new TrackSegment(s1, null, line(x, y, x1, sy));
+		TrackSegment d2 = new TrackSegment(d1, null, line(x1, sy, x2, sy));
+		TrackSegment d3 = new TrackSegment(d2, null, line(x2, sy, x3, y));
+		d1.setDest(TrackSegment.POINT_END, false, d2);
+		d2.setDest(TrackSegment.POINT_END, false, d3);
+
+		s1.setDest(Switch.POINT_END1, false, m1);
+		s1.setDest(Switch.POINT_END2, false, d1);
+
+		Switch s2 = new Switch(null, m3, d3, new Point2D.Double(x3, y));
+		m3.setDest(TrackSegment.POINT_END, false, s2);
+		d3.setDest(TrackSegment.POINT_END, false, s2);
+
+		segs.add(s1);
+		segs.add(m1); segs.add(m2); segs.add(m3);
+		segs.add(d1); segs.add(d2); segs.add(d3);
+		segs.add(s2);
+
+		return s2;
+	}
+
+	/**
+	 *
+	 * @return The segments of the map, not including signals
+	 */
+	public RailSegment[] segments() {
+		return segs.toArray(new RailSegment[0]);
+	}
+
+	/**
+	 *
+	 * @return Meta data describing the map, with no image
+	 */
+	public MetaData metaData() {
+		MetaData md = new MetaData();
+		md.title = "Synthetic " + rows + "x" + cols;
+		md.author = "SyntheticMap";
+		md.comment = "";
+		md.imgfile = "";
+		md.feetPerPixel = World.current().feetPerPixels;
+		md.zoom = 1;
+		md.centerX = (int)(MARGIN + cols * SEG_LEN / 2);
+		md.centerY = (int)(MARGIN + rows * ROW_GAP / 2);
+		return md;
+	}
+}
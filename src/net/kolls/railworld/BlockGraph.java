@@ -0,0 +1,155 @@
+package net.kolls.railworld;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import net.kolls.railworld.segment.Signal;
+import net.kolls.railworld.segment.Switch;
+
+/**
+ * Precomputed look-ahead along the track.  Most segments simply lead on to the
+ * next, so the track divides into {@link Run}s: stretches which always lead the
+ * same way, ending at the next signal, switch or end of track.  Looking ahead
+ * from a segment then means hopping from one run to the next instead of
+ * visiting every segment.
+ * <p>
+ * A run ends where the way on may change or where there is something to look at:
+ * at any {@link Signal}, and at a {@link Switch} entered from its origin,
+ * where the way on depends on how the switch is set.  A switch entered from
+ * either of its other legs always leads to its origin, so it does not end a run.
+ * As no run passes through a switch from its origin, flipping a switch
+ * does not affect any run.
+ * <p>
+ * Runs are worked out when first asked for and kept on the segment they start from.
+ * Any change to how segments connect, or where they are, discards all those of the current {@link World}.
+ *
+ * @author Rick Rutt
+ *
+ */
+public final class BlockGraph {
+
+	/**
+	 * The most segments a run may cover.  Track which loops back on itself without
+	 * a signal or switch has no end, so a run around it stops here and the next
+	 * run carries on.
+	 */
+	public static final int RUN_LIMIT = 1000;
+
+	/**
+	 * A stretch of track, from a segment up to the next segment which ends the run.
+	 */
+	public static final class Run {
+		/**
+		 * The length in feet of the segments in the run.  This does not include {@link #stop}.
+		 */
+		public final double feet;
+
+		/**
+		 * The number of segments in the run.
+		 */
+		public final int segments;
+
+		/**
+		 * The segment reached at the end of the run, or <code>null</code> for the end of the track.
+		 */
+		public final RailSegment stop;
+
+		/**
+		 * The segment {@link #stop} is entered from.  This is the last segment
+		 * of the run, or the segment before the run if the run is empty.
+		 */
+		public final RailSegment from;
+
+		private final int version;
+
+		private Run(double feet, int segments, RailSegment stop, RailSegment from) {
+			this.feet = feet;
+			this.segments = segments;
+			this.stop = stop;
+			this.from = from;
+			this.version = World.current().trackVersion;
+		}
+	}
+
+	private BlockGraph() { }
+
+	/**
+	 * Discard all runs.  Called whenever segments are connected, disconnected or moved.
+	 */
+	public static void invalidate() {
+		World.current().trackVersion++;
+	}
+
+	/**
+	 * Does a run end on reaching this segment?
+	 *
+	 * @param r The segment reached
+	 * @param orig The segment it is entered from
+	 * @return If the segment ends a run
+	 */
+	public static boolean isStop(RailSegment r, RailSegment orig) {
+		if (r instanceof Signal) return true;
+		if (r instanceof Switch)
+			return orig != r.getDest(Switch.POINT_END1) && orig != r.getDest(Switch.POINT_END2);
+		return false;
+	}
+
+	/**
+	 * Find the run starting at a segment.
+	 *
+	 * @param r The first segment of the run
+	 * @param orig The segment <code>r</code> is entered from
+	 * @return The run.  If <code>r</code> itself ends a run, the run is empty
+	 * and {@link Run#stop} is <code>r</code>.
+	 */
+	public static Run ahead(RailSegment r, RailSegment orig) {
+		// runs are kept for each way into a segment
+		int way = -1;
+		if (orig != null)
+			for (int i = 0; i < r.dests.length; i++)
+				if (r.dests[i] == orig) {
+					way = i;
+					break;
+				}
+
+		if (way == -1) return walk(r, orig);
+
+		if (r.ahead == null || r.ahead.length != r.dests.length)
+			r.ahead = new Run[r.dests.length];
+
+		Run run = r.ahead[way];
+		if (run == null || run.version != World.current().trackVersion) {
+			run = walk(r, orig);
+			r.ahead[way] = run;
+		}
+		return run;
+	}
+
+	private static Run walk(RailSegment r, RailSegment orig) {
+		double feet = 0;
+		int n = 0;
+		while (r != null && n < RUN_LIMIT && !isStop(r, orig)) {
+			feet += r.lengthFeet();
+			n++;
+			RailSegment tmp = r;
+			r = r.dest(orig);
+			orig = tmp;
+		}
+		return new Run(feet, n, r, orig);
+	}
+}
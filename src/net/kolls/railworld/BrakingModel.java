@@ -0,0 +1,86 @@
+package net.kolls.railworld;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+/**
+ * Works out how far a train travels while braking.  A braking train loses the
+ * same speed every clock step, and moves {@link GameLoop#feetPerStepSpeed(double)}
+ * at the speed it had at the start of each step.  So the distance is the sum of
+ * an arithmetic series, which is found directly rather than by stepping through it.
+ * The answers are those of stepping, to within rounding.
+ *
+ * @author Rick Rutt
+ * @see Train#feetToSlow(double)
+ */
+public final class BrakingModel {
+
+	private BrakingModel() { }
+
+	/**
+	 * How close to a whole number of steps the slowing must come for the speeds
+	 * to be added up step by step.
+	 */
+	private static final double TIE = 1e-6;
+
+	/**
+	 * How many clock steps it takes to slow from one speed to another.
+	 *
+	 * @param from The starting velocity, in MPH.
+	 * @param to The target velocity, in MPH.  Targets below 0 are taken as 0.
+	 * @param accel The change in velocity each step, in MPH.  Must be negative.
+	 * @return The number of steps before the velocity is no more than the target,
+	 * or {@link Long#MAX_VALUE} if the velocity never falls.
+	 */
+	public static long steps(double from, double to, double accel) {
+		if (to < 0) to = 0;
+		if (from <= to) return 0;
+		if (!(accel < 0)) return Long.MAX_VALUE;
+
+		double whole = (from - to) / -accel;
+		if (Math.abs(whole - Math.rint(whole)) < TIE) {
+			// the last step lands right on the target, and which side of it
+			// depends on how the speeds add up, so add them up as stepping does
+			long n = 0;
+			for (double iv = from; iv > to; iv = Math.max(iv + accel, 0))
+				n++;
+			return n;
+		}
+
+		return Math.max((long)Math.ceil(whole), 1);
+	}
+
+	/**
+	 * How many feet are travelled while slowing from one speed to another.
+	 *
+	 * @param from The starting velocity, in MPH.
+	 * @param to The target velocity, in MPH.  Targets below 0 are taken as 0.
+	 * @param accel The change in velocity each step, in MPH.  Must be negative.
+	 * @return The distance in feet, or {@link Double#POSITIVE_INFINITY} if the velocity never falls.
+	 */
+	public static double distance(double from, double to, double accel) {
+		long n = steps(from, to, accel);
+		if (n == Long.MAX_VALUE) return Double.POSITIVE_INFINITY;
+
+		// the speeds at the start of each step: from, from + accel, ... from + (n-1) accel
+		double speeds = n * from;
+		if (n > 1) speeds += accel * ((double)n * (n - 1) / 2.0);
+
+		return GameLoop.feetPerStepSpeed(speeds);
+	}
+}
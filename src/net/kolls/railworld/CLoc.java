@@ -136,13 +136,13 @@ public class CLoc  {
 			// the number of pixels remaining
 			// in this segment,
 			// jump to the end
-			int pixelsLeft = (int)(pr.length().pixels() * (1.0-pper));
+			int pixelsLeft = (int)(pr.lengthPixels() * (1.0-pper));
 			if (/*pr.length().feet() > 0 && */ pixels >= pixelsLeft) {
 				pper = 1;
 				pixels -= pixelsLeft;
 			} else { 
 				// we finish up within this segment
-				pper += pixels / pr.length().pixels();
+				pper += pixels / pr.lengthPixels();
 				pixels = 0;
 				//pper = pr.pixelStep(pper);
 			}
@@ -152,7 +152,7 @@ public class CLoc  {
 			
 			if (pper == 1) {
 				// zero length segments don't count
-				if (pr.length().feet() == 0) pixels++;
+				if (pr.lengthFeet() == 0) pixels++;
 
 				// finalize the line segment if appropriate
 				e = pr.getPoint(porig, pper);
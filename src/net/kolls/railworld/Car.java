@@ -66,7 +66,10 @@ public interface Car extends SaveLoad {
 	
 	
 	/**
-	 * For the current Car, returns the segments that the Car occupies, if any.  
+	 * For the current Car, returns the segments that the Car occupies, if any,
+	 * as recorded the last time its train was walked by {@link CLoc#segFwd(Distance, Car, Train)}.
+	 * In play, the segments of each car are kept up to date in its train's {@link Consist}
+	 * instead; see {@link Consist#segments(int)}.
 	 * This should be considered read-only.
 	 * 
 	 * @return {@link Set} of {@link RailSegment}s.
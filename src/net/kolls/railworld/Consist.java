@@ -0,0 +1,345 @@
+package net.kolls.railworld;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.awt.Color;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The cars of a train packed into parallel arrays, one entry per car in the order of
+ * {@link Train#array()}.  Moving, walking and painting a long train read these arrays
+ * rather than asking each {@link Car} in turn, and the segments each car occupies are
+ * kept here as a range of one shared array rather than in a set per car.
+ * <p>
+ * The cars are read again whenever {@link Train#consistChanged()} has been called.
+ * What is read from the cars may be asked for from any thread; the segment ranges
+ * belong to the simulation.
+ * The segment ranges are filled in by the simulation, through
+ * {@link TrainGeometry#assignCars(Train)}, and are kept when the cars are read again.
+ * Obtain the consist with {@link Train#consist()}.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class Consist {
+
+	// every kind of car seen, by class
+	private static final HashMap<Class<?>, Integer> typeIds = new HashMap<Class<?>, Integer>();
+	private static final ArrayList<String> typeNames = new ArrayList<String>();
+
+	/**
+	 * Find the number of a kind of car.  Numbers are given out as kinds are first seen,
+	 * so they are only meaningful while the program runs.
+	 *
+	 * @param c A car
+	 * @return The number of the car's class
+	 */
+	public static synchronized int typeOf(Car c) {
+		Integer id = typeIds.get(c.getClass());
+		if (id == null) {
+			id = typeNames.size();
+			typeIds.put(c.getClass(), id);
+			typeNames.add(c.show());
+		}
+		return id;
+	}
+
+	/**
+	 *
+	 * @param type The number of a kind of car
+	 * @return The name of the kind, as given by {@link Car#show()}
+	 */
+	public static synchronized String typeName(int type) {
+		return typeNames.get(type);
+	}
+
+	private Car[] cars;
+	private int n;
+
+	// what was read from the cars, replaced whole and never changed, so that
+	// a reader on another thread sees either the old cars or the new
+	private static final class Cars {
+		final int[] type;
+		final double[] feet;
+		final int[] weight;
+		final Color[] color, midColor;
+		final long[] loaded, loadable, engine;
+
+		Cars(int n) {
+			type = new int[n];
+			feet = new double[n];
+			weight = new int[n];
+			color = new Color[n];
+			midColor = new Color[n];
+			loaded = new long[(n + 63) >> 6];
+			loadable = new long[loaded.length];
+			engine = new long[loaded.length];
+		}
+	}
+
+	private volatile Cars d;
+
+	// lengths in pixels, at the scale they were worked out for
+	private static final class Pixels {
+		final Cars from;
+		final double scale;
+		final int[] pixels;
+
+		Pixels(Cars f, double s, int[] p) {
+			from = f;
+			scale = s;
+			pixels = p;
+		}
+	}
+
+	private volatile Pixels pixels;
+
+	// car i occupies segs[segStart[i]] up to segs[segStart[i+1]]
+	private int[] segStart;
+	private RailSegment[] segs;
+	private SegmentRange[] views;
+
+	/**
+	 * Pack the cars of a train.
+	 *
+	 * @param c The cars, which are read straight away
+	 */
+	Consist(Car[] c) {
+		cars = c;
+		n = c.length;
+		segStart = new int[n + 1];
+		segs = new RailSegment[Math.max(n, 4)];
+		views = new SegmentRange[n];
+		read();
+	}
+
+	/**
+	 * Read the cars again, after they have been loaded, unloaded or replaced.
+	 * The new values are only seen once all of them have been read.
+	 */
+	void read() {
+		Cars r = new Cars(n);
+		for (int i = 0; i < n; i++) {
+			Car c = cars[i];
+			r.type[i] = typeOf(c);
+			r.feet[i] = c.length().feet();
+			r.weight[i] = c.weight();
+			r.color[i] = c.color();
+			r.midColor[i] = c.midColor();
+			if (c.isLoadable()) {
+				r.loadable[i >> 6] |= 1L << i;
+				if (c.loaded()) r.loaded[i >> 6] |= 1L << i;
+			}
+			if (c.isEngine()) r.engine[i >> 6] |= 1L << i;
+		}
+		d = r;
+	}
+
+	/**
+	 *
+	 * @return The number of cars
+	 */
+	public int size() { return n; }
+
+	/**
+	 *
+	 * @param i A car's place in the train
+	 * @return The car itself
+	 */
+	public Car car(int i) { return cars[i]; }
+
+	/**
+	 *
+	 * @param i A car's place in the train
+	 * @return The number of the car's kind, as given by {@link #typeOf(Car)}
+	 */
+	public int type(int i) { return d.type[i]; }
+
+	/**
+	 *
+	 * @param i A car's place in the train
+	 * @return The length of the car in feet
+	 */
+	public double feet(int i) { return d.feet[i]; }
+
+	/**
+	 *
+	 * @param i A car's place in the train
+	 * @return The weight of the car in US Tons
+	 */
+	public int weight(int i) { return d.weight[i]; }
+
+	/**
+	 *
+	 * @param i A car's place in the train
+	 * @return The color of the car
+	 */
+	public Color color(int i) { return d.color[i]; }
+
+	/**
+	 *
+	 * @param i A car's place in the train
+	 * @return The color of the middle line of the car
+	 */
+	public Color midColor(int i) { return d.midColor[i]; }
+
+	/**
+	 *
+	 * @param i A car's place in the train
+	 * @return <code>true</code> if the car is loadable and loaded
+	 */
+	public boolean loaded(int i) { return (d.loaded[i >> 6] & (1L << i)) != 0; }
+
+	/**
+	 *
+	 * @param i A car's place in the train
+	 * @return <code>true</code> if the car carries cargo
+	 */
+	public boolean loadable(int i) { return (d.loadable[i >> 6] & (1L << i)) != 0; }
+
+	/**
+	 *
+	 * @param i A car's place in the train
+	 * @return <code>true</code> if the car provides power
+	 */
+	public boolean engine(int i) { return (d.engine[i >> 6] & (1L << i)) != 0; }
+
+	/**
+	 *
+	 * @return The number of engines
+	 */
+	public int engines() { return count(d.engine); }
+
+	/**
+	 *
+	 * @return The number of loadable cars which are loaded
+	 */
+	public int loadedCars() { return count(d.loaded); }
+
+	private static int count(long[] bits) {
+		int c = 0;
+		for (long b : bits) c += Long.bitCount(b);
+		return c;
+	}
+
+	/**
+	 *
+	 * @return The total weight of the cars
+	 */
+	public int weight() {
+		int[] w = d.weight;
+		int t = 0;
+		for (int i = 0; i < n; i++) t += w[i];
+		return t;
+	}
+
+	/**
+	 * The lengths of the cars in pixels, as {@link Distance#iPixels()} gives them
+	 * at the scale of the current {@link World}.
+	 *
+	 * @return The lengths, which must not be modified
+	 */
+	public int[] pixels() {
+		double s = World.current().feetPerPixels;
+		Cars r = d;
+		Pixels p = pixels;
+		if (p == null || p.from != r || p.scale != s) {
+			int[] px = new int[n];
+			for (int i = 0; i < n; i++)
+				px[i] = new Distance(r.feet[i], Distance.Measure.FEET).iPixels();
+			p = new Pixels(r, s, px);
+			pixels = p;
+		}
+		return p.pixels;
+	}
+
+	/**
+	 * Replace the segments each car occupies.
+	 *
+	 * @param start For each car, where its segments begin in <code>s</code>,
+	 * followed by where the last car's end
+	 * @param s The segments, car by car, each given once for its car
+	 */
+	void setSegments(int[] start, RailSegment[] s) {
+		if (segs.length < start[n]) segs = new RailSegment[s.length];
+		System.arraycopy(s, 0, segs, 0, start[n]);
+		System.arraycopy(start, 0, segStart, 0, n + 1);
+	}
+
+	/**
+	 *
+	 * @param i A car's place in the train
+	 * @return The number of segments the car occupies
+	 */
+	public int segmentCount(int i) { return segStart[i + 1] - segStart[i]; }
+
+	/**
+	 *
+	 * @param i A car's place in the train
+	 * @param j Which of the car's segments, from 0
+	 * @return The segment
+	 */
+	public RailSegment segment(int i, int j) { return segs[segStart[i] + j]; }
+
+	/**
+	 * The segments a car occupies, as a set.  The set is a view, which changes
+	 * as the train moves, and may not be modified.
+	 *
+	 * @param i A car's place in the train
+	 * @return The car's segments
+	 */
+	public Set<RailSegment> segments(int i) {
+		if (views[i] == null) views[i] = new SegmentRange(i);
+		return views[i];
+	}
+
+	private class SegmentRange extends AbstractSet<RailSegment> {
+		private int car;
+
+		SegmentRange(int i) { car = i; }
+
+		@Override
+		public int size() { return segmentCount(car); }
+
+		@Override
+		public boolean contains(Object o) {
+			for (int j = segStart[car]; j < segStart[car + 1]; j++)
+				if (segs[j] == o) return true;
+			return false;
+		}
+
+		@Override
+		public Iterator<RailSegment> iterator() {
+			return new Iterator<RailSegment>() {
+				private int j = 0;
+				public boolean hasNext() { return j < segmentCount(car); }
+				public RailSegment next() {
+					if (!hasNext()) throw new NoSuchElementException();
+					return segment(car, j++);
+				}
+				public void remove() { throw new UnsupportedOperationException(); }
+			};
+		}
+	}
+}
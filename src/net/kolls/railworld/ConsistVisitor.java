@@ -0,0 +1,44 @@
+package net.kolls.railworld;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+/**
+ * Receives each car of a train as a {@link ConsistWalker} walks it.
+ * The buffers given are owned by the walker and are overwritten for the next car,
+ * so anything needed later must be copied out.
+ *
+ * @author Rick Rutt
+ *
+ */
+public interface ConsistVisitor {
+
+	/**
+	 * Called for each car, from the head of the train to the tail.
+	 *
+	 * @param t The train being walked
+	 * @param c The car
+	 * @param idx The position of the car in the train
+	 * @param lines The visible lines of the car, as x1, y1, x2, y2 for each line.
+	 * There may be none if the car is hidden.
+	 * @param n The number of lines
+	 * @param ends The begin x, y and end x, y of the car, given regardless of whether
+	 * or not the car is hidden
+	 */
+	void car(Train t, Car c, int idx, double[] lines, int n, double[] ends);
+}
@@ -0,0 +1,257 @@
+package net.kolls.railworld;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.util.Arrays;
+
+/**
+ * Walks a train car by car, in the same way as {@link TrainUIController#act(Train)},
+ * but without creating any objects.  The lines of each car are written into buffers
+ * owned by the walker and handed to a {@link ConsistVisitor}.  A walker may be reused
+ * for any number of trains, but only by one thread at a time.
+ * <p>
+ * A walker can also register each train with the segments it occupies,
+ * and each car with its segments, as {@link CLoc#segFwd(Distance, Car, Train)} does.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class ConsistWalker {
+
+	// the current position, as in a CLoc
+	private RailSegment r, orig;
+	private double per;
+
+	// the end of the last car walked
+	private RailSegment tr, torig;
+	private double tper;
+	private boolean hasTail;
+
+	private boolean register;
+	private TrainGeometry geo;
+
+	// the place of the car being walked, or -1 between cars
+	private int ci;
+
+	// unstraightened lines for the current car, and the final lines
+	private double[] raw, lines;
+	private int nraw;
+	private double[] ends, pt;
+
+	/**
+	 * Create a walker which does not register trains with segments.
+	 */
+	public ConsistWalker() {
+		this(false);
+	}
+
+	/**
+	 * Create a walker.
+	 *
+	 * @param reg Should trains and cars be registered with the segments they occupy?
+	 */
+	public ConsistWalker(boolean reg) {
+		register = reg;
+		raw = new double[64];
+		lines = new double[64];
+		ends = new double[4];
+		pt = new double[2];
+	}
+
+	/**
+	 * Walk a train from head to tail, recording everything about it.
+	 *
+	 * @param t The train to walk
+	 * @param g The geometry to fill in
+	 */
+	public void walk(Train t, TrainGeometry g) {
+		geo = g;
+		walk(t, (ConsistVisitor)g);
+		geo = null;
+	}
+
+	/**
+	 * Walk a train from head to tail.
+	 *
+	 * @param t The train to walk
+	 * @param v The visitor to give each car to, or <code>null</code> if only registering
+	 */
+	public void walk(Train t, ConsistVisitor v) {
+		hasTail = false;
+		if (t.pos.r == null) return;
+
+		// start from the head, facing the tail
+		r = t.pos.r;
+		orig = r.dest(t.pos.orig);
+		per = 1.0 - t.pos.per;
+		if (geo != null) geo.passed(r, t.pos.orig, orig);
+
+		Car[] train = t.array();
+		int[] px = t.consist().pixels();
+		boolean collect = v != null;
+		int gap = Car.DIST_BETWEEN_CARS.iPixels();
+
+		for (int i = 0; i < train.length; i++) {
+			if (r == null) break;
+
+			if (register) train[i].segs().clear();
+			if (collect) r.getPoint(orig, per, ends, 0);
+
+			ci = i;
+			forward(px[i], train[i], t, collect);
+
+			tr = r; torig = orig; tper = per;
+			hasTail = true;
+
+			if (collect) {
+				if (r != null) r.getPoint(orig, per, ends, 2);
+				else if (nraw > 0) {
+					ends[2] = raw[nraw*4-2];
+					ends[3] = raw[nraw*4-1];
+				} else {
+					ends[2] = ends[0];
+					ends[3] = ends[1];
+				}
+				v.car(t, train[i], i, lines, straighten(), ends);
+			}
+
+			if (r == null) break;
+
+			// between cars, move forward empty space
+			ci = -1;
+			forward(gap, null, t, false);
+		}
+	}
+
+	/**
+	 * After a walk, gives the location of the end of the last car.
+	 * This is the same as {@link net.kolls.railworld.tuic.TrainEndPointFinder#p}.
+	 *
+	 * @return A new {@link CLoc}, or <code>null</code> if no car was walked
+	 */
+	public CLoc tail() {
+		if (!hasTail) return null;
+		return new CLoc(tr, torig, tper);
+	}
+
+	private void addRaw(double sx, double sy, double ex, double ey) {
+		if (nraw*4 + 4 > raw.length) raw = Arrays.copyOf(raw, raw.length * 2);
+		raw[nraw*4] = sx; raw[nraw*4+1] = sy;
+		raw[nraw*4+2] = ex; raw[nraw*4+3] = ey;
+		nraw++;
+	}
+
+	private void present(RailSegment pr, Car myC, Train myT) {
+		if (geo != null) geo.present(pr, ci);
+		if (!register) return;
+		pr.trains().add(myT);
+		pr.enter(myT);
+		if (myC != null) myC.segs().add(pr);
+	}
+
+	// this follows CLoc.segFwd exactly, so that trains look the same either way
+	private void forward(int pixels, Car myC, Train myT, boolean collect) {
+		RailSegment pr = r, porig = orig, tmp;
+		double pper = per;
+		double sx = 0, sy = 0;
+
+		nraw = 0;
+
+		if (collect) {
+			pr.getPoint(porig, pper, pt, 0);
+			sx = pt[0]; sy = pt[1];
+		}
+
+		while (pixels > 0) {
+			// if our desired pixels exceeds
+			// the number of pixels remaining
+			// in this segment,
+			// jump to the end
+			int pixelsLeft = (int)(pr.lengthPixels() * (1.0-pper));
+			if (pixels >= pixelsLeft) {
+				pper = 1;
+				pixels -= pixelsLeft;
+			} else {
+				// we finish up within this segment
+				pper += pixels / pr.lengthPixels();
+				pixels = 0;
+			}
+
+			if (pper == 1) {
+				// zero length segments don't count
+				if (pr.lengthFeet() == 0) pixels++;
+
+				if (collect && pr.carHidden() == false) {
+					pr.getPoint(porig, pper, pt, 0);
+					addRaw(sx, sy, pt[0], pt[1]);
+				}
+
+				present(pr, myC, myT);
+
+				// move to the next segment
+				pper = 0;
+				tmp = pr;
+
+				pr = pr.dest(porig);
+				if (geo != null) geo.passed(tmp, porig, pr);
+				if (pr == null) break;
+				porig = tmp;
+
+				if (collect) {
+					pr.getPoint(porig, pper, pt, 0);
+					sx = pt[0]; sy = pt[1];
+				}
+			}
+		}
+		if (collect && pr != null && pr.carHidden() == false) {
+			pr.getPoint(porig, pper, pt, 0);
+			addRaw(sx, sy, pt[0], pt[1]);
+		}
+		if (pr != null) present(pr, myC, myT);
+
+		r = pr;
+		orig = porig;
+		per = pper;
+	}
+
+	// join up lines which meet, leaving breaks only where the car is hidden
+	private int straighten() {
+		if (nraw == 0) return 0;
+		if (lines.length < raw.length) lines = new double[raw.length];
+
+		int c = 0;
+		double sx = raw[0], sy = raw[1];
+
+		for (int i = 1; i < nraw; i++) {
+			double px = raw[i*4-2], py = raw[i*4-1];
+			double dx = raw[i*4] - px, dy = raw[i*4+1] - py;
+			if (dx*dx + dy*dy < 1) continue;
+
+			lines[c*4] = sx; lines[c*4+1] = sy;
+			lines[c*4+2] = px; lines[c*4+3] = py;
+			c++;
+			sx = raw[i*4]; sy = raw[i*4+1];
+		}
+		lines[c*4] = sx; lines[c*4+1] = sy;
+		lines[c*4+2] = raw[nraw*4-2]; lines[c*4+3] = raw[nraw*4-1];
+		c++;
+
+		return c;
+	}
+}
@@ -20,8 +20,8 @@ package net.kolls.railworld;
 
 
 /**
- * The Distance class maintains the current scale and zoom information globally, as well as managing
- * individual distance conversion (feet to pixels).  Distances should be created as feet
+ * The Distance class manages individual distance conversion (feet to pixels), using the
+ * scale of the current {@link World}.  Distances should be created as feet
  * and then rendered as pixels; the pixel value will change according to the scale
  * and the zoom.  As the user may alter the zoom at any time, the pixel values
  * should not be cached.
@@ -52,19 +52,13 @@ public class Distance {
 		PIXELS };
 	
 	
-	/**
-	 * This value must be changed prior to constructing any segments, as the segments
-	 * convert pixels into feet, depending on a correct scale.
-	 */
-	public static double feetPerPixels = 0.666; 
-	
 	/**
 	 * The default zoom for new maps or partial displays not subject to user zooming.
 	 * 
-	 * @return A zoom factor based on the current {@link #feetPerPixels}.
+	 * @return A zoom factor based on the current {@link World#feetPerPixels}.
 	 */
 	public static double getDefaultZoom() {
-		return feetPerPixels / 3.0;
+		return World.current().feetPerPixels / 3.0;
 	}
 	
 	/**
@@ -87,7 +81,7 @@ public class Distance {
 	 * Use {@link #iPixels() iPixels} instead.
 	 */
 	public double pixels() {
-		return (distFeet / feetPerPixels) /* * zoom */;
+		return (distFeet / World.current().feetPerPixels) /* * zoom */;
 	}
 	
 	/**
@@ -114,20 +108,20 @@ public class Distance {
 	 * Convert a given length in feet into pixels.
 	 * 
 	 * @param feet The length in feet
-	 * @return The length in pixels based on the current {@link #feetPerPixels}
+	 * @return The length in pixels based on the current {@link World#feetPerPixels}
 	 */
 	public static double toPixels(double feet) {
-		return (feet / feetPerPixels) /* * zoom */ ;
+		return (feet / World.current().feetPerPixels) /* * zoom */ ;
 	}
 	
 	/**
 	 * Convert a given length in pixels into feet/
 	 * 
 	 * @param pixels The length in pixels
-	 * @return The length in feet based on the current {@link #feetPerPixels}
+	 * @return The length in feet based on the current {@link World#feetPerPixels}
 	 */
 	public static double toFeet(double pixels) {
-		return pixels*feetPerPixels;
+		return pixels*World.current().feetPerPixels;
 	}
 	
 }
@@ -42,7 +42,8 @@ import net.kolls.railworld.tc.UserControl;
  */
 
 /**
- * Factories for various types.
+ * Factories for various types.  Each {@link World} has its own, so types added
+ * while playing one map are not seen by another.
  * 
  * @author Steve Kollmansberger
  */
@@ -51,17 +52,17 @@ public class Factories {
 	/**
 	 * An extensible factory for all car types.
 	 */
-	public static ExtensibleFactory<Car> cars;
+	public final ExtensibleFactory<Car> cars;
 	
 	/**
 	 * An extensible factory for all signal programs.
 	 */
-	public static ExtensibleFactory<SignalProgram> sps;
+	public final ExtensibleFactory<SignalProgram> sps;
 	
 	/**
 	 * An extensible factory for all train controllers.
 	 */
-	public static ExtensibleFactory<TrainControl> controllers;
+	public final ExtensibleFactory<TrainControl> controllers;
 	
 	
 	
@@ -69,7 +70,7 @@ public class Factories {
 	 * Create the extensible factories.
 	 * Add all built-in known types to the extensible factories.
 	 */
-	public static void init() {
+	public Factories() {
 		cars = new ExtensibleFactory<Car>();
 		cars.addType( (new Engine()));
 		cars.addType( (new Caboose()));
@@ -104,5 +105,35 @@ public class Factories {
 		
 	}
 	
+	/**
+	 * Give the current world fresh factories, with only the built-in types.
+	 */
+	public static void init() {
+		World.current().setFactories(new Factories());
+	}
+	
+	/**
+	 * 
+	 * @return The car factory of the current world
+	 */
+	public static ExtensibleFactory<Car> cars() {
+		return World.current().factories().cars;
+	}
+	
+	/**
+	 * 
+	 * @return The signal program factory of the current world
+	 */
+	public static ExtensibleFactory<SignalProgram> sps() {
+		return World.current().factories().sps;
+	}
+	
+	/**
+	 * 
+	 * @return The train controller factory of the current world
+	 */
+	public static ExtensibleFactory<TrainControl> controllers() {
+		return World.current().factories().controllers;
+	}
 	
 }
@@ -21,32 +21,35 @@ package net.kolls.railworld;
 
 
 
+import java.awt.DisplayMode;
+import java.awt.GraphicsConfiguration;
+import java.awt.HeadlessException;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 
-import net.kolls.railworld.opening.Options;
+import net.kolls.railworld.play.SimulationEngine;
+import net.kolls.railworld.play.StepMetrics;
 
 
 /**
- * Represents a time stepping update loop.  The loop performs given behavior as often as possible
- * whilst still being consistent.  To that end, the system maintains a count of the time required
- * to perform the operation and narrows its wait to be close to that time.
- * The wait time is automatically adjusted as the program progresses; thus, it is essential
- * that the behavior pays attention to the {@link #CLOCK_WAIT} value to determine "how much"
- * of behavior or movement it should do at each step.
- * 
- * Note that if the user provides a clock wait through options, this will override
- * the adjusting algorithm and be fixed.
+ * Represents a time stepping update loop.  The simulation is stepped at a fixed rate,
+ * every {@link World#clockWait} milliseconds of the world being played.  Painting is separate, at
+ * the rate the screen refreshes.  Time is measured with {@link System#nanoTime()}
+ * and banked; each frame makes as many steps as the banked time allows,
+ * up to {@link #MAX_STEPS_PER_FRAME}, so the size of a step never changes with load.
+ * <p>
+ * The trains are painted part of the way between the last two steps, according
+ * to the time left in the bank, so they move smoothly even when the steps are
+ * further apart than the frames.
  * 
  * @author Steve Kollmansberger
  *
  */
 public abstract class GameLoop {
 	private RailCanvas jdb;
+	private SimulationEngine engine;
 
 
-	private boolean adjust;
-	
 	private boolean running;
 	
 	/**
@@ -62,12 +65,15 @@ public abstract class GameLoop {
 	 */
 	public long elapsed;
     
+	// the world being played, whose clock step this loop follows
+	private World world;
+	
 	/**
-	 * Time between each run of the behavior, in milliseconds.  Applications
-	 * should sample this every time the behavior is called, and they may reasonably
-	 * assume that in this amount of time the behavior will be called again.
+	 * The most steps made to catch up before painting again.  If the simulation
+	 * falls further behind than this, the rest is dropped and play slows down,
+	 * rather than each frame falling further behind.
 	 */
-    public static int CLOCK_WAIT = 200;
+	public static final int MAX_STEPS_PER_FRAME = 5;
 
 
     
@@ -90,7 +96,7 @@ public abstract class GameLoop {
 		
 		rv *= fps; // how many feet per second
 
-		rv *= (CLOCK_WAIT / 1000.0); // scale by clock step
+		rv *= (World.current().clockWait / 1000.0); // scale by clock step
 
 		return rv;
 	}
@@ -104,24 +110,34 @@ public abstract class GameLoop {
 		jdb = rc;
 		running = true;
 		paused = false;
-		adjust = true;
 		todos = new LinkedBlockingQueue<Runnable>();
 		elapsed = 0;
-		
-		if (Options.getFPS() != 0) {
-			CLOCK_WAIT = (int)((1.0 / Options.getFPS()) * 1000);
-			adjust = false;
-		}
-		
+		world = World.current();
 	}
 	
 	/**
-	 * Calculate the current target frames per second
+	 * Constructs a gameloop which steps a simulation before each paint.
+	 * Commands given to {@link #runInLoop(Runnable)} are handed to the engine,
+	 * and pausing the loop pauses the engine.  The engine keeps the trains'
+	 * shapes so they may be painted between steps.
 	 * 
-	 * @return The current target FPS
+	 * @param rc A {@link RailCanvas} this loop should paint.
+	 * @param se The {@link SimulationEngine} to step.
+	 */
+	public GameLoop(RailCanvas rc, SimulationEngine se) {
+		this(rc);
+		engine = se;
+		world = se.world();
+		engine.setKeepShapes(true);
+	}
+	
+	/**
+	 * Calculate the number of simulation steps per second
+	 * 
+	 * @return The steps per second
 	 */
 	public int fps() {
-		return (int)(1.0 / (CLOCK_WAIT / 1000.0));
+		return (int)(1.0 / (world.clockWait / 1000.0));
 	}
 	
 	/**
@@ -131,51 +147,60 @@ public abstract class GameLoop {
 	 *
 	 */
 	public void gameLoop() {
-		long t = System.currentTimeMillis();
-		long delta = CLOCK_WAIT, delta2 = CLOCK_WAIT, delta3 = CLOCK_WAIT, delta4 = CLOCK_WAIT;
-		long avgd;
-		long stepstoadjust = 20; // right out of the gate, let the system get stabilized
+		long stepNanos = world.clockWait * 1000000L;
+		long frameNanos = 1000000000L / refreshRate();
+		long last = System.nanoTime(), next = last;
+		long banked = 0;
 		
 		while(running) {
-			delta4 = delta3;
-			delta3 = delta2;
-			delta2 = delta;
-			delta = CLOCK_WAIT - (System.currentTimeMillis() - t);
-			if (delta < 0) 
-				System.out.println(delta);
-			
-			avgd = (delta+delta2+delta3+delta4) / 4;
+			long now = System.nanoTime();
+			banked += now - last;
+			last = now;
 			
-			if (stepstoadjust == 0 && adjust) {
-				if (avgd < 0) {
-					// slow timer down
-					CLOCK_WAIT *= 1.1;
-//[RRutt]					System.out.println("Clock speed ("+CLOCK_WAIT+") slowed to " + fps() + " frames per second.");
-				} 
-				if (avgd > (CLOCK_WAIT * 0.3) && CLOCK_WAIT > 40) {
-					// speed time up
-					CLOCK_WAIT -= (avgd * 0.2);
-//[RRutt]					System.out.println("Clock speed ("+CLOCK_WAIT+") increased to " + fps() + " frames per second.");
+			int steps = 0;
+			if (paused) {
+				// commands are still run while paused
+				step();
+				banked = 0;
+			} else {
+				while (banked >= stepNanos && steps < MAX_STEPS_PER_FRAME && !paused) {
+					step();
+					banked -= stepNanos;
+					steps++;
 				}
-				stepstoadjust = 5;
-			} else stepstoadjust--;
-			
-			
-			try {
-				Thread.sleep(avgd);
-			} catch (Exception e) {  }
+				if (paused)
+					banked = 0;
+				else if (banked >= stepNanos) {
+					banked %= stepNanos;
+					if (engine != null) engine.metrics().late();
+				}
+			}
 			
-			long ot = t;
-			t = System.currentTimeMillis();
-			if (!paused)
-				elapsed += (t - ot);
+			jdb.setInterpolation(paused ? 1 : (double)banked / stepNanos);
+			paint(steps > 0);
 			
-			step();
+			next += frameNanos;
+			long wait = next - System.nanoTime();
+			if (wait > 0) {
+				try {
+					Thread.sleep(wait / 1000000, (int)(wait % 1000000));
+				} catch (InterruptedException e) {  }
+			} else next = System.nanoTime(); // don't try to make up for missed frames
 			
 		}
 
 	}
 	
+	// how often the screen showing the canvas is refreshed, per second
+	private int refreshRate() {
+		try {
+			GraphicsConfiguration gc = jdb.getGraphicsConfiguration();
+			int r = gc == null ? DisplayMode.REFRESH_RATE_UNKNOWN : gc.getDevice().getDisplayMode().getRefreshRate();
+			if (r != DisplayMode.REFRESH_RATE_UNKNOWN && r > 0) return r;
+		} catch (HeadlessException e) { }
+		return 60;
+	}
+	
 	/**
 	 * Stop the game loop.  This method returns immediately, but the gameloop method will complete
 	 * its current iteration before returning.
@@ -196,6 +221,10 @@ public abstract class GameLoop {
 	 * @param r The commands to run.
 	 */
 	public void runInLoop(Runnable r) {
+		if (engine != null) {
+			engine.runInLoop(r);
+			return;
+		}
 		synchronized (todos) {
 			try {
 				todos.put(r);
@@ -205,41 +234,61 @@ public abstract class GameLoop {
 		}
 	}
 	
+	// one step of the simulation, or of the commands when there is no engine
 	private void step() {
+		if (!paused)
+			elapsed += world.clockWait;
 
-
-		synchronized (todos) {
-			
-			Runnable r = todos.poll();
-			
-			while (r != null) {
-				r.run();
-				r = todos.poll();
-			}
+		if (engine != null) {
+			engine.paused = paused;
+			engine.step();
+			paused = engine.paused; // the engine may pause itself, e.g. on an accident
+		} else {
+			synchronized (todos) {
 				
+				Runnable r = todos.poll();
+				
+				while (r != null) {
+					r.run();
+					r = todos.poll();
+				}
+					
+			}
 		}
+	}
+	
+	// paint a frame; the behavior is only run if the simulation has stepped since the last
+	private void paint(boolean stepped) {
+		StepMetrics m = engine == null ? null : engine.metrics();
+		if (m != null) m.startFrame();
 		
-		
-		if (!paused) prePaint();
+		if (stepped) prePaint();
 		
 		
 		
 		jdb.drawCanvas();
+		if (m != null) m.lap(StepMetrics.Phase.PAINT);
 		
 		
-		if (!paused) run();
-		
+		if (stepped) run();
+		if (m != null) {
+			m.lap(StepMetrics.Phase.LIST);
+			m.endFrame();
+		}
 	
 	}
 	
 	/**
-	 * Behavior to perform before painting occurs.
+	 * Behavior to perform before painting occurs, on frames
+	 * where the simulation has stepped.
 	 *
 	 */
 	protected abstract void prePaint();
 	
 	/**
-	 * Behavior to perform after painting occurs.
+	 * Behavior to perform after painting occurs, on frames where the simulation
+	 * has stepped.  When the loop steps a simulation,
+	 * the time taken here is counted as {@link StepMetrics.Phase#LIST}.
 	 *
 	 */
 	protected abstract void run();
@@ -195,8 +195,8 @@ public class MiniViewer extends Canvas implements MouseListener, MouseMotionList
 		mxp /= scale;
 		myp /= scale;
 		
-		mxp /= RailCanvas.zoom;
-		myp /= RailCanvas.zoom;
+		mxp /= World.current().zoom;
+		myp /= World.current().zoom;
 		
 
 
@@ -101,6 +101,15 @@ public abstract class RailCanvas extends Canvas implements MouseListener,
 	 */
 	protected MiniViewer miniv;
 	
+	/**
+	 * How far the paint is between the previous step of the simulation and the
+	 * current one, from 0 to 1.  Moving things may be painted part of the way between.
+	 */
+	protected double interpolation = 1;
+	
+	private SegmentIndex index;
+	private StaticTileCache tiles;
+	
 	
 		
 	/**
@@ -131,6 +140,7 @@ public abstract class RailCanvas extends Canvas implements MouseListener,
 		
 		
 		strategy = null;
+		tiles = new StaticTileCache(this);
 		
 	}
 	
@@ -169,6 +179,7 @@ public abstract class RailCanvas extends Canvas implements MouseListener,
 		
 		// allow images to be garbage collected
 		orig_src = null;
+		tiles.clear();
 	}
 	
 	
@@ -183,7 +194,35 @@ public abstract class RailCanvas extends Canvas implements MouseListener,
 		for (int i = 0; i < la.length; i++)
 			la[i].recomp();
 			
+		// bounds may have changed in ways the segments cannot report, such as label text
+		synchronized (this) {
+			index = null;
+		}
+		segmentIndex();
+	}
+	
+	/**
+	 * Returns the spatial index over the rail segments.  If the segment array
+	 * has been replaced since the index was built, a new index is built.
+	 * 
+	 * @return A {@link SegmentIndex} over {@link #la}
+	 */
+	public SegmentIndex segmentIndex() {
+		SegmentIndex si;
+		boolean rebuilt = false;
 		
+		synchronized (this) {
+			if (index == null || index.segments() != la) {
+				index = new SegmentIndex(la);
+				index.setListener(tiles);
+				rebuilt = true;
+			}
+			si = index;
+		}
+		
+		// outside the lock, since the tile cache uses the index while rendering
+		if (rebuilt) tiles.clear();
+		return si;
 	}
 	
 	
@@ -195,10 +234,20 @@ public abstract class RailCanvas extends Canvas implements MouseListener,
 	 */
 	public Point2D getCenterPoint() {
 		//return new Point2D.Double(vx+(getWidth()/2.0)/Distance.zoom,vy+(getHeight()/2.0)/Distance.zoom);
-		return new Point2D.Double(vx+getWidth()/RailCanvas.zoom/2.0,vy+getHeight()/RailCanvas.zoom/2.0);
+		return new Point2D.Double(vx+getWidth()/World.current().zoom/2.0,vy+getHeight()/World.current().zoom/2.0);
 		
 	}
 	
+	/**
+	 * Set how far the next paint is between the previous step of the simulation
+	 * and the current one.
+	 * 
+	 * @param alpha From 0, the previous step, to 1, the current step
+	 */
+	public void setInterpolation(double alpha) {
+		interpolation = alpha;
+	}
+	
 	/**
 	 * Move the display to attempt to accomodate the given image coordinates as a center point.
 	 * 
@@ -206,7 +255,7 @@ public abstract class RailCanvas extends Canvas implements MouseListener,
 	 * @param y  Y position on static image
 	 */
 	public void submitCenterCoords(int x, int y) {
-		submitCoords((int)(x - getWidth()/RailCanvas.zoom/2.0), (int)(y - getHeight()/RailCanvas.zoom/2.0));
+		submitCoords((int)(x - getWidth()/World.current().zoom/2.0), (int)(y - getHeight()/World.current().zoom/2.0));
 		
 	}
 	
@@ -218,13 +267,13 @@ public abstract class RailCanvas extends Canvas implements MouseListener,
 	 * 
 	 */
 	public void submitCoords(int x, int y) {
-		int sh = (int)(orig_src.getHeight() * RailCanvas.zoom), sw = (int)(orig_src.getWidth()  * RailCanvas.zoom);
+		int sh = (int)(orig_src.getHeight() * World.current().zoom), sw = (int)(orig_src.getWidth()  * World.current().zoom);
 		int h = getHeight() , w = getWidth();
 		
 		// in order for this to work, we convert everything into pixels as they would
 		// appear on the display
-		vx = (int)(x * RailCanvas.zoom);
-		vy = (int)(y * RailCanvas.zoom);
+		vx = (int)(x * World.current().zoom);
+		vy = (int)(y * World.current().zoom);
 		
 		if (vx > sw - w) vx = sw - w;
 		if (vy > sh - h) vy = sh - h;
@@ -238,8 +287,8 @@ public abstract class RailCanvas extends Canvas implements MouseListener,
 		miniv.setPos(vx, vy);
 		
 		// then convert back to source pixels
-		vx /= RailCanvas.zoom;
-		vy /= RailCanvas.zoom;
+		vx /= World.current().zoom;
+		vy /= World.current().zoom;
 		
 		
 		
@@ -348,11 +397,11 @@ public abstract class RailCanvas extends Canvas implements MouseListener,
 		int ft = 25;
 		
 		
-		while (Distance.toPixels(ft)*RailCanvas.zoom < 50) {
+		while (Distance.toPixels(ft)*World.current().zoom < 50) {
 			ft += 25;
 		}
 		
-		int dist = (int)(Distance.toPixels(ft) * RailCanvas.zoom);
+		int dist = (int)(Distance.toPixels(ft) * World.current().zoom);
 		
 		Line2D s,f,c;
 		
@@ -381,11 +430,26 @@ public abstract class RailCanvas extends Canvas implements MouseListener,
 		
 		drawOutlineFont(ofg, x+(dist/2),y+15, lbl, 12, Color.white, 0, true);
 		
-		
+
 	}
-	
-	
-	
+
+	/**
+	 * Draws only the static layers for a portion of the map: the background and z-layers 1 and 2.
+	 * These are the parts of the display which only change when the map is edited.
+	 *
+	 * @param g The {@link Graphics2D} to draw into, at display pixels.
+	 * @param hvx The left edge of the area on the map
+	 * @param hvy The upper edge of the area on the map
+	 * @param width The width of the draw, in display pixels.
+	 * @param height The height of the draw, in display pixels.
+	 * @param useZoom The zoom factor to use for this draw.
+	 */
+	public void drawStatic(Graphics2D g, int hvx, int hvy, int width, int height, double useZoom) {
+		tiles.draw(g, hvx, hvy, width, height, useZoom);
+	}
+
+
+
 	/**
 	 * Draws a portion of the display
 	 * 
@@ -393,13 +457,11 @@ public abstract class RailCanvas extends Canvas implements MouseListener,
 	 * @param g The {@link Graphics2D} to draw into.  Drawing is always performed at (0,0) in the target graphics.
 	 * @param width The width of the draw.
 	 * @param height The height of the draw.
-	 * @param useZoom The zoom factor to use for this draw.  Normally {@link RailCanvas#zoom}
+	 * @param useZoom The zoom factor to use for this draw.  Normally {@link World#zoom}
 	 * @param detailed Should high expense items like scripts be drawn as well?
 	 */
 	public void draw(Graphics2D g, Point2D center, int width, int height, double useZoom, boolean detailed) {
 		
-		g.setColor(Color.black);
-		g.fillRect(0, 0, width, height);
 		g.clip(new Rectangle2D.Double(0, 0, width, height));
 		
 		
@@ -412,18 +474,14 @@ public abstract class RailCanvas extends Canvas implements MouseListener,
 		
 		AffineTransform orgat = g.getTransform();
 		
+		// the background and z-layers 1 and 2 only change when edited,
+		// so they come from pre-rendered tiles
+		tiles.draw(g, hvx, hvy, width, height, useZoom);
 		
 		g.scale(useZoom, useZoom);
 		
 		
 		g.translate(-hvx,-hvy);
-		g.drawImage(orig_src, 0, 0, this);
-		
-		for (int z = 1; z < 3;z++) {
-			for (int i = 0; i < la.length; i++) {
-				la[i].draw(z,g);
-			}
-		}
 		
 		
 		doPaint(g, hvx, hvy, detailed);
@@ -443,10 +501,8 @@ public abstract class RailCanvas extends Canvas implements MouseListener,
 
 	//1089.yrd = 3 ft/px
 	// 1.jpg = 75ft/50px = 0.666 ft/px
-	/**
-	 * The zoom value may be changed at any time, but appropriate redraws may be needed.
-	 */
-	public static double zoom = 0.5;
+	// the zoom is kept in World.zoom, and may be changed at any time,
+	// but appropriate redraws may be needed.
 	
 	/**
 	 * Draw the rail canvas and its miniviewer, if appropriate.
@@ -473,14 +529,14 @@ public abstract class RailCanvas extends Canvas implements MouseListener,
 		if (w < 1 || h < 1) return;
 
 		
-		draw(ofg, new Point2D.Double(vx+(w/2), vy+(h/2)), w, h, RailCanvas.zoom, true);
+		draw(ofg, new Point2D.Double(vx+(w/2), vy+(h/2)), w, h, World.current().zoom, true);
 
 		
 		drawScale(ofg, 10, h-50);
 	    strategy.show();
 
 	    if (orig_src != null) {
-	    	miniv.config(getWidth(), getHeight(), (int)(RailCanvas.zoom * orig_src.getWidth()), (int)(RailCanvas.zoom*orig_src.getHeight()));
+	    	miniv.config(getWidth(), getHeight(), (int)(World.current().zoom * orig_src.getWidth()), (int)(World.current().zoom*orig_src.getHeight()));
 	    	miniv.drawCanvas();
 	    }
 
@@ -495,7 +551,7 @@ public abstract class RailCanvas extends Canvas implements MouseListener,
 	 * @return Dimension indicating area.
 	 */
 	public Dimension areaSize() {
-		return new Dimension((int)(orig_src.getWidth() * RailCanvas.zoom), (int)(orig_src.getHeight() * RailCanvas.zoom));
+		return new Dimension((int)(orig_src.getWidth() * World.current().zoom), (int)(orig_src.getHeight() * World.current().zoom));
 	}
 	
 	/**
@@ -523,7 +579,7 @@ public abstract class RailCanvas extends Canvas implements MouseListener,
 	 * @return A point on the static image
 	 */
 	protected final Point2D transform(MouseEvent e) {
-		return new Point2D.Double((e.getX() / RailCanvas.zoom)+vx, (e.getY() / RailCanvas.zoom)+vy);
+		return new Point2D.Double((e.getX() / World.current().zoom)+vx, (e.getY() / World.current().zoom)+vy);
 	}
 	
 	/**
@@ -534,7 +590,7 @@ public abstract class RailCanvas extends Canvas implements MouseListener,
 	 */
 	protected final Point2D transform(Point2D p) {
 		
-		return new Point2D.Double((p.getX() / RailCanvas.zoom)+vx, (p.getY() / RailCanvas.zoom)+vy);
+		return new Point2D.Double((p.getX() / World.current().zoom)+vx, (p.getY() / World.current().zoom)+vy);
 		
 		
 	}
@@ -610,8 +666,8 @@ public abstract class RailCanvas extends Canvas implements MouseListener,
 			mxp = e.getX();
 			myp = e.getY();
 		
-			int dx = (int)((mxp - mx) / RailCanvas.zoom);
-			int dy = (int)((myp - my) / RailCanvas.zoom);
+			int dx = (int)((mxp - mx) / World.current().zoom);
+			int dy = (int)((myp - my) / World.current().zoom);
 
 			if (Math.abs(dx) < 2 && Math.abs(dy) < 2) return;
 			
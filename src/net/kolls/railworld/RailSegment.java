@@ -69,7 +69,9 @@ public abstract class RailSegment {
 			super.redo();
 			
 			dests[_p] = _vn;
+			BlockGraph.invalidate();
 			recomp();
+			if (track != null) track.update(RailSegment.this);
 		}
 		@Override
 		public void undo() throws CannotUndoException {
@@ -78,7 +80,9 @@ public abstract class RailSegment {
 			_vn = dests[_p];
 			
 			dests[_p] = _v; 
+			BlockGraph.invalidate();
 			recomp();
+			if (track != null) track.update(RailSegment.this);
 		}
 	}
 
@@ -97,6 +101,12 @@ public abstract class RailSegment {
 	 */
 	protected static final Distance MOUSE_NEAR = new Distance(10.0, Distance.Measure.FEET);
 
+	/**
+	 * How far beyond its points a segment may draw or accept the mouse.
+	 * This covers the rail bed and the signal and switch indicators.
+	 * @see #getBounds()
+	 */
+	protected static final Distance BOUNDS_MARGIN = new Distance(40.0, Distance.Measure.FEET);
 	
 
 	/**
@@ -105,6 +115,23 @@ public abstract class RailSegment {
 	 */
 	public EditCanvas ec;
 
+	/**
+	 * The spatial index this segment is filed in, if any.
+	 * It is told whenever the points of this segment move.
+	 */
+	SegmentIndex index;
+	int indexId = -1;
+
+	/**
+	 * The table of lengths this segment is filed in, if any.
+	 */
+	TrackTable track;
+	int trackId = -1;
+
+	/**
+	 * The runs starting at this segment, for each way in, kept by {@link BlockGraph}.
+	 */
+	BlockGraph.Run[] ahead;
 
 
 	/**
@@ -185,7 +212,7 @@ public abstract class RailSegment {
 		ArrayList<RailSegment> t = new ArrayList<RailSegment>();
 		
 		t.add(this);
-		while (r != null && r.length().feet() == 0) {
+		while (r != null && r.lengthFeet() == 0) {
 			t.add(r);
 			tmp = r;
 			r = r.dest(orig);
@@ -237,6 +264,27 @@ public abstract class RailSegment {
 	 */
 	public void enter(Train t) { }
 	
+	/**
+	 * The area of the map this segment may draw on or respond to the mouse in.
+	 * Defaults to the box around all points, grown by {@link #BOUNDS_MARGIN}.
+	 * Segments which draw further away than that must override this.
+	 * 
+	 * @return A {@link Rectangle2D} on the map image
+	 * @see SegmentIndex
+	 */
+	public Rectangle2D getBounds() {
+		Rectangle2D b = new Rectangle2D.Double();
+		if (pts.length == 0) return b;
+		
+		b.setFrameFromDiagonal(pts[0], pts[0]);
+		for (int i = 1; i < pts.length; i++)
+			b.add(pts[i]);
+		
+		double m = BOUNDS_MARGIN.pixels();
+		b.setRect(b.getX() - m, b.getY() - m, b.getWidth() + m*2, b.getHeight() + m*2);
+		return b;
+	}
+	
 	/**
 	 * Returns a given destination RailSegment.
 	 * 
@@ -265,6 +313,23 @@ public abstract class RailSegment {
 	 */
 	public abstract Point2D getPoint(RailSegment start, double myPos);
 	
+	/**
+	 * Finds a position on the rail without creating a new point.  This is used
+	 * for walking trains, which happens many times a frame.  Defaults to
+	 * {@link #getPoint(RailSegment, double)}; segments which create a new point there
+	 * should override both.
+	 * 
+	 * @param start The segment of origin
+	 * @param myPos Percentage (0-1) along the segment
+	 * @param xy Receives the x and y coordinates
+	 * @param off Where in xy to store the x coordinate; y is stored after it
+	 */
+	public void getPoint(RailSegment start, double myPos, double[] xy, int off) {
+		Point2D p = getPoint(start, myPos);
+		xy[off] = p.getX();
+		xy[off+1] = p.getY();
+	}
+	
 	// does this segment need to be re-drawn dynamically?
 	// if so, it will receive continual draw-level 4 updates
 	// levels 1 and 2 still static
@@ -294,6 +359,21 @@ public abstract class RailSegment {
 	 */
 	public abstract Distance length();
 	
+	/**
+	 * The length in feet, as given by {@link #length()}, but taken from the
+	 * {@link TrackTable} this segment is filed in, if any.
+	 * 
+	 * @return The length of the segment in feet
+	 */
+	public final double lengthFeet() {
+		return track != null ? track.feet[trackId] : length().feet();
+	}
+	
+	// the length in pixels, likewise
+	final double lengthPixels() {
+		return track != null ? track.pixels[trackId] : length().pixels();
+	}
+	
 	/**
 	 * Whenever a user mouses over the canvas, all dynamic segments receive this event.
 	 * Check to see if the position is at your segment (as in click).
@@ -337,24 +417,19 @@ public abstract class RailSegment {
 	 * @return The new percentage, or 1 if the end of the segment has been exceeded, for moving forward one pixel.
 	 */
 	public final double pixelStep(double myPos) {
-		// we can cache the hard part
-		if (lp == -1) {
-			if (length().feet() == 0) lp = -2;
-			else {
-				double l = length().pixels(); // start out with the length
-				lp = 1.0 / l; // reciprocal. one pixel per lp
-			}
-		}
-		
-		if (lp == -2) return 1;
+		double lp;
+		if (track != null)
+			lp = track.pixelStep[trackId];
+		else if (length().feet() == 0)
+			return 1;
+		else
+			lp = 1.0 / length().pixels(); // reciprocal. one pixel per lp
 
 		double newPos = lp + myPos;
 		if (newPos > 1.0) return 1.0; 
 		
 		return newPos;
 	}
-	
-	private double lp = -1;
 
 	
 	// various kinds of rail segments have connections
@@ -376,7 +451,9 @@ public abstract class RailSegment {
 		if (ec != null) ec.addUndo(new SetUndo(point, dests[point]));
 		
 		dests[point] = value;
+		BlockGraph.invalidate();
 		recomp();
+		if (track != null) track.update(this);
 	}
 	
 	/**
@@ -387,6 +464,8 @@ public abstract class RailSegment {
 	 */
 	public final void setPoint(int point, Point2D p) {
 		pts[point] = p;
+		BlockGraph.invalidate();
+		if (index != null) index.update(this);
 	}
 	
 	/**
@@ -425,9 +504,9 @@ public abstract class RailSegment {
 	 */
 	public final double step(double myPos, double mySpeed) {
 		if (mySpeed == 0) return myPos;
-		if (length().feet() == 0) return 1;
 		
-		double l = length().feet(); // start out with the length
+		double l = lengthFeet(); // start out with the length
+		if (l == 0) return 1;
 		
 		double d = GameLoop.feetPerStepSpeed(mySpeed) / l;
 		double newPos = d + myPos;
@@ -443,12 +522,13 @@ public abstract class RailSegment {
 	// what trains are (at least partially) in this segment
 	// maintained automatically, read only
 	/**
-	 * Note: Set contents will be maintained automatically, read only
+	 * Note: Set contents will be maintained automatically, read only.
+	 * In play they are kept up to date by {@link net.kolls.railworld.play.Occupancy}.
 	 * 
 	 * 
 	 * @return What trains are (at least partially) in this segment 
 	 */
-	public final Set<Train> trains() { if (trains == null) trains = new HashSet<Train>(); return trains; }
+	public final Set<Train> trains() { if (trains == null) trains = new TrainSet(); return trains; }
 	
 	
 	// also we can update the physical location
@@ -468,6 +548,8 @@ public abstract class RailSegment {
 				pts[i] = replacement;
 			
 		}
+		BlockGraph.invalidate();
+		if (index != null) index.update(this);
 				
 	}
 
@@ -488,7 +570,9 @@ public abstract class RailSegment {
 				
 				if (ec != null) ec.addUndo(new SetUndo(i, dests[i]));
 				dests[i] = newValue;
+				BlockGraph.invalidate();
 				recomp();
+				if (track != null) track.update(this);
 				return i;
 			}
 		}
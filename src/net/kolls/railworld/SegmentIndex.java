@@ -0,0 +1,246 @@
+package net.kolls.railworld;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A uniform grid over the bounding boxes of a set of rail segments.
+ * The index allows finding the segments near a point or inside an area
+ * without examining every segment on the map.  Segments keep the index informed
+ * when their points are moved, so it is normally built once when the map is loaded.
+ * Results are always given in the same order as the segment array.
+ *
+ * @author Rick Rutt
+ * @see RailSegment#getBounds()
+ */
+public class SegmentIndex {
+
+	/**
+	 * Told whenever a segment in the index changes its bounds.
+	 */
+	public interface Listener {
+		/**
+		 * A segment has moved.  Anything drawn in either area may need to be redrawn.
+		 *
+		 * @param before The bounds of the segment before the move
+		 * @param after The bounds of the segment after the move
+		 */
+		void segmentMoved(Rectangle2D before, Rectangle2D after);
+	}
+
+	private RailSegment[] la;
+	private Listener listener;
+
+	private double ox, oy, cell;
+	private int cols, rows;
+
+	private int[][] cells;
+	private int[] counts;
+
+	// covered cell range for each segment: col0, row0, col1, row1
+	private int[] cover;
+
+	// bounds of each segment: minx, miny, maxx, maxy
+	private double[] box;
+
+	// marks which segments were already found in the current query
+	private int[] stamp;
+	private int mark;
+	private int[] found;
+
+	private static final int MAX_CELLS = 512;
+
+	/**
+	 * Build an index over the given segments.
+	 *
+	 * @param lines The rail segments to index
+	 */
+	public SegmentIndex(RailSegment[] lines) {
+		la = lines;
+
+		Rectangle2D[] bounds = new Rectangle2D[la.length];
+		Rectangle2D all = null;
+		for (int i = 0; i < la.length; i++) {
+			bounds[i] = la[i].getBounds();
+			if (all == null) all = (Rectangle2D)bounds[i].clone(); else all.add(bounds[i]);
+		}
+		if (all == null) all = new Rectangle2D.Double(0, 0, 1, 1);
+
+		// aim for a handful of segments per cell
+		double w = Math.max(all.getWidth(), 1), h = Math.max(all.getHeight(), 1);
+		cell = Math.max(Math.sqrt(w * h / Math.max(la.length, 1)), 8);
+		cols = Math.min((int)Math.ceil(w / cell), MAX_CELLS);
+		rows = Math.min((int)Math.ceil(h / cell), MAX_CELLS);
+		cell = Math.max(w / cols, h / rows);
+		ox = all.getX();
+		oy = all.getY();
+
+		cells = new int[cols * rows][];
+		counts = new int[cols * rows];
+		cover = new int[la.length * 4];
+		box = new double[la.length * 4];
+		stamp = new int[la.length];
+		found = new int[la.length];
+		mark = 0;
+
+		for (int i = 0; i < la.length; i++) {
+			la[i].index = this;
+			la[i].indexId = i;
+			insert(i, bounds[i]);
+		}
+
+	}
+
+	/**
+	 *
+	 * @return The array of segments this index covers
+	 */
+	public RailSegment[] segments() { return la; }
+
+	/**
+	 * Set the listener to tell about moved segments.
+	 *
+	 * @param l The listener, or <code>null</code> for none
+	 */
+	public void setListener(Listener l) { listener = l; }
+
+	// points outside the grid are clamped to the border cells,
+	// which keeps the index correct if segments are moved beyond the original extent
+	private int col(double x) {
+		int c = (int)Math.floor((x - ox) / cell);
+		if (c < 0) return 0;
+		if (c >= cols) return cols - 1;
+		return c;
+	}
+
+	private int row(double y) {
+		int r = (int)Math.floor((y - oy) / cell);
+		if (r < 0) return 0;
+		if (r >= rows) return rows - 1;
+		return r;
+	}
+
+	private void insert(int id, Rectangle2D b) {
+		int c0 = col(b.getMinX()), c1 = col(b.getMaxX());
+		int r0 = row(b.getMinY()), r1 = row(b.getMaxY());
+		cover[id*4] = c0; cover[id*4+1] = r0;
+		cover[id*4+2] = c1; cover[id*4+3] = r1;
+		box[id*4] = b.getMinX(); box[id*4+1] = b.getMinY();
+		box[id*4+2] = b.getMaxX(); box[id*4+3] = b.getMaxY();
+
+		for (int r = r0; r <= r1; r++)
+			for (int c = c0; c <= c1; c++) {
+				int k = r * cols + c;
+				if (cells[k] == null) cells[k] = new int[4];
+				else if (counts[k] == cells[k].length) cells[k] = Arrays.copyOf(cells[k], counts[k] * 2);
+				cells[k][counts[k]++] = id;
+			}
+	}
+
+	private void remove(int id) {
+		for (int r = cover[id*4+1]; r <= cover[id*4+3]; r++)
+			for (int c = cover[id*4]; c <= cover[id*4+2]; c++) {
+				int k = r * cols + c;
+				int[] ids = cells[k];
+				for (int j = 0; j < counts[k]; j++) {
+					if (ids[j] == id) {
+						ids[j] = ids[--counts[k]];
+						break;
+					}
+				}
+			}
+	}
+
+	/**
+	 * Re-file a segment whose points have changed.  Segments not in this index are ignored.
+	 *
+	 * @param r The segment which changed
+	 */
+	public void update(RailSegment r) {
+		Rectangle2D before = new Rectangle2D.Double();
+		Rectangle2D after = r.getBounds();
+
+		synchronized (this) {
+			int id = r.indexId;
+			if (id < 0 || id >= la.length || la[id] != r) return;
+
+			before.setFrameFromDiagonal(box[id*4], box[id*4+1], box[id*4+2], box[id*4+3]);
+			remove(id);
+			insert(id, after);
+		}
+
+		// outside the lock, since the listener may well query the index
+		if (listener != null) listener.segmentMoved(before, after);
+	}
+
+	/**
+	 * Find all segments whose bounds intersect an area.
+	 *
+	 * @param area The area on the map
+	 * @param out A list to which the segments are added, in segment array order
+	 */
+	public synchronized void query(Rectangle2D area, List<RailSegment> out) {
+		double x0 = area.getMinX(), x1 = area.getMaxX();
+		double y0 = area.getMinY(), y1 = area.getMaxY();
+		int c0 = col(x0), c1 = col(x1);
+		int r0 = row(y0), r1 = row(y1);
+		int n = 0;
+
+		mark++;
+		if (mark == 0) {
+			Arrays.fill(stamp, 0);
+			mark = 1;
+		}
+
+		for (int r = r0; r <= r1; r++)
+			for (int c = c0; c <= c1; c++) {
+				int k = r * cols + c;
+				int[] ids = cells[k];
+				for (int j = 0; j < counts[k]; j++) {
+					int id = ids[j];
+					if (stamp[id] == mark) continue;
+					stamp[id] = mark;
+
+					// cells are coarse, so check the actual bounds as well
+					if (box[id*4] > x1 || box[id*4+2] < x0 || box[id*4+1] > y1 || box[id*4+3] < y0) continue;
+					found[n++] = id;
+				}
+			}
+
+		Arrays.sort(found, 0, n);
+		for (int j = 0; j < n; j++)
+			out.add(la[found[j]]);
+	}
+
+	/**
+	 * Find all segments whose bounds come within a given distance of a point.
+	 *
+	 * @param p The point on the map
+	 * @param d How near the bounds must be
+	 * @param out A list to which the segments are added, in segment array order
+	 */
+	public void near(Point2D p, Distance d, List<RailSegment> out) {
+		double px = d.pixels();
+		query(new Rectangle2D.Double(p.getX() - px, p.getY() - px, px * 2, px * 2), out);
+	}
+}
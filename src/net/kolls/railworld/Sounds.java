@@ -32,16 +32,17 @@ import net.kolls.railworld.sound.StreamSound;
 
 /**
  * Sound management class.  Manages all sounds.  
- * May load sounds using either Java Sound API or Applet sound system
+ * May load sounds using either Java Sound API or Applet sound system.
+ * Each {@link World} plays its own set of sounds, found with {@link World#sounds()}.
  * 
  * @author Steve Kollmansberger
  *
  */
 public class Sounds {
-	public static Sound couple, uncouple, brake, switchd, crossing, wreck, horn;
-	public static Sound[] engine;
+	public Sound couple, uncouple, brake, switchd, crossing, wreck, horn;
+	public Sound[] engine;
 	
-	private static Vector<Sound> vs;
+	private Vector<Sound> vs;
 	
 	/**
 	 * Which sound system to use
@@ -120,7 +121,7 @@ public class Sounds {
 	 * is no longer playing.  Thus, regardless of how many loops are in place, the sound will be stopped.
 	 *
 	 */
-	public static void allStop() {
+	public void allStop() {
 		
 		Iterator<Sound> i = vs.iterator();
 		
@@ -134,7 +135,7 @@ public class Sounds {
 	 * Freeze all sounds.
 	 *
 	 */
-	public static void allFreeze() {
+	public void allFreeze() {
 		
 		Iterator<Sound> i = vs.iterator();
 		
@@ -146,7 +147,7 @@ public class Sounds {
 	 * Unfreeze all sounds.
 	 *
 	 */
-	public static void allUnfreeze() {
+	public void allUnfreeze() {
 		
 		Iterator<Sound> i = vs.iterator();
 		
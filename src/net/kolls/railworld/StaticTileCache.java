@@ -0,0 +1,195 @@
+package net.kolls.railworld;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps pre-rendered tiles of the static layers: the background image
+ * and z-layers 1 and 2 of the rail segments.  Tiles are rendered for a particular zoom
+ * on first use and then simply copied to the display, with the least recently used
+ * tiles discarded once the cache is full.  When a segment moves, only the tiles under
+ * its old and new positions are discarded.
+ *
+ * @author Rick Rutt
+ * @see RailCanvas#draw(Graphics2D, java.awt.geom.Point2D, int, int, double, boolean)
+ */
+public class StaticTileCache implements SegmentIndex.Listener {
+
+	/**
+	 * The width and height of a tile, in display pixels.
+	 */
+	public static final int TILE_SIZE = 256;
+
+	private static final int MAX_TILES = 96;
+
+	private static class Key {
+		final double zoom;
+		final int tx, ty;
+
+		Key(double z, int x, int y) {
+			zoom = z; tx = x; ty = y;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) return false;
+			Key k = (Key)o;
+			return k.zoom == zoom && k.tx == tx && k.ty == ty;
+		}
+
+		@Override
+		public int hashCode() {
+			long z = Double.doubleToLongBits(zoom);
+			return (int)(z ^ (z >>> 32)) * 31 * 31 + tx * 31 + ty;
+		}
+
+		Rectangle2D area() {
+			double s = TILE_SIZE / zoom;
+			return new Rectangle2D.Double(tx * s, ty * s, s, s);
+		}
+	}
+
+	private RailCanvas rc;
+	private LinkedHashMap<Key, BufferedImage> tiles;
+
+	/**
+	 * Create an empty cache for a canvas.
+	 *
+	 * @param canvas The canvas whose background and segments are rendered
+	 */
+	public StaticTileCache(RailCanvas canvas) {
+		rc = canvas;
+		// access order gives least recently used first
+		tiles = new LinkedHashMap<Key, BufferedImage>(MAX_TILES * 2, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, BufferedImage> e) {
+				if (size() > MAX_TILES) {
+					e.getValue().flush();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Discard all tiles.  Needed whenever the static layers may have changed
+	 * in ways not reported through {@link #segmentMoved(Rectangle2D, Rectangle2D)}.
+	 */
+	public synchronized void clear() {
+		for (BufferedImage bi : tiles.values())
+			bi.flush();
+		tiles.clear();
+	}
+
+	/**
+	 * Discard the tiles covering part of the map, at every zoom.
+	 *
+	 * @param area The area on the map
+	 */
+	public synchronized void invalidate(Rectangle2D area) {
+		Iterator<Map.Entry<Key, BufferedImage>> i = tiles.entrySet().iterator();
+		while (i.hasNext()) {
+			Map.Entry<Key, BufferedImage> e = i.next();
+			if (e.getKey().area().intersects(area)) {
+				e.getValue().flush();
+				i.remove();
+			}
+		}
+	}
+
+	public void segmentMoved(Rectangle2D before, Rectangle2D after) {
+		invalidate(before);
+		invalidate(after);
+	}
+
+	private BufferedImage render(Key k, RenderingHints hints) {
+		BufferedImage bi;
+		GraphicsConfiguration gc = rc.getGraphicsConfiguration();
+		if (gc != null)
+			bi = gc.createCompatibleImage(TILE_SIZE, TILE_SIZE);
+		else
+			bi = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+
+		Graphics2D g = bi.createGraphics();
+		g.setRenderingHints(hints);
+		g.setColor(Color.black);
+		g.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+
+		Rectangle2D area = k.area();
+		g.scale(k.zoom, k.zoom);
+		g.translate(-area.getX(), -area.getY());
+		g.clip(area);
+		if (rc.orig_src != null) g.drawImage(rc.orig_src, 0, 0, null);
+
+		ArrayList<RailSegment> vis = new ArrayList<RailSegment>();
+		rc.segmentIndex().query(area, vis);
+
+		for (int z = 1; z < 3; z++)
+			for (int i = 0; i < vis.size(); i++)
+				vis.get(i).draw(z, g);
+
+		g.dispose();
+		return bi;
+	}
+
+	/**
+	 * Copy the static layers for part of the map onto a graphics context,
+	 * rendering any tiles which are not yet cached.  The graphics context should not be scaled.
+	 *
+	 * @param g The graphics context to draw on, at display pixels
+	 * @param hvx The left edge of the view on the map
+	 * @param hvy The upper edge of the view on the map
+	 * @param width The width of the view, in display pixels
+	 * @param height The height of the view, in display pixels
+	 * @param zoom The zoom factor of the view
+	 */
+	public synchronized void draw(Graphics2D g, int hvx, int hvy, int width, int height, double zoom) {
+		// tiles are laid out on the map as it appears at this zoom,
+		// so that neighboring tiles line up exactly
+		int ox = (int)Math.round(hvx * zoom);
+		int oy = (int)Math.round(hvy * zoom);
+
+		int tx0 = Math.floorDiv(ox, TILE_SIZE), tx1 = Math.floorDiv(ox + width - 1, TILE_SIZE);
+		int ty0 = Math.floorDiv(oy, TILE_SIZE), ty1 = Math.floorDiv(oy + height - 1, TILE_SIZE);
+
+		for (int ty = ty0; ty <= ty1; ty++)
+			for (int tx = tx0; tx <= tx1; tx++) {
+				Key k = new Key(zoom, tx, ty);
+				BufferedImage bi = tiles.get(k);
+				if (bi == null) {
+					bi = render(k, g.getRenderingHints());
+					tiles.put(k, bi);
+				}
+				g.drawImage(bi, tx * TILE_SIZE - ox, ty * TILE_SIZE - oy, null);
+			}
+	}
+}
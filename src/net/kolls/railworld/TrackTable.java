@@ -0,0 +1,106 @@
+package net.kolls.railworld;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+/**
+ * The lengths of a set of rail segments, worked out once so that moving and
+ * walking trains need not ask each segment for its {@link RailSegment#length()}
+ * and convert it with the scale of the {@link World} every time.
+ * Each segment is given a number, its row in the table, and the table holds
+ * its length in feet, its length in pixels and the fraction of it one pixel covers.
+ * <p>
+ * The pixel lengths use the scale of the world current when the table is built,
+ * which must be the world the segments are played in.  Segments refresh their row
+ * when their connections change; a segment which is otherwise changed and then
+ * recomputed must be given to {@link #update(RailSegment)}.
+ * How a train is routed through a segment still depends on the segment, as switches
+ * may be flipped at any time.
+ *
+ * @author Rick Rutt
+ * @see RailSegment#step(double, double)
+ */
+public class TrackTable {
+
+	private RailSegment[] la;
+	private double feetPerPixels;
+
+	// for each segment
+	final double[] feet;
+	final double[] pixels;
+	final double[] pixelStep;
+
+	/**
+	 * Build a table over the given segments.  Each segment is recomputed
+	 * beforehand by the caller, and is filed in this table.
+	 *
+	 * @param lines The rail segments
+	 */
+	public TrackTable(RailSegment[] lines) {
+		la = lines;
+		feetPerPixels = World.current().feetPerPixels;
+
+		feet = new double[la.length];
+		pixels = new double[la.length];
+		pixelStep = new double[la.length];
+
+		for (int i = 0; i < la.length; i++) {
+			la[i].track = this;
+			la[i].trackId = i;
+			fill(i);
+		}
+	}
+
+	private void fill(int i) {
+		double f = la[i].length().feet();
+		feet[i] = f;
+		pixels[i] = f / feetPerPixels;
+
+		// zero length segments are passed over in one step
+		pixelStep[i] = f == 0 ? 1 : 1.0 / pixels[i];
+	}
+
+	/**
+	 * Bring a segment's row up to date after it has been recomputed.
+	 *
+	 * @param r A segment in this table
+	 */
+	public void update(RailSegment r) {
+		if (r.track == this) fill(r.trackId);
+	}
+
+	/**
+	 *
+	 * @return The array of segments this table covers
+	 */
+	public RailSegment[] segments() { return la; }
+
+	/**
+	 *
+	 * @param id A segment's row
+	 * @return The length of the segment in feet
+	 */
+	public double feet(int id) { return feet[id]; }
+
+	/**
+	 *
+	 * @param id A segment's row
+	 * @return The length of the segment in pixels
+	 */
+	public double pixels(int id) { return pixels[id]; }
+}
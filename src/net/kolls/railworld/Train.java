@@ -43,16 +43,99 @@ public class Train  {
 
 	
 	
+	// the cars packed, and totals over them, worked out again only when the consist changes;
+	// the totals are replaced whole so that any thread sees a matching set
+	private Consist consist;
+	private volatile int consistVersion;
+	private volatile int readVersion;
+	private volatile Totals totals;
+	
+	private static final class Totals {
+		final int version, weight, engines, loaded;
+		final Distance length;
+		
+		Totals(int v, Consist c) {
+			double l = 0;
+			for (int i = 0; i < c.size(); i++) {
+				l += c.feet(i);
+				l += Car.DIST_BETWEEN_CARS.feet(); // feet in between cars
+			}
+			
+			version = v;
+			weight = c.weight();
+			engines = c.engines();
+			loaded = c.loadedCars();
+			length = new Distance(l, Distance.Measure.FEET);
+		}
+	}
+	
+	private Totals totals() {
+		Totals t = totals;
+		int v = consistVersion;
+		if (t == null || t.version != v) {
+			t = new Totals(v, consist());
+			totals = t;
+		}
+		return t;
+	}
+	
+	/**
+	 * The cars of this train, packed for reading in bulk.  The cars are read
+	 * again if {@link #consistChanged()} has been called since the last time.
+	 * 
+	 * @return The {@link Consist} of this train
+	 */
+	public Consist consist() {
+		int v = consistVersion;
+		if (readVersion != v) {
+			consist.read();
+			readVersion = v;
+		}
+		return consist;
+	}
+	
+	/**
+	 * Must be called whenever the cars of this train change in a way which
+	 * may affect its weight, length or engines, such as loading or unloading
+	 * a car, or replacing a car in {@link #array()}.  Splitting, joining and
+	 * reversing make new trains, so do not need this.
+	 */
+	public void consistChanged() {
+		consistVersion++;
+	}
+	
+	/**
+	 * A number which changes every time {@link #consistChanged()} is called.
+	 * Anything worked out from the cars need only be worked out again when this changes.
+	 * 
+	 * @return The consist version
+	 */
+	public int consistVersion() {
+		return consistVersion;
+	}
+	
 	/**
 	 * 
 	 * @return <code>true</code> if the train has one or more engines.
 	 */
 	public boolean hasEngine() {
-
-		for (int i = 0; i < carray.length; i++)
-			if (carray[i].isEngine()) return true;
-		return false;
-		
+		return engines() > 0;
+	}
+	
+	/**
+	 * 
+	 * @return The number of working engines in the train.
+	 */
+	public int engines() {
+		return totals().engines;
+	}
+	
+	/**
+	 * 
+	 * @return The number of loadable cars in the train which are loaded.
+	 */
+	public int loadedCars() {
+		return totals().loaded;
 	}
 	
 	/**
@@ -61,13 +144,7 @@ public class Train  {
 	 * @return Weight of the trains, in US Tons
 	 */
 	public int weight() {
-		
-		int w = 0;
-		for (int i = 0; i < carray.length; i++)
-			w += carray[i].weight();
-		
-		return w;
-		
+		return totals().weight;
 	}
 	
 	/**
@@ -82,6 +159,7 @@ public class Train  {
 		throttle = 0;
 		brake = followMe = reverse = followMeOnce = false;
 		carray = cars;
+		consist = new Consist(cars);
 		pos = new CLoc();
 		TrainControl s = new UserControl();
 		TrainControl ds = new AutoControl();
@@ -116,13 +194,7 @@ public class Train  {
 	 * @return A {@link Distance} measuring the length of the train.
 	 */
 	public Distance length() {
-		double l = 0;
-		for (int i = 0; i < carray.length; i++) {
-			l += carray[i].length().feet();
-			l += Car.DIST_BETWEEN_CARS.feet(); // feet in between cars
-		}
-		
-		return new Distance(l, Distance.Measure.FEET);
+		return totals().length;
 	}
 	
 	/**
@@ -173,7 +245,7 @@ public class Train  {
 		System.out.println("Set brake " + b);
 		
 		if (b && brake == false && vel() > 0)
-			Sounds.brake.play();
+			World.current().sounds().brake.play();
 		brake = b; 
 	}
 	
@@ -183,8 +255,22 @@ public class Train  {
 	 */
 	public Car[] array() { return carray; }
 	
+	private TrainGeometry geometry;
+	
+	/**
+	 * Returns the shape of this train on the map.  The train is only walked again
+	 * if it has moved or the track under it has changed since the last call.
+	 * 
+	 * @return The {@link TrainGeometry} for the current position
+	 */
+	public synchronized TrainGeometry geometry() {
+		if (geometry == null) geometry = new TrainGeometry();
+		if (!geometry.isValid(this)) geometry.update(this);
+		return geometry;
+	}
+	
 	private double getAccel(int currThrottle, boolean currBrake) {
-		double portionSec = GameLoop.CLOCK_WAIT / 1000.0;
+		double portionSec = World.current().clockWait / 1000.0;
 		
 		
 		
@@ -196,9 +282,7 @@ public class Train  {
 		if (velocity <= tmaxv) accel += currThrottle / 2.0;
 
 		// count number of engines
-		int e = 0;
-		for (int i = 0; i < carray.length; i++) 
-			if (carray[i].isEngine()) e++;
+		int e = engines();
 		if (accel > 0) accel *= e;
 		
 		if (e == 0) setThrottle(0); // if no engines, throttle must be zero!
@@ -222,7 +306,7 @@ public class Train  {
 	/**
 	 * Calculates the trains acceleration and velocity based on the controls. 
 	 * This should be called once every clock step.  The amount of adjustment
-	 * is proportional to the {@link GameLoop#CLOCK_WAIT}.
+	 * is proportional to the {@link World#clockWait}.
 	 *
 	 */
 	public void adjust() {
@@ -265,25 +349,20 @@ public class Train  {
 	 * @return Number of feet that would be travered before reaching target velocity.
 	 */
 	public double feetToSlow(double vel) {
-		double feet = 0;
-		double iv = vel();
-		
-		double accel = getAccel(0, true);
-
-
-
-		while (iv > vel) {
-
-			feet += GameLoop.feetPerStepSpeed(iv);
-
-
-
-			iv += accel; // accel is negative
-			if (iv < 0) iv = 0;
-			
-
-		}
-		return feet;
+		return feetToSlow(vel(), vel);
+	}
+	
+	/**
+	 * Calculate, if the train were moving at a given velocity and the throttle were set to 0
+	 * and the brake applied, how many feet it would take for the train to slow to the requested velocity.
+	 * 
+	 * @param from Starting velocity, in MPH.
+	 * @param vel Target velocity, in MPH.  May be 0 for stopped.
+	 * @return Number of feet that would be travered before reaching target velocity.
+	 * @see BrakingModel
+	 */
+	public double feetToSlow(double from, double vel) {
+		return BrakingModel.distance(from, vel, getAccel(0, true));
 	}
 
 	// housekeeping for railcanvas
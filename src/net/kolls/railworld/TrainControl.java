@@ -21,7 +21,6 @@ package net.kolls.railworld;
 
 import java.awt.Dimension;
 import java.text.NumberFormat;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import javax.swing.*;
@@ -85,6 +84,13 @@ public abstract class TrainControl extends JPanel implements Runnable, SaveLoad
 	 */
 	protected Car[] ulable;
 	
+	// the weight and length labels, worked out on the simulation thread
+	// whenever the consist changes and only shown on the event thread
+	private Train totalsTrain;
+	private int totalsConsist;
+	private volatile String weightText, lengthText;
+	private volatile boolean engine;
+	
 	
 	/**
 	 * The consist report, weight, length, and speed are added to the panel,
@@ -105,6 +111,7 @@ public abstract class TrainControl extends JPanel implements Runnable, SaveLoad
 		weight = new JLabel();
 		speed = new JLabel();
 		length = new JLabel();
+		readTotals();
 		add(consist);
 		fillConsist();
 		
@@ -271,12 +278,34 @@ public abstract class TrainControl extends JPanel implements Runnable, SaveLoad
 		if (myT == null) return;
 		
 		int ispeed = (int) myT.vel();
-		weight.setText(NumberFormat.getInstance().format(myT.weight()) + " Tons");
+		weight.setText(weightText);
+		length.setText(lengthText);
 		speed.setText(Integer.toString(ispeed) + " MPH");
-		length.setText(NumberFormat.getInstance().format(myT.length().feet()) + " Feet");
 		
 	}
 	
+	// the totals read the cars, which only the simulation may do while playing
+	private void readTotals() {
+		Train t = myT;
+		if (t == null || (totalsTrain == t && totalsConsist == t.consistVersion())) return;
+		
+		totalsConsist = t.consistVersion();
+		totalsTrain = t;
+		weightText = NumberFormat.getInstance().format(t.weight()) + " Tons";
+		lengthText = NumberFormat.getInstance().format(t.length().feet()) + " Feet";
+		engine = t.hasEngine();
+	}
+	
+	/**
+	 * Whether the train had an engine when {@link #process()} last ran.
+	 * Use this rather than {@link Train#hasEngine()} in {@link #run()}.
+	 * 
+	 * @return <code>true</code> if the train has one or more engines
+	 */
+	protected boolean hasEngine() {
+		return engine;
+	}
+	
 	/**
 	 * Perform any processing needed before the display is to be updated.
 	 * Ensure that super is called.
@@ -287,8 +316,10 @@ public abstract class TrainControl extends JPanel implements Runnable, SaveLoad
 	 *@return true if the GUI needs to be updated
 	 */
 	public boolean process() { 
-		if (myT != null)
+		if (myT != null) {
 			carsLU(); 
+			readTotals();
+		}
 		
 		return false; 
 	}
@@ -305,6 +336,7 @@ public abstract class TrainControl extends JPanel implements Runnable, SaveLoad
 			
 			lable[i].load();	
 		}
+		myT.consistChanged();
 		fillConsist();
 		
 		carsLU();
@@ -322,6 +354,7 @@ public abstract class TrainControl extends JPanel implements Runnable, SaveLoad
 			
 			ulable[i].unload();	
 		}
+		myT.consistChanged();
 		fillConsist();
 		carsLU();
 		
@@ -332,7 +365,7 @@ public abstract class TrainControl extends JPanel implements Runnable, SaveLoad
 	 */
 	public void horn() {
 		if (_s.trainAction(myT, "horn") == false)
-			Sounds.horn.play();
+			World.current().sounds().horn.play();
 		
 	}
 	
@@ -355,8 +388,7 @@ public abstract class TrainControl extends JPanel implements Runnable, SaveLoad
 		// check each car to see if it
 		// is on a LUSegment that can load/unload it
 		Car[] a = myT.array();
-		
-		Iterator<RailSegment> rsi;
+		Consist cs = myT.consist();
 		
 		LUSegment lr;		
 
@@ -366,22 +398,18 @@ public abstract class TrainControl extends JPanel implements Runnable, SaveLoad
 		int uli = 0;
 
 		for (int i = 0; i < a.length; i++) {
-			rsi = a[i].segs().iterator();
-			
-			while (rsi.hasNext()) {
+			for (int j = 0; j < cs.segmentCount(i); j++) {
 				
-				try {
-					lr = (LUSegment)rsi.next();
-					
-					if (lr.canLU(a[i])) {
-						if (a[i].loaded())	
-							ula[uli++] = a[i];
-						else
-							la[li++] = a[i];
-						break;
-					}
+				if (!(cs.segment(i, j) instanceof LUSegment)) continue;
+				lr = (LUSegment)cs.segment(i, j);
 					
-				} catch (ClassCastException e) { }
+				if (lr.canLU(a[i])) {
+					if (cs.loaded(i))	
+						ula[uli++] = a[i];
+					else
+						la[li++] = a[i];
+					break;
+				}
 				
 			}
 			
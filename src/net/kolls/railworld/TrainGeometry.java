@@ -0,0 +1,405 @@
+package net.kolls.railworld;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+
+/**
+ * The shape of a train on the map, as found by walking it with a {@link ConsistWalker}.
+ * This holds the lines and end points of each car, the segments occupied and
+ * the head and tail locations.  The geometry remains valid until the train
+ * moves or a segment it covers is routed differently (such as a switch being flipped),
+ * so a stationary train is not walked again.  Obtain it with {@link Train#geometry()}.
+ * <p>
+ * All arrays and locations returned are shared, and must not be modified.
+ * <p>
+ * A display which paints more often than the simulation steps may {@link #keep(Train)}
+ * the shape before each step, and paint part of the way from it to the current one.
+ * A display may also skip a train whose box does not reach the area being painted,
+ * see {@link #intersects(Rectangle2D, double)}.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class TrainGeometry implements ConsistVisitor {
+
+	private ConsistWalker walker;
+
+	private RailSegment hr, horig;
+	private double hper;
+	private CLoc head, tail;
+
+	// per car
+	private Car[] array, cars;
+	private double[][] lines;
+	private int[] nlines;
+	private double[][] ends;
+	private int ncars;
+
+	// segments each car (or the gap after it, when the car is -1) passed through, in order
+	private RailSegment[] occSegs;
+	private int[] occCars;
+	private int nocc;
+
+	// the same segments, car by car, for the consist
+	private int[] carStart;
+	private RailSegment[] carSegs;
+
+	// the same segments, each once
+	private RailSegment[] segs;
+	private int nsegs;
+
+	// counts updates, so a change can be noticed without comparing
+	private int version;
+
+	// every move from one segment to the next: from.dest(via) was to
+	private RailSegment[] from, via, to;
+	private int npath;
+
+	// the shape when last kept, and the version it was
+	private Car[] pcars;
+	private double[][] plines;
+	private int[] pnlines;
+	private double[][] pends;
+	private int pncars;
+	private int kept = -1, keptConsist;
+
+	// the shape painted between the two
+	private double[] blines, bends;
+
+	// around the lines of every car, now and when kept: minx, miny, maxx, maxy
+	private double[] box, pbox;
+
+	/**
+	 * Create an empty geometry.  It is filled in by {@link #update(Train)}.
+	 */
+	public TrainGeometry() {
+		walker = new ConsistWalker();
+		head = new CLoc();
+		cars = new Car[0];
+		lines = new double[0][];
+		nlines = new int[0];
+		ends = new double[0][];
+		occSegs = new RailSegment[16];
+		occCars = new int[16];
+		carStart = new int[1];
+		carSegs = new RailSegment[16];
+		segs = new RailSegment[16];
+		from = new RailSegment[16];
+		via = new RailSegment[16];
+		to = new RailSegment[16];
+		pcars = new Car[0];
+		plines = new double[0][];
+		pnlines = new int[0];
+		pends = new double[0][];
+		blines = new double[16];
+		bends = new double[4];
+		box = new double[4];
+		pbox = new double[4];
+		bound();
+	}
+
+	/**
+	 * Check whether this geometry still describes a train.
+	 *
+	 * @param t The train
+	 * @return <code>true</code> if the train has not moved and
+	 * its path over the segments is unchanged
+	 */
+	public boolean isValid(Train t) {
+		if (t.pos.r != hr || t.pos.orig != horig || t.pos.per != hper) return false;
+		if (t.array() != array) return false;
+
+		for (int i = 0; i < npath; i++)
+			if (from[i].dest(via[i]) != to[i]) return false;
+
+		return true;
+	}
+
+	/**
+	 * Walk the train again and replace this geometry.
+	 *
+	 * @param t The train
+	 */
+	public void update(Train t) {
+		Car[] ca = t.array();
+		if (cars.length != ca.length) {
+			cars = new Car[ca.length];
+			lines = new double[ca.length][];
+			nlines = new int[ca.length];
+			ends = new double[ca.length][];
+			for (int i = 0; i < ca.length; i++) {
+				lines[i] = new double[16];
+				ends[i] = new double[4];
+			}
+		}
+
+		array = ca;
+		hr = t.pos.r;
+		horig = t.pos.orig;
+		hper = t.pos.per;
+		head.r = hr;
+		head.orig = horig;
+		head.per = hper;
+
+		ncars = 0;
+		nocc = 0;
+		npath = 0;
+
+		walker.walk(t, this);
+		tail = walker.tail();
+
+		nsegs = 0;
+		if (segs.length < nocc) segs = new RailSegment[occSegs.length];
+		for (int i = 0; i < nocc; i++) {
+			RailSegment r = occSegs[i];
+			int j = nsegs - 1;
+			while (j >= 0 && segs[j] != r) j--;
+			if (j == -1) segs[nsegs++] = r;
+		}
+
+		bound();
+		version++;
+	}
+
+	// a train with no lines, such as one wholly hidden, gets a box which meets nothing
+	private void bound() {
+		double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+		double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < ncars; i++) {
+			double[] l = lines[i];
+			for (int j = 0; j < nlines[i] * 4; j += 2) {
+				if (l[j] < x0) x0 = l[j];
+				if (l[j] > x1) x1 = l[j];
+				if (l[j+1] < y0) y0 = l[j+1];
+				if (l[j+1] > y1) y1 = l[j+1];
+			}
+		}
+		box[0] = x0;
+		box[1] = y0;
+		box[2] = x1;
+		box[3] = y1;
+	}
+
+	public void car(Train t, Car c, int idx, double[] l, int n, double[] e) {
+		if (lines[idx].length < n * 4) lines[idx] = new double[n * 4];
+		System.arraycopy(l, 0, lines[idx], 0, n * 4);
+		System.arraycopy(e, 0, ends[idx], 0, 4);
+		nlines[idx] = n;
+		cars[idx] = c;
+		ncars = idx + 1;
+	}
+
+	void present(RailSegment r, int c) {
+		if (nocc == occSegs.length) {
+			occSegs = Arrays.copyOf(occSegs, nocc * 2);
+			occCars = Arrays.copyOf(occCars, nocc * 2);
+		}
+		occSegs[nocc] = r;
+		occCars[nocc] = c;
+		nocc++;
+	}
+
+	void passed(RailSegment f, RailSegment v, RailSegment t) {
+		if (npath == from.length) {
+			from = Arrays.copyOf(from, npath * 2);
+			via = Arrays.copyOf(via, npath * 2);
+			to = Arrays.copyOf(to, npath * 2);
+		}
+		from[npath] = f;
+		via[npath] = v;
+		to[npath] = t;
+		npath++;
+	}
+
+	/**
+	 * Give each car to a visitor, as a {@link ConsistWalker} would.
+	 *
+	 * @param t The train this geometry is for
+	 * @param v The visitor
+	 */
+	public void visit(Train t, ConsistVisitor v) {
+		for (int i = 0; i < ncars; i++)
+			v.car(t, cars[i], i, lines[i], nlines[i], ends[i]);
+	}
+
+	/**
+	 * Remember the current shape, so the next one may be painted part of the way
+	 * from it by {@link #visit(Train, ConsistVisitor, double)}.  This is called before
+	 * the train is moved.  Nothing is copied if the train has not been walked again
+	 * and its consist is unchanged since the shape was last kept, as for a train standing still.
+	 *
+	 * @param t The train this geometry is for
+	 */
+	public void keep(Train t) {
+		// the geometry is walked again whenever the head moves
+		int cv = t.consistVersion();
+		if (kept == version && keptConsist == cv) return;
+
+		if (pcars.length < ncars) {
+			pcars = new Car[ncars];
+			plines = Arrays.copyOf(plines, ncars);
+			pnlines = new int[ncars];
+			pends = Arrays.copyOf(pends, ncars);
+		}
+		for (int i = 0; i < ncars; i++) {
+			int n = nlines[i] * 4;
+			if (plines[i] == null || plines[i].length < n) plines[i] = new double[lines[i].length];
+			if (pends[i] == null) pends[i] = new double[4];
+			System.arraycopy(lines[i], 0, plines[i], 0, n);
+			System.arraycopy(ends[i], 0, pends[i], 0, 4);
+			pnlines[i] = nlines[i];
+			pcars[i] = cars[i];
+		}
+		pncars = ncars;
+		System.arraycopy(box, 0, pbox, 0, 4);
+		kept = version;
+		keptConsist = cv;
+	}
+
+	/**
+	 * Check whether the train may be painted inside an area.  While the train is painted
+	 * part of the way from the kept shape, the kept shape is counted as well.
+	 *
+	 * @param area An area on the map
+	 * @param margin How far beyond the middle of its lines a car may be painted, in pixels
+	 * @return <code>false</code> if no car can be painted inside the area
+	 */
+	public boolean intersects(Rectangle2D area, double margin) {
+		double x0 = area.getMinX() - margin, y0 = area.getMinY() - margin;
+		double x1 = area.getMaxX() + margin, y1 = area.getMaxY() + margin;
+		if (box[0] <= x1 && box[2] >= x0 && box[1] <= y1 && box[3] >= y0) return true;
+		return version == kept + 1
+			&& pbox[0] <= x1 && pbox[2] >= x0 && pbox[1] <= y1 && pbox[3] >= y0;
+	}
+
+	/**
+	 * Give each car to a visitor, placed part of the way from where it was
+	 * when the shape was last kept to where it is now.  Cars are given where they are
+	 * now if the train has been walked more than once since, or if a car's lines differ
+	 * in number, as when it has crossed onto another segment.
+	 *
+	 * @param t The train this geometry is for
+	 * @param v The visitor
+	 * @param alpha How far to go from the kept shape, from 0 to 1
+	 */
+	public void visit(Train t, ConsistVisitor v, double alpha) {
+		if (alpha >= 1 || version != kept + 1) {
+			visit(t, v);
+			return;
+		}
+
+		for (int i = 0; i < ncars; i++) {
+			int n = nlines[i];
+			if (i >= pncars || pcars[i] != cars[i] || pnlines[i] != n) {
+				v.car(t, cars[i], i, lines[i], n, ends[i]);
+				continue;
+			}
+
+			if (blines.length < n * 4) blines = new double[n * 4];
+			double[] l = lines[i], pl = plines[i];
+			for (int j = 0; j < n * 4; j++)
+				blines[j] = pl[j] + (l[j] - pl[j]) * alpha;
+			double[] e = ends[i], pe = pends[i];
+			for (int j = 0; j < 4; j++)
+				bends[j] = pe[j] + (e[j] - pe[j]) * alpha;
+
+			v.car(t, cars[i], i, blines, n, bends);
+		}
+	}
+
+	/**
+	 * Notify each segment the train occupies with {@link RailSegment#enter(Train)},
+	 * in order from the tail.
+	 *
+	 * @param t The train this geometry is for
+	 */
+	public void enter(Train t) {
+		for (int i = 0; i < nocc; i++)
+			occSegs[i].enter(t);
+	}
+
+	/**
+	 * Give the train's {@link Consist} the segments each car occupies.
+	 *
+	 * @param t The train this geometry is for
+	 */
+	public void assignCars(Train t) {
+		Consist c = t.consist();
+		int n = c.size();
+		if (carStart.length < n + 1) carStart = new int[n + 1];
+		if (carSegs.length < nocc) carSegs = new RailSegment[occSegs.length];
+
+		int k = 0, car = 0;
+		carStart[0] = 0;
+		for (int i = 0; i < nocc; i++) {
+			int ci = occCars[i];
+			if (ci < 0) continue;
+			while (car < ci) carStart[++car] = k;
+
+			// each segment once for each car
+			int j = carStart[car];
+			while (j < k && carSegs[j] != occSegs[i]) j++;
+			if (j == k) carSegs[k++] = occSegs[i];
+		}
+		while (car < n) carStart[++car] = k;
+
+		c.setSegments(carStart, carSegs);
+	}
+
+	/**
+	 * The segments the train occupies, each given once.  Only the first
+	 * {@link #segmentCount()} entries are used.
+	 *
+	 * @return The segments
+	 */
+	public RailSegment[] segments() { return segs; }
+
+	/**
+	 *
+	 * @return The number of segments the train occupies
+	 */
+	public int segmentCount() { return nsegs; }
+
+	/**
+	 *
+	 * @return A number which changes every time the geometry is updated
+	 */
+	public int version() { return version; }
+
+	/**
+	 *
+	 * @return The number of cars which were walked.  This is less than
+	 * the number of cars in the train if the train runs off the end of the track.
+	 */
+	public int cars() { return ncars; }
+
+	/**
+	 *
+	 * @return The location of the head of the train
+	 */
+	public CLoc head() { return head; }
+
+	/**
+	 *
+	 * @return The location of the end of the last car, or <code>null</code> if the train is not on the map
+	 */
+	public CLoc tail() { return tail; }
+}
@@ -0,0 +1,107 @@
+package net.kolls.railworld;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The trains on a segment.  A segment rarely holds more than a couple of trains,
+ * so they are kept in a small array and compared by identity, which is cheaper
+ * than hashing when trains come and go every step.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class TrainSet extends AbstractSet<Train> {
+
+	private Train[] items = new Train[2];
+	private int n;
+
+	private int indexOf(Object o) {
+		for (int i = 0; i < n; i++)
+			if (items[i] == o) return i;
+		return -1;
+	}
+
+	@Override
+	public boolean add(Train t) {
+		if (indexOf(t) != -1) return false;
+		if (n == items.length) items = Arrays.copyOf(items, n * 2);
+		items[n++] = t;
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		int i = indexOf(o);
+		if (i == -1) return false;
+		removeAt(i);
+		return true;
+	}
+
+	private void removeAt(int i) {
+		n--;
+		items[i] = items[n];
+		items[n] = null;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) != -1;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(items, 0, n, null);
+		n = 0;
+	}
+
+	@Override
+	public int size() {
+		return n;
+	}
+
+	@Override
+	public Iterator<Train> iterator() {
+		return new Iterator<Train>() {
+			private int next, last = -1;
+
+			public boolean hasNext() {
+				return next < n;
+			}
+
+			public Train next() {
+				if (next >= n) throw new NoSuchElementException();
+				last = next++;
+				return items[last];
+			}
+
+			public void remove() {
+				if (last == -1) throw new IllegalStateException();
+				removeAt(last);
+				// the last train was moved into this place
+				next = last;
+				last = -1;
+			}
+		};
+	}
+}
@@ -24,6 +24,7 @@ import java.awt.geom.*;
 /**
  * Deals with issues regarding a train as it appears on the map.  Once instantiated, the programmer
  * calls the act method, which in turns calls segment and car methods repeatadly.
+ * Walking a train does not change which segments it is registered with.
  * 
  * @author Steve Kollmansberger
  *
@@ -71,8 +72,7 @@ public abstract class TrainUIController {
 			for ( i = 0; i < train.length; i++) {
 				if (pos.r == null) break;
 				
-				train[i].segs().clear();
-				d = pos.segFwd(train[i].length(), train[i], t);
+				d = pos.segFwd(train[i].length());
 				
 				lines = d.lines;
 				for (j = 0; j < lines.length; j++) {
@@ -86,7 +86,7 @@ public abstract class TrainUIController {
 				car(train[i], pos.reverse(), d.newLoc);
 
 				// between cars, move forward empty space			
-				d = d.newLoc.segFwd(Car.DIST_BETWEEN_CARS, null, t);
+				d = d.newLoc.segFwd(Car.DIST_BETWEEN_CARS);
 				if (d.newLoc.r == null) break;
 				pos = d.newLoc;
 			}
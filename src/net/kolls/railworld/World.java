@@ -0,0 +1,176 @@
+package net.kolls.railworld;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+/**
+ * The settings a map is loaded and simulated with: its scale, the length of
+ * a clock step, the display zoom, the factories and the sounds.  Each map being
+ * played or simulated has its own world, so several may be run side by side.
+ * <p>
+ * The world in effect is found with {@link #current()}.  A thread works in the
+ * shared world unless another is bound to it with {@link #bind()}, which is
+ * how a {@link net.kolls.railworld.play.SimulationEngine} runs in the world it
+ * was created in, and how a map is loaded into a world of its own:
+ * <pre>
+ * World w = new World();
+ * World old = w.bind();
+ * try {
+ *     // load and simulate
+ * } finally {
+ *     World.restore(old);
+ * }
+ * </pre>
+ *
+ * @author Rick Rutt
+ *
+ */
+public class World {
+
+	private static final World shared = new World();
+	private static final ThreadLocal<World> bound = new ThreadLocal<World>();
+
+	/**
+	 * The map scale.  This must be set before any segments are made, as the segments
+	 * convert pixels into feet.
+	 *
+	 * @see Distance
+	 */
+	public double feetPerPixels = 0.666;
+
+	/**
+	 * The clock step the game is played at unless one is chosen in the options, in milliseconds.
+	 */
+	public static final int DEFAULT_CLOCK_WAIT = 40;
+
+	/**
+	 * Time between each step of the simulation, in milliseconds.  Behavior may
+	 * reasonably assume that in this amount of time it will be called again.
+	 * This must be set before a {@link net.kolls.railworld.play.SimulationEngine}
+	 * is made in the world.
+	 */
+	public int clockWait = DEFAULT_CLOCK_WAIT;
+
+	/**
+	 * The zoom the map is displayed at.
+	 */
+	public double zoom = 0.5;
+
+	// changed whenever any run of track may have changed
+	int trackVersion;
+
+	private Factories factories;
+	private Sounds sounds;
+
+	/**
+	 *
+	 * @return The world in effect on this thread
+	 */
+	public static World current() {
+		World w = bound.get();
+		return w == null ? shared : w;
+	}
+
+	/**
+	 *
+	 * @return The world used by threads with no other world bound
+	 */
+	public static World shared() {
+		return shared;
+	}
+
+	/**
+	 * Make this the world in effect on this thread, until {@link #restore(World)} is called.
+	 *
+	 * @return The world bound before, to give to {@link #restore(World)}
+	 */
+	public World bind() {
+		World old = bound.get();
+		bound.set(this);
+		return old;
+	}
+
+	/**
+	 * Put back the world which was in effect before {@link #bind()}.
+	 *
+	 * @param old The world returned by {@link #bind()}
+	 */
+	public static void restore(World old) {
+		if (old == null)
+			bound.remove();
+		else
+			bound.set(old);
+	}
+
+	/**
+	 * Run some commands in this world.
+	 *
+	 * @param r The commands to run
+	 */
+	public void run(Runnable r) {
+		World old = bind();
+		try {
+			r.run();
+		} finally {
+			restore(old);
+		}
+	}
+
+	/**
+	 * The factories for this world.  These are made with the built-in types
+	 * when first asked for.
+	 *
+	 * @return The factories
+	 */
+	public synchronized Factories factories() {
+		if (factories == null) factories = new Factories();
+		return factories;
+	}
+
+	/**
+	 * Replace the factories for this world.
+	 *
+	 * @param f The new factories
+	 */
+	public synchronized void setFactories(Factories f) {
+		factories = f;
+	}
+
+	/**
+	 * The sounds played in this world.  Until some have been loaded
+	 * with {@link #setSounds(Sounds)}, the world is silent.
+	 *
+	 * @return The sounds
+	 */
+	public synchronized Sounds sounds() {
+		if (sounds == null) {
+			sounds = new Sounds();
+			sounds.loadSounds(null, Sounds.SoundSystem.NONE);
+		}
+		return sounds;
+	}
+
+	/**
+	 * Give this world its sounds.
+	 *
+	 * @param s Sounds, already loaded with {@link Sounds#loadSounds(javax.swing.JProgressBar, Sounds.SoundSystem)}
+	 */
+	public synchronized void setSounds(Sounds s) {
+		sounds = s;
+	}
+}
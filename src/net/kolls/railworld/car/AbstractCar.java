@@ -74,10 +74,14 @@ public abstract class AbstractCar implements Car {
 	 * Constructs a new Car.  Parameters of a Car are set using inheritance.
 	 *
 	 */
-	public AbstractCar() { segs = new HashSet<RailSegment>(); }
+	public AbstractCar() { }
 	
 	
-	public final Set<RailSegment> segs() { return segs; }
+	// most cars never need one, so it is made when first asked for
+	public final Set<RailSegment> segs() {
+		if (segs == null) segs = new HashSet<RailSegment>();
+		return segs;
+	}
 
 	
 	@Override
@@ -39,6 +39,7 @@ import net.kolls.railworld.MiniViewer;
 import net.kolls.railworld.RailCanvas;
 import net.kolls.railworld.RailSegment;
 import net.kolls.railworld.Distance;
+import net.kolls.railworld.World;
 import net.kolls.railworld.segment.*;
 import net.kolls.railworld.segment.TrackSegment.TSEP;
 
@@ -378,7 +379,7 @@ public class EditCanvas extends RailCanvas {
 		if (myp > getHeight() - 25) dy = 10;
 		
 		if (dx != 0 || dy != 0)
-			submitCoords( (int)(vx + dx * RailCanvas.zoom), (int)(vy + dy * RailCanvas.zoom));
+			submitCoords( (int)(vx + dx * World.current().zoom), (int)(vy + dy * World.current().zoom));
 		
 		
 		
@@ -387,12 +388,15 @@ public class EditCanvas extends RailCanvas {
 	private SegmentEditPoint nearEditPoint(Point2D cp) {
 		SegmentEditPoint ap;
 		
+		// only segments whose bounds contain the point can have an edit point near it
+		ArrayList<RailSegment> near = new ArrayList<RailSegment>();
+		segmentIndex().query(new Rectangle2D.Double(cp.getX(), cp.getY(), 0, 0), near);
 		
-		for ( int i = 0; i < la.length; i++) {
+		for ( int i = 0; i < near.size(); i++) {
 		
 		
 			
-			ap = la[i].nearEditPoint(cp, sep != null ? sep.getSegment() : null);
+			ap = near.get(i).nearEditPoint(cp, sep != null ? sep.getSegment() : null);
 			if (ap != null && sep != null) {
 				if (ap.getSegment() == sep.getSegment()) continue; // can't link to ourselves!
 			}
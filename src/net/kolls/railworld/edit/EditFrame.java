@@ -41,14 +41,14 @@ import javax.swing.JPanel;
 import javax.swing.JToggleButton;
 import javax.swing.KeyStroke;
 
-import net.kolls.railworld.Distance;
 import net.kolls.railworld.GameLoop;
 import net.kolls.railworld.Images;
-import net.kolls.railworld.RailCanvas;
 import net.kolls.railworld.RailFrame;
 import net.kolls.railworld.RailSegment;
 import net.kolls.railworld.YesNoCancel;
+import net.kolls.railworld.World;
 import net.kolls.railworld.io.MetaData;
+import net.kolls.railworld.io.RWMBWriter;
 import net.kolls.railworld.io.RWMMapFilter;
 import net.kolls.railworld.io.RWMWriter;
 import net.kolls.railworld.opening.MetaDataPanel;
@@ -110,7 +110,7 @@ public class EditFrame extends RailFrame {
 				public void actionPerformed(ActionEvent ex) {
 					
 					mmd = mdp.getMD();
-					Distance.feetPerPixels = mmd.feetPerPixel;
+					World.current().feetPerPixels = mmd.feetPerPixel;
 					setTitle("Rail World - " + mmd.title);
 					d.dispose();
 				}
@@ -165,7 +165,7 @@ public class EditFrame extends RailFrame {
 			
 			p = jdb.getCenterPoint();
 
-			RailCanvas.zoom *= 1.5;
+			World.current().zoom *= 1.5;
 					
 					
 			jdb.recomp();
@@ -185,7 +185,7 @@ public class EditFrame extends RailFrame {
 			
 			
 			
-			RailCanvas.zoom /= 1.5;
+			World.current().zoom /= 1.5;
 			
 			
 			
@@ -221,7 +221,8 @@ public class EditFrame extends RailFrame {
 				int rv = jfc.showSaveDialog(this);
 				if (rv != JFileChooser.APPROVE_OPTION) return;
 				file = jfc.getSelectedFile();
-				if (file.getName().toUpperCase().endsWith(".RWM") == false) {
+				if (file.getName().toUpperCase().endsWith(".RWM") == false
+						&& file.getName().toUpperCase().endsWith(".RWMB") == false) {
 					// add extension if need
 					file = new File(file.getParent(), file.getName() + ".rwm");
 					
@@ -247,14 +248,17 @@ public class EditFrame extends RailFrame {
 	            
 	         mmd.centerX = (int)jdb.getCenterPoint().getX();
 	         mmd.centerY = (int)jdb.getCenterPoint().getY();
-	         mmd.feetPerPixel = Distance.feetPerPixels;
-	         mmd.zoom = RailCanvas.zoom;
+	         mmd.feetPerPixel = World.current().feetPerPixels;
+	         mmd.zoom = World.current().zoom;
 	            
 	            
 	            
 	            
 	         try {
-	        	 RWMWriter.write(jdb.la, mmd, file);
+	        	 if (file.getName().toUpperCase().endsWith(".RWMB"))
+	        		 RWMBWriter.write(jdb.la, mmd, file);
+	        	 else
+	        		 RWMWriter.write(jdb.la, mmd, file);
 	        	 jdb.justSaved = true;
 	        	 checkUndoRedo();
 	         } catch (Exception ex) {
@@ -0,0 +1,236 @@
+package net.kolls.railworld.io;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * The layout shared by the binary map (RWMB) and game (RWGB) files.
+ * A file is a magic number and version, then a table of every string
+ * used in the file, then the body.  The body refers to strings
+ * by their index in the table, so a name repeated thousands of times is only stored once.
+ * All numbers are big endian.
+ *
+ * @author Rick Rutt
+ *
+ */
+class BinaryFormat {
+
+	/**
+	 * "RWMB"
+	 */
+	static final int MAP_MAGIC = 0x52574d42;
+
+	/**
+	 * "RWGB"
+	 */
+	static final int GAME_MAGIC = 0x52574742;
+
+	/**
+	 * Version of both formats
+	 */
+	static final short VERSION = 1;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Does the file have the given extension, in any capitalization?
+	 *
+	 * @param name The file name
+	 * @param ext The extension, in upper case, with the dot
+	 * @return True if it does
+	 */
+	static boolean hasExtension(String name, String ext) {
+		return name.toUpperCase().endsWith(ext);
+	}
+
+	/**
+	 * Builds the body in memory, collecting the strings,
+	 * and then writes the whole file.
+	 */
+	static class Out {
+		private ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+
+		/**
+		 * The body.
+		 */
+		final DataOutputStream body = new DataOutputStream(bytes);
+
+		private HashMap<String, Integer> index = new HashMap<String, Integer>();
+		private ArrayList<String> strings = new ArrayList<String>();
+
+		/**
+		 * Write a string's index to the body.  Null is written as -1.
+		 *
+		 * @param s The string
+		 * @throws IOException
+		 */
+		void str(String s) throws IOException {
+			if (s == null) {
+				body.writeInt(-1);
+				return;
+			}
+			Integer i = index.get(s);
+			if (i == null) {
+				i = strings.size();
+				index.put(s, i);
+				strings.add(s);
+			}
+			body.writeInt(i);
+		}
+
+		/**
+		 * Write the file.
+		 *
+		 * @param magic Which kind of file
+		 * @param f The file to write to
+		 * @throws IOException If the file cannot be written
+		 */
+		void writeTo(int magic, File f) throws IOException {
+			DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(f), BUFFER_SIZE));
+			try {
+				out.writeInt(magic);
+				out.writeShort(VERSION);
+				out.writeInt(strings.size());
+				for (String s : strings) {
+					byte[] b = s.getBytes(StandardCharsets.UTF_8);
+					out.writeInt(b.length);
+					out.write(b);
+				}
+				body.flush();
+				bytes.writeTo(out);
+			} finally {
+				out.close();
+			}
+		}
+	}
+
+	/**
+	 * Reads a file written by {@link Out}.
+	 */
+	static class In {
+		private ByteBuffer buf;
+		private String[] strings;
+
+		/**
+		 * Check the header and read the string table.
+		 *
+		 * @param b The whole file
+		 * @param magic Which kind of file is expected
+		 * @param what Name of the kind of file, for messages
+		 * @throws IOException If the file is not of the right kind or version
+		 */
+		In(ByteBuffer b, int magic, String what) throws IOException {
+			buf = b;
+			try {
+				if (buf.getInt() != magic) throw new IOException("Not a " + what + " file");
+				short v = buf.getShort();
+				if (v != VERSION) throw new IOException("Unsupported version: " + v);
+
+				strings = new String[buf.getInt()];
+				for (int i = 0; i < strings.length; i++) {
+					byte[] s = new byte[buf.getInt()];
+					buf.get(s);
+					strings[i] = new String(s, StandardCharsets.UTF_8);
+				}
+			} catch (BufferUnderflowException e) {
+				throw new IOException("Truncated " + what + " file");
+			} catch (NegativeArraySizeException e) {
+				throw new IOException("Corrupt " + what + " file");
+			}
+		}
+
+		/**
+		 *
+		 * @return The body
+		 */
+		ByteBuffer body() {
+			return buf;
+		}
+
+		/**
+		 *
+		 * @return The next string, by its index
+		 * @throws IOException If the index is not in the table
+		 */
+		String str() throws IOException {
+			int i = buf.getInt();
+			if (i == -1) return null;
+			if (i < -1 || i >= strings.length) throw new IOException("Corrupt string index " + i);
+			return strings[i];
+		}
+
+		/**
+		 *
+		 * @return The next byte as a boolean
+		 */
+		boolean bool() {
+			return buf.get() != 0;
+		}
+	}
+
+	/**
+	 * Map a file into memory.
+	 *
+	 * @param f The file
+	 * @return The contents
+	 * @throws IOException If the file cannot be read
+	 */
+	static ByteBuffer map(File f) throws IOException {
+		FileInputStream in = new FileInputStream(f);
+		try {
+			FileChannel fc = in.getChannel();
+			// the mapping stays valid once the channel is closed
+			return fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size());
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Read a URL into memory.
+	 *
+	 * @param u The URL
+	 * @return The contents
+	 * @throws IOException If the URL cannot be read
+	 */
+	static ByteBuffer read(URL u) throws IOException {
+		InputStream in = u.openStream();
+		try {
+			return ByteBuffer.wrap(in.readAllBytes());
+		} finally {
+			in.close();
+		}
+	}
+}
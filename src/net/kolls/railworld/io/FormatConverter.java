@@ -0,0 +1,107 @@
+package net.kolls.railworld.io;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.io.File;
+import java.io.IOException;
+
+import net.kolls.railworld.Factories;
+import net.kolls.railworld.RailSegment;
+
+/**
+ * Converts maps between the RWM and RWMB formats, and saved games between
+ * the RWG and RWGB formats.  The format of each file is chosen by its extension.
+ * <p>
+ * Usage: <code>java net.kolls.railworld.io.FormatConverter in out</code>
+ * <p>
+ * A converted game still names the map it was saved with; convert
+ * the map too and rename the game's map if both should be binary.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class FormatConverter {
+
+	private static boolean isMap(String name) {
+		return BinaryFormat.hasExtension(name, ".RWM") || BinaryFormat.hasExtension(name, ".RWMB");
+	}
+
+	private static boolean isGame(String name) {
+		return BinaryFormat.hasExtension(name, ".RWG") || BinaryFormat.hasExtension(name, ".RWGB");
+	}
+
+	/**
+	 * Convert a map or a saved game.
+	 *
+	 * @param in The file to read
+	 * @param out The file to write
+	 * @throws Exception If the file cannot be read or written, or the extensions don't match
+	 */
+	public static void convert(File in, File out) throws Exception {
+		String i = in.getName(), o = out.getName();
+
+		if (isMap(i) && isMap(o)) {
+			MetaData md = new MetaData();
+			RailSegment[] la;
+			if (BinaryFormat.hasExtension(i, ".RWMB"))
+				la = RWMBReader.read(in, md);
+			else
+				la = RWMReader.read(in, md);
+
+			if (BinaryFormat.hasExtension(o, ".RWMB"))
+				RWMBWriter.write(la, md, out);
+			else
+				RWMWriter.write(la, md, out);
+			return;
+		}
+
+		if (isGame(i) && isGame(o)) {
+			GameData g = RWGReader.readData(in);
+			if (RWGBReader.isBinary(out))
+				RWGBWriter.write(g, out);
+			else
+				RWGWriter.write(g, out);
+			return;
+		}
+
+		throw new IOException("Can only convert a map to a map, or a game to a game");
+	}
+
+	/**
+	 * Command line entry point.
+	 *
+	 * @param args The file to read and the file to write
+	 */
+	public static void main(String[] args) {
+		if (args.length != 2) {
+			System.err.println("Usage: FormatConverter in.(rwm|rwmb|rwg|rwgb) out.(rwm|rwmb|rwg|rwgb)");
+			System.exit(2);
+		}
+
+		// cars on load/unload segments are made by name
+		Factories.init();
+
+		try {
+			convert(new File(args[0]), new File(args[1]));
+		} catch (Exception e) {
+			System.err.println("Unable to convert " + args[0] + ": " + e.getMessage());
+			System.exit(1);
+		}
+	}
+}
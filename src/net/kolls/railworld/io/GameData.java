@@ -0,0 +1,384 @@
+package net.kolls.railworld.io;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.kolls.railworld.Car;
+import net.kolls.railworld.ExtensibleFactory;
+import net.kolls.railworld.Factories;
+import net.kolls.railworld.RailSegment;
+import net.kolls.railworld.SignalProgram;
+import net.kolls.railworld.Train;
+import net.kolls.railworld.TrainControl;
+import net.kolls.railworld.World;
+import net.kolls.railworld.play.Game;
+import net.kolls.railworld.play.Trains;
+import net.kolls.railworld.play.script.Mission;
+import net.kolls.railworld.play.script.Script;
+import net.kolls.railworld.play.script.ScriptManager;
+import net.kolls.railworld.segment.EESegment;
+import net.kolls.railworld.segment.Signal;
+import net.kolls.railworld.segment.Switch;
+
+import org.xml.sax.SAXException;
+
+/**
+ * Everything stored in a saved game, independent of the file format.  A game
+ * is captured from play into this form and then written by {@link RWGWriter} or
+ * {@link RWGBWriter}; reading either format gives this form back, which is then
+ * loaded into a {@link Game}.  Segments are referred to by their index in the map.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class GameData {
+
+	/**
+	 * The saved data of a {@link SaveLoad} object: its type and key-value pairs.
+	 */
+	public static class Block {
+		/**
+		 * The type, as given by {@link SaveLoad#toString()}
+		 */
+		public String type;
+
+		/**
+		 * The saved data
+		 */
+		public Map<String, String> items;
+
+		/**
+		 * Create an empty block.
+		 *
+		 * @param t The type
+		 */
+		public Block(String t) {
+			type = t;
+			items = new LinkedHashMap<String, String>();
+		}
+
+		/**
+		 * Save an object.
+		 *
+		 * @param s The object to save
+		 */
+		public Block(SaveLoad s) {
+			this(s.toString());
+			Map<String, String> data = s.save();
+			if (data == null) return;
+			// a missing value is read back as empty text
+			for (Map.Entry<String, String> kv : data.entrySet())
+				items.put(kv.getKey(), kv.getValue() == null ? "" : kv.getValue());
+		}
+
+		/**
+		 * Create an object of this block's type and load it.
+		 *
+		 * @param ef The factory for objects of this kind
+		 * @return The new object
+		 * @throws SAXException If the type is not known
+		 */
+		public SaveLoad create(ExtensibleFactory<?> ef) throws SAXException {
+			SaveLoad thing;
+			try {
+				thing = ef.createInstance(type);
+				thing.load(items);
+			} catch (ClassNotFoundException ex) {
+				throw new SAXException(ex);
+			}
+			return thing;
+		}
+	}
+
+	/**
+	 * A car within a saved train.
+	 */
+	public static class CarData {
+		/**
+		 * The car's data
+		 */
+		public Block data;
+
+		/**
+		 * Was this the selected car?
+		 */
+		public boolean selected;
+	}
+
+	/**
+	 * A saved train.
+	 */
+	public static class TrainData {
+		/**
+		 * Index of the segment the head is on, or -1 if it is in an entrance's hidden segment
+		 */
+		public int rid;
+
+		/**
+		 * Index of the segment the head came from, or -1
+		 */
+		public int origid;
+
+		/**
+		 * Position within the segment
+		 */
+		public double per;
+
+		/**
+		 * Throttle setting
+		 */
+		public int throttle;
+
+		/**
+		 * Is the brake on?
+		 */
+		public boolean brake;
+
+		/**
+		 * Velocity
+		 */
+		public double vel;
+
+		/**
+		 * Was this the selected train?
+		 */
+		public boolean selected;
+
+		/**
+		 * The cars, from the head
+		 */
+		public CarData[] cars;
+
+		/**
+		 * The controller's data
+		 */
+		public Block controller;
+	}
+
+	/**
+	 * The file name (without path) of the map
+	 */
+	public String map;
+
+	/**
+	 * Milliseconds of play time that have elapsed
+	 */
+	public long elapsed;
+
+	/**
+	 * The zoom of the display
+	 */
+	public double zoom;
+
+	/**
+	 * The center of the display
+	 */
+	public double centerX, centerY;
+
+	/**
+	 * Whether each switch is flipped, by segment index
+	 */
+	public Map<Integer, Boolean> switches = new LinkedHashMap<Integer, Boolean>();
+
+	/**
+	 * The program of each signal, by segment index
+	 */
+	public Map<Integer, Block> signals = new LinkedHashMap<Integer, Block>();
+
+	/**
+	 * The trains
+	 */
+	public List<TrainData> trains = new ArrayList<TrainData>();
+
+	/**
+	 * The scripts, in the order of the script manager
+	 */
+	public List<Block> scripts = new ArrayList<Block>();
+
+
+	/**
+	 * Capture a game in progress.
+	 *
+	 * @param la Array of rail segments to find both position IDs and track settings
+	 * @param trs Trains to save
+	 * @param sm The ScriptManager containing all scripts in use.
+	 * @param md MetaData with center X and Y, and zoom
+	 * @return The game
+	 * @throws Exception If the train list is modified during the capture
+	 */
+	public static GameData capture(RailSegment[] la, Trains trs, ScriptManager sm, MetaData md) throws Exception {
+		GameData g = new GameData();
+
+		g.map = md.ourFile.getName();
+		g.elapsed = md.elapsed;
+		g.zoom = md.zoom;
+		g.centerX = md.centerX;
+		g.centerY = md.centerY;
+
+		IdentityHashMap<RailSegment, Integer> index = new IdentityHashMap<RailSegment, Integer>();
+		for (int j = 0; j < la.length; j++) {
+			index.put(la[j], j);
+			if (la[j] instanceof Switch)
+				g.switches.put(j, ((Switch)la[j]).flipped);
+			if (la[j] instanceof Signal)
+				g.signals.put(j, new Block(((Signal)la[j]).sp));
+		}
+
+		try {
+			Iterator<Train> it = trs.iterator();
+			while (it.hasNext()) {
+				Train t = it.next();
+				TrainData td = new TrainData();
+
+				Integer rid = index.get(t.pos.r), origid = index.get(t.pos.orig);
+				td.rid = rid == null ? -1 : rid;
+				td.origid = origid == null ? -1 : origid;
+				td.per = t.pos.per;
+
+				td.throttle = t.getThrottle();
+				td.brake = t.getBrake();
+				td.vel = t.vel();
+				td.selected = trs.getSelectedTrain() == t;
+
+				Car[] ca = t.array();
+				td.cars = new CarData[ca.length];
+				for (int i = 0; i < ca.length; i++) {
+					td.cars[i] = new CarData();
+					td.cars[i].data = new Block(ca[i]);
+					td.cars[i].selected = trs.getSelectedCar() == ca[i];
+				}
+
+				td.controller = new Block(t.getController());
+				g.trains.add(td);
+			}
+		} catch (ConcurrentModificationException ex) {
+			throw new Exception("Train list changed while attempting to save; try again.");
+		}
+
+		for (Script s : sm)
+			g.scripts.add(new Block(s));
+
+		return g;
+	}
+
+	/**
+	 * Determine which scripts are in use and create a script manager.
+	 *
+	 * @param avail A list of available {@link Script}s.  Every script used in the saved game must be available.
+	 * @return A ScriptManager containing un-initialized scripts in this game.
+	 */
+	public ScriptManager scriptsInUse(List<Script> avail) {
+		ScriptManager sm = new ScriptManager();
+
+		for (Block b : scripts) {
+			for (Script s : avail) {
+				if (s.toString().equals(b.type)) {
+					sm.add(s);
+					if (s instanceof Mission)
+						sm.mission = (Mission)s;
+				}
+			}
+		}
+		return sm;
+	}
+
+	/**
+	 * Load this saved game into the game given: display position, scripts,
+	 * switches and signals, and trains.  The game must have the map and
+	 * the script manager from {@link #scriptsInUse(List)}.
+	 *
+	 * @param game The game
+	 * @throws SAXException If the game does not match the map
+	 */
+	public void load(Game game) throws SAXException {
+		RailSegment[] la = game.segments();
+
+		World.current().zoom = zoom;
+		game.center((int)centerX, (int)centerY);
+		game.setElapsed(elapsed);
+
+		// take advantage of the alignment because
+		// we made the script manager
+		// so the scripts should be in index order
+		for (int i = 0; i < scripts.size(); i++) {
+			game.scripts().get(i).init(game);
+			game.scripts().get(i).load(scripts.get(i).items);
+		}
+
+		for (Map.Entry<Integer, Boolean> e : switches.entrySet()) {
+			int id = e.getKey();
+			if (id >= la.length || la[id] instanceof Switch == false) throw new SAXException("Map/Game inconsistency on segment id "+id);
+			((Switch)la[id]).flipped = e.getValue();
+		}
+
+		for (Map.Entry<Integer, Block> e : signals.entrySet()) {
+			int id = e.getKey();
+			if (id >= la.length || la[id] instanceof Signal == false) throw new SAXException("Map/Game inconsistency on segment id "+id);
+			((Signal)la[id]).sp = (SignalProgram)e.getValue().create(Factories.sps());
+		}
+
+		for (TrainData td : trains) {
+			Car selc = null;
+			Car[] cars = new Car[td.cars.length];
+
+			// setup cars first
+			for (int j = 0; j < cars.length; j++) {
+				cars[j] = (Car)td.cars[j].data.create(Factories.cars());
+				if (td.cars[j].selected) selc = cars[j];
+			}
+
+			Train t = new Train(cars);
+
+			// now position
+			if (td.origid >= la.length) throw new SAXException("Map/Game inconsistency on segment id "+td.origid);
+			if (td.origid != -1)
+				t.pos.orig = la[td.origid];
+
+			if (td.rid >= la.length) throw new SAXException("Map/Game inconsistency on segment id "+td.rid);
+			if (td.rid == -1) t.pos.r = ((EESegment)t.pos.orig).HES;
+			else t.pos.r = la[td.rid];
+
+			t.pos.per = td.per;
+
+			// now controller
+			TrainControl tc = (TrainControl)td.controller.create(Factories.controllers());
+			tc.setTrainActionScriptNotify(game.scripts());
+			t.setController(tc);
+
+			t.getController().fillConsist();
+
+			// now control
+			t.setThrottle(td.throttle);
+			t.setBrake(td.brake);
+			t.setVel(td.vel);
+			if (td.selected)
+				game.trains().select(t, selc);
+
+			// the simulation registers it with its segments before the next step
+			game.trains().add(t);
+		}
+	}
+}
@@ -67,14 +67,14 @@ public class MetaData {
 	/**
 	 * Distance scale.  Should be loaded into the {@link net.kolls.railworld.Distance} class ASAP.
 	 * 
-	 * @see net.kolls.railworld.Distance#feetPerPixels
+	 * @see net.kolls.railworld.World#feetPerPixels
 	 */
 	public double feetPerPixel;
 	
 	/**
 	 * Current zoom.
 	 * 
-	 * @see net.kolls.railworld.RailCanvas#zoom
+	 * @see net.kolls.railworld.World#zoom
 	 */
 	public double zoom;
 	
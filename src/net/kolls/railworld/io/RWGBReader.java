@@ -0,0 +1,123 @@
+package net.kolls.railworld.io;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads saved games in the binary RWGB format written by {@link RWGBWriter}.
+ * Games are normally read through {@link RWGReader}, which accepts either format.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class RWGBReader {
+
+	/**
+	 * Is this file in the binary format?  Only the name is checked.
+	 *
+	 * @param f The file
+	 * @return True if the file should be read with this reader
+	 */
+	public static boolean isBinary(File f) {
+		return BinaryFormat.hasExtension(f.getName(), ".RWGB");
+	}
+
+	/**
+	 * Read a game.
+	 *
+	 * @param f File of the RWGB game
+	 * @return The game
+	 * @throws IOException If the file cannot be read or is not a valid game
+	 */
+	public static GameData read(File f) throws IOException {
+		BinaryFormat.In in = new BinaryFormat.In(BinaryFormat.map(f), BinaryFormat.GAME_MAGIC, "RWGB");
+		ByteBuffer b = in.body();
+		GameData g = new GameData();
+
+		try {
+			g.map = in.str();
+			g.elapsed = b.getLong();
+			g.zoom = b.getDouble();
+			g.centerX = b.getDouble();
+			g.centerY = b.getDouble();
+
+			int n = count(b);
+			for (int i = 0; i < n; i++) {
+				int id = b.getInt();
+				g.switches.put(id, in.bool());
+			}
+
+			n = count(b);
+			for (int i = 0; i < n; i++) {
+				int id = b.getInt();
+				g.signals.put(id, block(in));
+			}
+
+			n = count(b);
+			for (int i = 0; i < n; i++) {
+				GameData.TrainData td = new GameData.TrainData();
+				td.rid = b.getInt();
+				td.origid = b.getInt();
+				td.per = b.getDouble();
+				td.throttle = b.getInt();
+				td.brake = in.bool();
+				td.vel = b.getDouble();
+				td.selected = in.bool();
+
+				td.cars = new GameData.CarData[count(b)];
+				for (int j = 0; j < td.cars.length; j++) {
+					td.cars[j] = new GameData.CarData();
+					td.cars[j].data = block(in);
+					td.cars[j].selected = in.bool();
+				}
+
+				td.controller = block(in);
+				g.trains.add(td);
+			}
+
+			n = count(b);
+			for (int i = 0; i < n; i++)
+				g.scripts.add(block(in));
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Truncated RWGB file");
+		}
+
+		return g;
+	}
+
+	private static int count(ByteBuffer b) throws IOException {
+		int n = b.getInt();
+		if (n < 0) throw new IOException("Corrupt RWGB file");
+		return n;
+	}
+
+	private static GameData.Block block(BinaryFormat.In in) throws IOException {
+		GameData.Block d = new GameData.Block(in.str());
+		int n = count(in.body());
+		for (int i = 0; i < n; i++) {
+			String k = in.str();
+			d.items.put(k, in.str());
+		}
+		return d;
+	}
+}
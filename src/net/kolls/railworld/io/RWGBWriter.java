@@ -0,0 +1,108 @@
+package net.kolls.railworld.io;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes a saved game in the compact binary RWGB format.  It holds
+ * the same game as an RWG file.  After the header and string table
+ * (see {@link BinaryFormat}), the body is:
+ * <ul>
+ * <li>the map name, elapsed time, zoom, and center X and Y;
+ * <li>the number of switches, then the index and setting of each;
+ * <li>the number of signals, then the index and program of each;
+ * <li>the number of trains, then for each its position, controls, cars and controller;
+ * <li>the number of scripts, then each script's data.
+ * </ul>
+ * The saved data of a program, car, controller or script is its type,
+ * the number of items, and each key and value.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class RWGBWriter {
+
+	/**
+	 * Write a game in the RWGB format.
+	 *
+	 * @param g The game
+	 * @param f File to write to
+	 * @throws IOException If the file cannot be written
+	 */
+	public static void write(GameData g, File f) throws IOException {
+		BinaryFormat.Out out = new BinaryFormat.Out();
+		DataOutputStream b = out.body;
+
+		out.str(g.map);
+		b.writeLong(g.elapsed);
+		b.writeDouble(g.zoom);
+		b.writeDouble(g.centerX);
+		b.writeDouble(g.centerY);
+
+		b.writeInt(g.switches.size());
+		for (Map.Entry<Integer, Boolean> e : g.switches.entrySet()) {
+			b.writeInt(e.getKey());
+			b.writeBoolean(e.getValue());
+		}
+
+		b.writeInt(g.signals.size());
+		for (Map.Entry<Integer, GameData.Block> e : g.signals.entrySet()) {
+			b.writeInt(e.getKey());
+			block(out, e.getValue());
+		}
+
+		b.writeInt(g.trains.size());
+		for (GameData.TrainData td : g.trains) {
+			b.writeInt(td.rid);
+			b.writeInt(td.origid);
+			b.writeDouble(td.per);
+			b.writeInt(td.throttle);
+			b.writeBoolean(td.brake);
+			b.writeDouble(td.vel);
+			b.writeBoolean(td.selected);
+
+			b.writeInt(td.cars.length);
+			for (GameData.CarData cd : td.cars) {
+				block(out, cd.data);
+				b.writeBoolean(cd.selected);
+			}
+
+			block(out, td.controller);
+		}
+
+		b.writeInt(g.scripts.size());
+		for (GameData.Block s : g.scripts)
+			block(out, s);
+
+		out.writeTo(BinaryFormat.GAME_MAGIC, f);
+	}
+
+	private static void block(BinaryFormat.Out out, GameData.Block d) throws IOException {
+		out.str(d.type);
+		out.body.writeInt(d.items.size());
+		for (Map.Entry<String, String> kv : d.items.entrySet()) {
+			out.str(kv.getKey());
+			out.str(kv.getValue());
+		}
+	}
+}
@@ -38,14 +38,14 @@ public class RWGFilter extends FileFilter {
         }
 
         String u = f.getName().toUpperCase(); 
-        if (u.endsWith(".RWG")) return true;
+        if (u.endsWith(".RWG") || u.endsWith(".RWGB")) return true;
         
         return false;	
     }
 
 	@Override
 	public String getDescription() {
-		return "Rail World Games (RWG)";
+		return "Rail World Games (RWG, RWGB)";
 	}
 
 
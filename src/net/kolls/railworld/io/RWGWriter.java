@@ -21,14 +21,12 @@ package net.kolls.railworld.io;
 
 
 import java.io.File;
-import java.util.ConcurrentModificationException;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.Set;
-import java.util.Map.Entry;
+import java.util.TreeSet;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
@@ -36,12 +34,8 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
 import net.kolls.railworld.RailSegment;
-import net.kolls.railworld.Train;
 import net.kolls.railworld.play.Trains;
-import net.kolls.railworld.play.script.Script;
 import net.kolls.railworld.play.script.ScriptManager;
-import net.kolls.railworld.segment.Signal;
-import net.kolls.railworld.segment.Switch;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -54,43 +48,23 @@ import org.w3c.dom.Element;
  *
  */
 public class RWGWriter {
-	private static int index(RailSegment[] lines, RailSegment r) {
-		for (int i = 0; i < lines.length; i++) {
-			if (lines[i] == r) return i;
-		}
-		
-	
-		return -1;
-	}
 	
-	private static Element buildData(Document d, SaveLoad s) {
-		Map<String, String> data = s.save();
-		
+	private static Element buildData(Document d, GameData.Block data) {
 		Element dt = d.createElement("Data");
-		dt.setAttribute("Type", s.toString());
-		if (data == null) return dt;
-		
-		Set<Entry<String,String>> kvps = data.entrySet();
+		dt.setAttribute("Type", data.type);
 		
-		
-		Iterator<Entry<String,String>> kvs = kvps.iterator();
-		
-		while (kvs.hasNext()) {
-			Element e;
-			Entry<String,String> kv = kvs.next();
-			e = d.createElement("Item");
+		for (Map.Entry<String,String> kv : data.items.entrySet()) {
+			Element e = d.createElement("Item");
 			
 			e.setAttribute("Key", kv.getKey());
-			//e.setAttribute("Value", kv.getValue());
 			e.setTextContent(kv.getValue());
 			dt.appendChild(e);
-			
 		}
 		
 		return dt;
 	}
 	
-	private static Document buildDom(RailSegment[] lines, Trains trs, ScriptManager sm, MetaData md) throws Exception {
+	private static Document buildDom(GameData g) throws ParserConfigurationException {
 		Document document;
 		
 			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
@@ -109,18 +83,18 @@ public class RWGWriter {
 
 		e = document.createElement("Meta");
 		
-		e.setAttribute("Elapsed", Long.toString(md.elapsed));
+		e.setAttribute("Elapsed", Long.toString(g.elapsed));
 		
 		q = document.createElement("Map");
 		
-		q.setAttribute("Name", md.ourFile.getName());
+		q.setAttribute("Name", g.map);
 		e.appendChild(q);
 		
 		q = document.createElement("Visual");
 		
-		q.setAttribute("Zoom", Double.toString(md.zoom));
-		q.setAttribute("CenterX", Double.toString(md.centerX));
-		q.setAttribute("CenterY", Double.toString(md.centerY));
+		q.setAttribute("Zoom", Double.toString(g.zoom));
+		q.setAttribute("CenterX", Double.toString(g.centerX));
+		q.setAttribute("CenterY", Double.toString(g.centerY));
 		
 		e.appendChild(q);
 		root.appendChild(e);
@@ -129,22 +103,20 @@ public class RWGWriter {
 		
 
 		e = document.createElement("Segments");
-		for (int j = 0; j < lines.length; j++) {
-			if (lines[j] instanceof Switch) {
+		// in the order of the segments in the map
+		TreeSet<Integer> ids = new TreeSet<Integer>(g.switches.keySet());
+		ids.addAll(g.signals.keySet());
+		for (int id : ids) {
+			if (g.switches.containsKey(id)) {
 				q = document.createElement("Switch");
-				q.setAttribute("ID", Integer.toString(j));
-				q.setAttribute("Flipped", ((Switch)lines[j]).flipped ? "Yes" : "No");
+				q.setAttribute("ID", Integer.toString(id));
+				q.setAttribute("Flipped", g.switches.get(id) ? "Yes" : "No");
 				e.appendChild(q);
 			}
-			if (lines[j] instanceof Signal) {
+			if (g.signals.containsKey(id)) {
 				q = document.createElement("Signal");
-				q.setAttribute("ID", Integer.toString(j));
-		
-				
-				q.appendChild(buildData( document, ((Signal)lines[j]).sp  ));
-				//q.setTextContent(Base64.encodeObject(((Signal)lines[j]).sp));
-				//q.appendChild(newChild)
-				
+				q.setAttribute("ID", Integer.toString(id));
+				q.appendChild(buildData(document, g.signals.get(id)));
 				e.appendChild(q);
 			}
 		}
@@ -153,77 +125,52 @@ public class RWGWriter {
 		
 		e = document.createElement("Trains");
 		
-		Iterator<Train> it = trs.iterator();
-		
-		try {
-			while (it.hasNext()) {
-				q = document.createElement("Train");
-				Train t = it.next();
-				q.setAttribute("Length", Integer.toString(t.array().length));
-				
-				
-				int rid = index(lines, t.pos.r);
-				int origid = index(lines, t.pos.orig);
-				
-				intr = document.createElement("Pos");
-				intr.setAttribute("RID", Integer.toString(rid));
-				intr.setAttribute("OrigID", Integer.toString(origid));
-				intr.setAttribute("Per", Double.toString(t.pos.per));
-				
-				q.appendChild(intr);
-				
-				intr = document.createElement("Control");
-				intr.setAttribute("Throttle", Integer.toString(t.getThrottle()));
-				intr.setAttribute("Brake", t.getBrake() ? "Yes" : "No");
-				intr.setAttribute("Velocity", Double.toString(t.vel()));
-				intr.setAttribute("Selected", trs.getSelectedTrain() == t ? "Yes" : "No");
-				
-				q.appendChild(intr);
+		for (GameData.TrainData t : g.trains) {
+			q = document.createElement("Train");
+			q.setAttribute("Length", Integer.toString(t.cars.length));
+			
+			intr = document.createElement("Pos");
+			intr.setAttribute("RID", Integer.toString(t.rid));
+			intr.setAttribute("OrigID", Integer.toString(t.origid));
+			intr.setAttribute("Per", Double.toString(t.per));
+			
+			q.appendChild(intr);
+			
+			intr = document.createElement("Control");
+			intr.setAttribute("Throttle", Integer.toString(t.throttle));
+			intr.setAttribute("Brake", t.brake ? "Yes" : "No");
+			intr.setAttribute("Velocity", Double.toString(t.vel));
+			intr.setAttribute("Selected", t.selected ? "Yes" : "No");
+			
+			q.appendChild(intr);
 
-				intr = document.createElement("Cars");
-				
-				
-				for (int i = 0; i < t.array().length; i++) {
-					cr = document.createElement("Car");
-					cr.setAttribute("ID", Integer.toString(i));
-					cr.setAttribute("Selected", trs.getSelectedCar() == t.array()[i] ? "Yes" : "No");
-					
-					cr.appendChild(buildData(document, t.array()[i]));
-					/*cr.setAttribute("Type", t.array()[i].show());
-					if (t.array()[i].isLoadable())
-						cr.setAttribute("Loaded", t.array()[i].loaded() ? "Yes" : "No");
-					
-					
-					*/
-					intr.appendChild(cr);
-				}
-				
-				q.appendChild(intr);
-				
-				
-				intr = document.createElement("Controller");
-				intr.appendChild(buildData( document, t.getController()  ));
-				//intr.setTextContent(Base64.encodeObject(t.getController()));
-				q.appendChild(intr);
-				
-				e.appendChild(q);
+			intr = document.createElement("Cars");
+			
+			for (int i = 0; i < t.cars.length; i++) {
+				cr = document.createElement("Car");
+				cr.setAttribute("ID", Integer.toString(i));
+				cr.setAttribute("Selected", t.cars[i].selected ? "Yes" : "No");
 				
+				cr.appendChild(buildData(document, t.cars[i].data));
+				intr.appendChild(cr);
 			}
-		} catch (ConcurrentModificationException ex) {
-			throw new Exception("Train list changed while attempting to save; try again.");
 			
+			q.appendChild(intr);
+			
+			
+			intr = document.createElement("Controller");
+			intr.appendChild(buildData(document, t.controller));
+			q.appendChild(intr);
+			
+			e.appendChild(q);
 		}
 		
 		root.appendChild(e);
 		
 		e = document.createElement("Scripts");
 		
-		Iterator<Script> si = sm.iterator();
-		while (si.hasNext()) {
-			Script s = si.next();
-			
+		for (GameData.Block s : g.scripts)
 			e.appendChild(buildData(document, s));
-		}
 		root.appendChild(e);
 		
 		return document;
@@ -244,9 +191,22 @@ public class RWGWriter {
 	
 	}
 
+	/**
+	 * Saves a game to a Rail World Game file, in the XML format.
+	 * 
+	 * @param g The game
+	 * @param f File to save to
+	 * @throws TransformerException If the file cannot be written.
+	 * @throws ParserConfigurationException If the XML DOM builder breaks.
+	 */
+	public static void write(GameData g, File f) throws TransformerException, ParserConfigurationException {
+		save(buildDom(g), f);
+	}
+	
 	/**
 	 * Saves the current game state (trains, dynamic track configuration, visual orientation)
-	 * to a Rail World Game file.
+	 * to a Rail World Game file.  If the file name ends in RWGB, the game is
+	 * saved in the binary format by {@link RWGBWriter}; otherwise it is saved as XML.
 	 * 
 	 * @param la Array of rail segments to find both position IDs and track settings
 	 * @param trs Trains to save
@@ -256,8 +216,12 @@ public class RWGWriter {
 	 * @throws Exception If save is unable to proceed, especially if trains is modified while saving
 	 */
 	public static void write(RailSegment[] la, Trains trs, ScriptManager sm, MetaData md, File f) throws Exception {
+		GameData g = GameData.capture(la, trs, sm, md);
 		
-		save(buildDom(la, trs, sm, md), f);
+		if (RWGBReader.isBinary(f))
+			RWGBWriter.write(g, f);
+		else
+			write(g, f);
 	}
 	
 }
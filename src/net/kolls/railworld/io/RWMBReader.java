@@ -0,0 +1,204 @@
+package net.kolls.railworld.io;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.awt.Color;
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.QuadCurve2D;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import net.kolls.railworld.Car;
+import net.kolls.railworld.Distance;
+import net.kolls.railworld.Factories;
+import net.kolls.railworld.RailSegment;
+import net.kolls.railworld.World;
+import net.kolls.railworld.segment.*;
+
+/**
+ * Reads maps in the binary RWMB format written by {@link RWMBWriter}.
+ * The file is mapped into memory and read in a single pass.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class RWMBReader {
+
+	// the most points any segment connects at
+	private static final int LINKS = 4;
+
+	private static RailSegment[] read(ByteBuffer data, MetaData md) throws IOException {
+		BinaryFormat.In in = new BinaryFormat.In(data, BinaryFormat.MAP_MAGIC, "RWMB");
+		ByteBuffer b = in.body();
+
+		try {
+			// MUST load Distance fpp before any segment is created,
+			// as their lengths are converted to feet when they are made
+			World.current().feetPerPixels = md.feetPerPixel = b.getDouble();
+			md.zoom = b.getDouble();
+			md.centerX = b.getInt();
+			md.centerY = b.getInt();
+			md.imgfile = in.str();
+			md.author = in.str();
+			md.title = in.str();
+			md.comment = in.str();
+
+			int n = b.getInt();
+			if (n < 0) throw new IOException("Corrupt segment count " + n);
+			RailSegment[] la = new RailSegment[n];
+
+			// segments may refer to later ones, so connect them at the end
+			int[] links = new int[n * LINKS];
+			Arrays.fill(links, -1);
+
+			for (int i = 0; i < n; i++) {
+				String type = in.str();
+				if (type == null) throw new IOException("Missing segment type");
+
+				if (type.equals("Label")) {
+					Point2D mp = point(b);
+					String value = in.str();
+					double angle = b.getDouble();
+					Distance size = new Distance(b.getDouble(), Distance.Measure.FEET);
+					Color c = new Color(b.getInt());
+					la[i] = new Label(value, size, c, mp, angle);
+					continue;
+				}
+
+				if (type.equals("Curve")) {
+					Point2D p1 = point(b), p2 = point(b), cp = point(b);
+					la[i] = new Curve(null, null, new QuadCurve2D.Double(p1.getX(), p1.getY(),
+							cp.getX(), cp.getY(),
+							p2.getX(), p2.getY()));
+					dests(b, links, i, 2);
+					continue;
+				}
+
+				if (type.equals("Switch")) {
+					la[i] = new Switch(null, null, null, point(b));
+					dests(b, links, i, 3);
+					continue;
+				}
+
+				if (type.equals("FourWay")) {
+					la[i] = new FourWay(null, null, null, null, point(b));
+					dests(b, links, i, 4);
+					continue;
+				}
+
+				Line2D myline = new Line2D.Double(point(b), point(b));
+				dests(b, links, i, 2);
+
+				if (type.equals("TrackSegment"))
+					la[i] = new TrackSegment(null, null, myline);
+				else if (type.equals("Crossing"))
+					la[i] = new Crossing(null, null, myline);
+				else if (type.equals("HiddenSegment"))
+					la[i] = new HiddenSegment(null, null, myline);
+				else if (type.equals("EESegment"))
+					la[i] = new EESegment(null, null, myline, in.str());
+				else if (type.equals("LUSegment") || type.equals("HiddenLUSegment")) {
+					boolean da = in.bool();
+					int nc = b.getInt();
+					if (nc < 0) throw new IOException("Corrupt car count " + nc);
+					Car[] cars = new Car[nc];
+					for (int j = 0; j < nc; j++) {
+						String cn = in.str();
+						try {
+							cars[j] = Factories.cars().createInstance(cn);
+						} catch (ClassNotFoundException e) {
+							throw new IOException("Unknown car type: "+cn);
+						}
+						// an accepted loaded car is to be unloaded, and vice versa
+						if (in.bool()) cars[j].load(); else cars[j].unload();
+					}
+
+					if (type.equals("HiddenLUSegment"))
+						la[i] = new HiddenLUSegment(null, null, myline, cars, da);
+					else
+						la[i] = new LUSegment(null, null, myline, cars, da);
+				} else
+					throw new IOException("Unknown segment type: "+type);
+			}
+
+			// every segment now exists, so connect them, in file order
+			for (int i = 0; i < n; i++) {
+				for (int p = 0; p < LINKS; p++) {
+					int to = links[i * LINKS + p];
+					if (to > -1)
+						la[i].setDest(p, true, la[to]);
+				}
+			}
+
+			return la;
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Truncated RWMB file");
+		}
+	}
+
+	private static Point2D point(ByteBuffer b) {
+		return new Point2D.Double(b.getDouble(), b.getDouble());
+	}
+
+	private static void dests(ByteBuffer b, int[] links, int i, int count) throws IOException {
+		int n = links.length / LINKS;
+		for (int p = 0; p < count; p++) {
+			int to = b.getInt();
+			if (to < -1 || to >= n) throw new IOException("Corrupt segment index " + to);
+			links[i * LINKS + p] = to;
+		}
+	}
+
+	/**
+	 * Reads from an RWMB URL and returns the rail segments.
+	 *
+	 * @param f URL of the RWMB file
+	 * @param toBeFilled An instance of {@link MetaData} to fill.
+	 * @return An array of {@link RailSegment} representing all segments.
+	 * @throws IOException If the URL cannot be read or is not a valid map.
+	 */
+	public static RailSegment[] read(URL f, MetaData toBeFilled) throws IOException {
+		RailSegment[] la = read(BinaryFormat.read(f), toBeFilled);
+
+		toBeFilled.ourFile = null;
+
+		return la;
+	}
+
+	/**
+	 * Reads from an RWMB file and returns the rail segments and updates the given metadata.
+	 *
+	 * @param f File of the RWMB file
+	 * @param toBeFilled An instance of {@link MetaData} to fill.
+	 * @return An array of {@link RailSegment} representing all segments.
+	 * @throws IOException If the file cannot be read or is not a valid map.
+	 */
+	public static RailSegment[] read(File f, MetaData toBeFilled) throws IOException {
+		RailSegment[] la = read(BinaryFormat.map(f), toBeFilled);
+
+		toBeFilled.ourFile = f;
+
+		return la;
+	}
+}
@@ -0,0 +1,152 @@
+package net.kolls.railworld.io;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.awt.geom.Point2D;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+import net.kolls.railworld.Car;
+import net.kolls.railworld.RailSegment;
+import net.kolls.railworld.segment.*;
+
+/**
+ * Writes a Rail World map in the compact binary RWMB format.  It holds
+ * the same map as an RWM file, and loads much faster.
+ * After the header and string table (see {@link BinaryFormat}), the body is:
+ * <ul>
+ * <li>the meta data: feet per pixel, zoom, center X and Y, and the image file, author, title and comment;
+ * <li>the number of segments;
+ * <li>for each segment, its type, its coordinates, the index of the segment
+ * at each of its points (-1 for none), and anything else of its type,
+ * such as an entrance's label or the cars a load/unload segment accepts.
+ * </ul>
+ *
+ * @author Rick Rutt
+ *
+ */
+public class RWMBWriter {
+
+	/**
+	 * Saves rail segments and associated metadata in the RWMB format.
+	 *
+	 * @param la Array of rail segments.
+	 * @param md MetaData to write.
+	 * @param f File to write to.
+	 * @throws IOException If the file cannot be written, or a segment cannot be stored in a map.
+	 */
+	public static void write(RailSegment[] la, MetaData md, File f) throws IOException {
+		BinaryFormat.Out out = new BinaryFormat.Out();
+		DataOutputStream b = out.body;
+
+		b.writeDouble(md.feetPerPixel);
+		b.writeDouble(md.zoom);
+		b.writeInt(md.centerX);
+		b.writeInt(md.centerY);
+		out.str(md.imgfile);
+		out.str(md.author);
+		out.str(md.title);
+		out.str(md.comment);
+
+		// like the XML, gaps are dropped
+		ArrayList<RailSegment> lines = new ArrayList<RailSegment>(la.length);
+		IdentityHashMap<RailSegment, Integer> index = new IdentityHashMap<RailSegment, Integer>();
+		for (RailSegment r : la) {
+			if (r == null) continue;
+			index.put(r, lines.size());
+			lines.add(r);
+		}
+
+		b.writeInt(lines.size());
+		for (RailSegment r : lines) {
+			out.str(r.getClass().getSimpleName());
+
+			if (r instanceof Label) {
+				Label lbl = (Label)r;
+				point(b, lbl.getPoint(0));
+				out.str(lbl.value);
+				b.writeDouble(lbl.angle);
+				b.writeDouble(lbl.size.feet());
+				b.writeInt(lbl.c.getRGB() & 0xffffff);
+				continue;
+			}
+
+			if (r instanceof Curve) {
+				point(b, r.getPoint(Curve.POINT_BEGIN));
+				point(b, r.getPoint(Curve.POINT_END));
+				point(b, r.getPoint(Curve.POINT_CP1));
+				dests(b, index, r, 2);
+				continue;
+			}
+
+			if (r instanceof TrackSegment) {
+				point(b, r.getPoint(TrackSegment.POINT_BEGIN));
+				point(b, r.getPoint(TrackSegment.POINT_END));
+				dests(b, index, r, 2);
+
+				if (r instanceof EESegment)
+					out.str(((EESegment)r).label);
+
+				if (r instanceof LUSegment) {
+					LUSegment l = (LUSegment)r;
+					Car[] lucars = l.lu();
+					b.writeBoolean(l.doesDrawAccept());
+					b.writeInt(lucars.length);
+					for (Car c : lucars) {
+						out.str(c.show());
+						b.writeBoolean(c.loaded());
+					}
+				}
+				continue;
+			}
+
+			if (r instanceof Switch) {
+				point(b, r.getPoint(0));
+				dests(b, index, r, 3);
+				continue;
+			}
+
+			if (r instanceof FourWay) {
+				point(b, r.getPoint(0));
+				dests(b, index, r, 4);
+				continue;
+			}
+
+			throw new IOException("Cannot save segment type: " + r.getClass().getSimpleName());
+		}
+
+		out.writeTo(BinaryFormat.MAP_MAGIC, f);
+	}
+
+	private static void point(DataOutputStream b, Point2D p) throws IOException {
+		b.writeDouble(p.getX());
+		b.writeDouble(p.getY());
+	}
+
+	// the segment at each point, in point constant order
+	private static void dests(DataOutputStream b, IdentityHashMap<RailSegment, Integer> index, RailSegment r, int n) throws IOException {
+		for (int p = 0; p < n; p++) {
+			Integer i = index.get(r.getDest(p));
+			b.writeInt(i == null ? -1 : i);
+		}
+	}
+}
@@ -38,14 +38,14 @@ public class RWMMapFilter extends FileFilter {
         }
 
         String u = f.getName().toUpperCase(); 
-        if (u.endsWith(".RWM")) return true;
+        if (u.endsWith(".RWM") || u.endsWith(".RWMB")) return true;
         
         return false;	
     }
 
 	@Override
 	public String getDescription() {
-		return "Rail World Maps (RWM)";
+		return "Rail World Maps (RWM, RWMB)";
 	}
 
 }
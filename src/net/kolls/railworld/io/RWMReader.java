@@ -23,24 +23,28 @@ import java.awt.Color;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.QuadCurve2D;
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.Vector;
+import java.util.Arrays;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import net.kolls.railworld.Car;
 import net.kolls.railworld.Distance;
 import net.kolls.railworld.Factories;
 import net.kolls.railworld.RailSegment;
+import net.kolls.railworld.World;
 import net.kolls.railworld.segment.*;
 
-import org.xml.sax.Attributes;
-import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
-import org.xml.sax.helpers.XMLReaderFactory;
-import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * Reads RWM (Rail World map) files in the XML format.
@@ -48,364 +52,347 @@ import org.xml.sax.helpers.DefaultHandler;
  * @author Steve Kollmansberger
  *
  */
-@SuppressWarnings("deprecation")
 public class RWMReader {
 	
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	private static XMLInputFactory factory;
+	
 	/**
-	 * The workhorse.  Uses SAX to parse the XML and construct the rail segments.
+	 * The workhorse.  Streams through the XML once, constructing the rail segments
+	 * as they are found.  Segments may refer to segments later in the file, so the
+	 * connections are only recorded, by ID, and made once the whole file is read.
 	 * 
 	 * @author Steve Kollmansberger
 	 *
 	 */
-	private static class XMLHandler extends DefaultHandler {
+	private static class StreamParser {
+		
+		// segments by ID
+		private RailSegment[] byId = new RailSegment[256];
+		private int maxId = -1;
+		
+		// for each segment with connections, in file order:
+		// its ID, and the IDs at each of its points (-1 for none)
+		private int[] linkSeg = new int[256];
+		private int[] linkTo = new int[256 * LINKS];
+		private int nlinks;
+		
+		private static final int LINKS = 4;
 		
-		private Vector<RailSegment> la = new Vector<RailSegment>();
-		private boolean expectSegment = true;
-		private boolean expectCars = false;
-		private boolean linkUp = false;
 		private String luType;
 		private Line2D luLine;
 		private int luIdx;
 		private boolean luDa;
-		private Vector<Car> cars;
+		private ArrayList<Car> cars;
 		private MetaData _tbf;
-		private boolean expectComment = false;
 		
+		private XMLStreamReader xr;
 		
-		@Override
-		public void characters(char [] c, int st, int length){
-			   
-				String str = new String(c, st, length);
-		       if(expectComment){
-		    	   	
-		            _tbf.comment += str;
-		            
-		       }
-
-		   }
+		/**
+		 * Constructor.
+		 * 
+		 * @param tbf Metadata to load
+		 */
+		public StreamParser(MetaData tbf) {
+			_tbf = tbf;
+		}
 		
-		@Override
-		public void startDocument ()
-	    {
-			
-	    }
-
-	    @Override
-		public void endDocument ()
-	    {
-	    	// what if last element is a lu?
-	    	// then it will not be commited
-	    	// check here
-	    	if (expectCars) commitLU();
-	    	
-	    	// if we completed the first phase, move to second
-	    	expectSegment = false;
-	    	linkUp = true;
-	    	
-	    }
-
-	    private void commitLU() {
-	    	expectCars = false;
+		private String att(String name) {
+			return xr.getAttributeValue(null, name);
+		}
+		
+		private double dbl(String name) {
+			return Double.parseDouble(att(name));
+		}
+		
+		private int id(String name) {
+			String v = att(name);
+			return v == null ? -1 : Integer.parseInt(v);
+		}
+		
+		private void put(int idx, RailSegment r) {
+			if (idx >= byId.length) byId = Arrays.copyOf(byId, Math.max(idx + 1, byId.length * 2));
+			byId[idx] = r;
+			if (idx > maxId) maxId = idx;
+		}
+		
+		// remember where a segment connects, to be made later
+		private void link(int idx, String... points) {
+			if (nlinks == linkSeg.length) {
+				linkSeg = Arrays.copyOf(linkSeg, nlinks * 2);
+				linkTo = Arrays.copyOf(linkTo, nlinks * 2 * LINKS);
+			}
+			linkSeg[nlinks] = idx;
+			for (int i = 0; i < LINKS; i++)
+				linkTo[nlinks * LINKS + i] = i < points.length ? id(points[i]) : -1;
+			nlinks++;
+		}
+		
+		// a connection to an ID which was never defined is left empty
+		private RailSegment seg(int idx) {
+			if (idx > maxId) return null;
+			return byId[idx];
+		}
+		
+		private void commitLU() {
 			if (luType.equals("HiddenLUSegment"))
-				la.add(luIdx, new HiddenLUSegment(null, null, luLine, cars.toArray(new Car[0]), luDa ));
+				put(luIdx, new HiddenLUSegment(null, null, luLine, cars.toArray(new Car[0]), luDa ));
 			else
-				la.add(luIdx, new LUSegment(null, null, luLine, cars.toArray(new Car[0]) , luDa ));
-	    }
-	    
-	    @Override
-		public void startElement (String uri, String name, String qName, Attributes atts) throws SAXException {
-	    	int idx, begin, end1, end2;
-	    	double x1,y1,x2,y2;
-	    	
-	    	if (qName.equals("RailMap")) {
-	    		if (atts.getValue("Version").equals("1.0") == false
-	    				&& atts.getValue("Version").equals("1.1") == false
-	    				&& atts.getValue("Version").equals("1.2") == false) throw new SAXException("Unsupported version: "+atts.getValue("Version"));
-	    	}
-	    	
-	    	
-	    	// handle meta elements anytime
-	    	if (qName.equals("Distance")) {
-	    		// MUST load Distance fpp because otherwise
-	    		// the tracksegments will be incorrect
-	    		// the pixels are converted into feet at "compile time" e.g. when it is loaded
-	    		Distance.feetPerPixels = _tbf.feetPerPixel = Double.parseDouble(atts.getValue("FeetPerPixel"));
-	    		
-	    		_tbf.zoom = Double.parseDouble(atts.getValue("Zoom"));
-	    		
-	    	}
-	    	
-	    	if (qName.equals("Center")) {
-	    		_tbf.centerX = Integer.parseInt(atts.getValue("X"));
-	    		_tbf.centerY = Integer.parseInt(atts.getValue("Y"));
-	    		
-	    	}
-	    	
-	    	if (qName.equals("Image")) {
-	    		_tbf.imgfile = atts.getValue("File");
-	    	}
-	    	
-	    	if (qName.equals("Map")) {
-	    		_tbf.author = atts.getValue("Author");
-	    		_tbf.title = atts.getValue("Title");
-	    		_tbf.comment = "";
-	    		
-	    		expectComment = true;
-	    		return;
-	    	}
-	    	
-	    	
-	    	
-	    	
-	    	if (expectCars) {
-	    		if (qName.equals("Load") || qName.equals("Unload")) {
-	    			Car c = null;
-	    			
-	    			String cn = atts.getValue("Type");
-	    			
-	    			try {
-	    				c = Factories.cars.createInstance(cn);	
-	    			} catch (ClassNotFoundException e) {
-	    				throw new SAXException("Unknown car type: "+cn);
-	    			}
-	    			
-	    			
-	    			
-	    			
-	    			// load means accepts unloaded, unload means accept loade
-	    			if (qName.equals("Load")) c.unload();
-	    			if (qName.equals("Unload")) c.load();
-	    			
-	    			cars.add(c);
-	    			
-	    			return;
-	    			
-	    			
-	    			
-	    		} else {
-	    			// not a car
-	    			// commit lu line
-	    			// and slide into expectsegment
-	    			commitLU();
-	    			
-	    		}
-	    	}
-	    	
-	    	if (expectSegment) {
-
-	    		if (atts.getValue("ID") == null) return;
-	    		
-	    		idx = Integer.parseInt(atts.getValue("ID"));
-	    		
-	    		if (idx > la.size()) la.setSize(idx);
-
+				put(luIdx, new LUSegment(null, null, luLine, cars.toArray(new Car[0]) , luDa ));
+			luType = null;
+		}
+		
+		/**
+		 * Read the whole document.
+		 * 
+		 * @param in The XML source
+		 * @throws SAXException If the document is not a valid map
+		 * @throws XMLStreamException If the XML cannot be parsed
+		 */
+		public void parse(InputStream in) throws SAXException, XMLStreamException {
+			xr = open(in);
+			boolean expectComment = false;
+			
+			try {
+				while (xr.hasNext()) {
+					switch (xr.next()) {
+					case XMLStreamConstants.START_ELEMENT:
+						expectComment = startElement(xr.getLocalName());
+						break;
+					case XMLStreamConstants.CHARACTERS:
+					case XMLStreamConstants.CDATA:
+						if (expectComment) _tbf.comment += xr.getText();
+						break;
+					case XMLStreamConstants.END_ELEMENT:
+						expectComment = false;
+						// the cars have all been read
+						if (luType != null && xr.getLocalName().equals(luType)) commitLU();
+						break;
+					}
+				}
+			} finally {
+				xr.close();
+			}
+			
+			linkUp();
+		}
+		
+		// returns true if the element's text is the map comment
+		private boolean startElement(String qName) throws SAXException {
+			int idx;
+			double x1,y1,x2,y2;
+			
+			if (qName.equals("RailMap")) {
+				String v = att("Version");
+				if ("1.0".equals(v) == false
+						&& "1.1".equals(v) == false
+						&& "1.2".equals(v) == false) throw new SAXException("Unsupported version: "+v);
+			}
+			
+			
+			// handle meta elements anytime
+			if (qName.equals("Distance")) {
+				// MUST load Distance fpp because otherwise
+				// the tracksegments will be incorrect
+				// the pixels are converted into feet at "compile time" e.g. when it is loaded
+				World.current().feetPerPixels = _tbf.feetPerPixel = dbl("FeetPerPixel");
 				
-	    		
-	    		if (qName.equals("TrackSegment") || qName.equals("EESegment") ||
-	    				qName.equals("HiddenSegment") || qName.equals("LUSegment") ||
-	    				qName.equals("HiddenLUSegment") || qName.equals("Crossing")) {
-	    			x1 = Double.parseDouble(atts.getValue("X1"));
-	    			y1 = Double.parseDouble(atts.getValue("Y1"));
-	    			x2 = Double.parseDouble(atts.getValue("X2"));
-	    			y2 = Double.parseDouble(atts.getValue("Y2"));
-	    			
-	    			Line2D myline = new Line2D.Double(x1,y1,x2,y2);
-	    			
-	    			if (qName.equals("TrackSegment"))
-	    				la.add(idx, new TrackSegment(null, null, myline));
-	    			
-	    			if (qName.equals("Crossing"))
-	    				la.add(idx, new Crossing(null, null, myline));
-	    			
-	    			if (qName.equals("HiddenSegment"))
-    					la.add(idx, new HiddenSegment(null, null, myline));
-	    			
-	    			if (qName.equals("EESegment")) {
-	    				String lbl = atts.getValue("Label");
-    					la.add(idx, new EESegment(null, null, myline, lbl));
-	    			}
-	    			
-	    			if (qName.equals("LUSegment") || qName.equals("HiddenLUSegment")) {
-	    				luType = qName;
-	    				luIdx = idx;
-	    				expectCars = true;
-	    				luLine = myline;
-	    				cars = new Vector<Car>();
-	    				
-	    				luDa = atts.getValue("DrawAccept").equals("Yes");
-	    				
-	    				// segment will be instantiated after cars are loaded
-	    			}
-	    			
-	    			return;
-	    		}
-	    		
-	    		if (qName.equals("Curve")) {
-	    			x1 = Double.parseDouble(atts.getValue("X1"));
-	    			y1 = Double.parseDouble(atts.getValue("Y1"));
-	    			x2 = Double.parseDouble(atts.getValue("X2"));
-	    			y2 = Double.parseDouble(atts.getValue("Y2"));
-	    			double cx1,cy1;
-	    			cx1 = Double.parseDouble(atts.getValue("CX1"));
-	    			cy1 = Double.parseDouble(atts.getValue("CY1"));
-	    			
-	    			la.add(idx, new Curve(null, null, new QuadCurve2D.Double(x1, y1,
-	    					cx1, cy1,
-	    					//cx2, cy2,
-	    					x2, y2)));
-	    			
-	    			return;
-	    			
-	    		}
-	    		
-	    		if (qName.equals("Switch")) { 			
-	    			x1 = Double.parseDouble(atts.getValue("X"));
-	    			y1 = Double.parseDouble(atts.getValue("Y"));
-	    			
-	    			Point2D mp = new Point2D.Double(x1,y1);
-	    			
-	    			la.add(idx, new Switch(null, null, null, mp));
-	    			return;
-	    		}
-	    		
-	    		if (qName.equals("FourWay")) { 			
-	    			x1 = Double.parseDouble(atts.getValue("X"));
-	    			y1 = Double.parseDouble(atts.getValue("Y"));
-	    			
-	    			Point2D mp = new Point2D.Double(x1,y1);
-	    			
-	    			la.add(idx, new FourWay(null, null, null, null, mp));
-	    			return;
-	    		}
-	    		
-	    		if (qName.equals("Label")) {
-	    			x1 = Double.parseDouble(atts.getValue("X"));
-	    			y1 = Double.parseDouble(atts.getValue("Y"));
-	    			
-	    			Point2D mp = new Point2D.Double(x1,y1);
-	    			
-	    			double angle = Double.parseDouble(atts.getValue("Angle"));
-	    			String value = atts.getValue("Label");
-	    			Distance size = new Distance(Double.parseDouble(atts.getValue("Size")), Distance.Measure.FEET);
-	    			Color c = new Color(Integer.parseInt(atts.getValue("Red")),
-	    					Integer.parseInt(atts.getValue("Green")),
-	    					Integer.parseInt(atts.getValue("Blue")));
-	    			
-	    			
-	    			
-	    			
-	    			la.add(idx, new Label(value, size, c, mp, angle));
-	    			return;
-	    			
-	    		}
-	    		
-	    		throw new SAXException("Unknown segment type: "+qName);
-
-	    		
-	    		
-	    	}
-	    	
-	    	if (linkUp) {
-	    		// second phase
-	    		
-	    		
-	    		if (qName.equals("TrackSegment") || qName.equals("EESegment") ||
-	    				qName.equals("HiddenSegment") || qName.equals("LUSegment") ||
-	    				qName.equals("HiddenLUSegment") || qName.equals("Crossing") ||
-	    				qName.equals("Curve")) {
-	    			
-	    			idx = Integer.parseInt(atts.getValue("ID"));
-	    			begin = Integer.parseInt(atts.getValue("Begin"));
-	    			end1 = Integer.parseInt(atts.getValue("End"));
-	    			
-	    			RailSegment r = la.get(idx);
-	    			
-	    			if (begin > -1)
-	    				r.setDest(TrackSegment.POINT_BEGIN, true, la.get(begin));
-	    			if (end1 > -1)
-	    				r.setDest(TrackSegment.POINT_END, true, la.get(end1));
-	    			
-	    			
-	    		
-	    			return;
-	    		}
-	    		
-	    		if (qName.equals("Switch")) { 			
-	    		
-	    			idx = Integer.parseInt(atts.getValue("ID"));
-	    			begin = Integer.parseInt(atts.getValue("Begin"));
-	    			end1 = Integer.parseInt(atts.getValue("End1"));
-	    			end2 = Integer.parseInt(atts.getValue("End2"));
-	    			
-	    			RailSegment r = la.get(idx);
-	    			
-	    			if (begin > -1)
-	    				((Switch)r).setDest(Switch.POINT_BEGIN, true, la.get(begin));
-	    			if (end1 > -1)
-	    				((Switch)r).setDest(Switch.POINT_END1, true, la.get(end1));
-	    			if (end2 > -1)
-	    				((Switch)r).setDest(Switch.POINT_END2, true, la.get(end2));
-	    			return;
-	    		}
-	    		
-	    		if (qName.equals("FourWay")) { 			
-		    		
-	    			idx = Integer.parseInt(atts.getValue("ID"));
-	    			int begina = Integer.parseInt(atts.getValue("BeginA"));
-	    			int beginb = Integer.parseInt(atts.getValue("BeginB"));
-	    			int enda = Integer.parseInt(atts.getValue("EndA"));
-	    			int endb = Integer.parseInt(atts.getValue("EndB"));
-	    			
-	    			RailSegment r = la.get(idx);
-	    			
-	    			if (begina > -1)
-	    				((FourWay)r).setDest(FourWay.POINT_BEGINA, true, la.get(begina));
-	    			if (beginb > -1)
-	    				((FourWay)r).setDest(FourWay.POINT_BEGINB, true, la.get(beginb));
-	    			
-	    			if (enda > -1)
-	    				((FourWay)r).setDest(FourWay.POINT_ENDA, true, la.get(enda));
-	    			if (endb > -1)
-	    				((FourWay)r).setDest(FourWay.POINT_ENDB, true, la.get(endb));
-	    			
-	    			return;
-	    		}
-	    	}
-	    	
-	    }
-
-	    @Override
-		public void endElement (String uri, String name, String qName) { expectComment = false; }
-
-	    /**
-	     * 
-	     * @return Convert the rail segments into an array without nulls
-	     */
-	    public RailSegment[] lines() {
-	    	ArrayList<RailSegment> cmp = new ArrayList<RailSegment>();
-	    	
-	    	for (RailSegment r : la) 
-	    		if (r != null) cmp.add(r);
-	    		
-	    	return cmp.toArray(new RailSegment[0]);
-	    	
-	    	
-	    	
-	    }
+				_tbf.zoom = dbl("Zoom");
+				
+			}
+			
+			if (qName.equals("Center")) {
+				_tbf.centerX = Integer.parseInt(att("X"));
+				_tbf.centerY = Integer.parseInt(att("Y"));
+				
+			}
+			
+			if (qName.equals("Image")) {
+				_tbf.imgfile = att("File");
+			}
+			
+			if (qName.equals("Map")) {
+				_tbf.author = att("Author");
+				_tbf.title = att("Title");
+				_tbf.comment = "";
+				
+				return true;
+			}
+			
+			
+			if (luType != null) {
+				if (qName.equals("Load") || qName.equals("Unload")) {
+					Car c = null;
+					
+					String cn = att("Type");
+					
+					try {
+						c = Factories.cars().createInstance(cn);	
+					} catch (ClassNotFoundException e) {
+						throw new SAXException("Unknown car type: "+cn);
+					}
+					
+					// load means accepts unloaded, unload means accept loade
+					if (qName.equals("Load")) c.unload();
+					if (qName.equals("Unload")) c.load();
+					
+					cars.add(c);
+					
+					return false;
+				}
+				
+				// not a car, so the lu line is done
+				commitLU();
+			}
+			
+			if (att("ID") == null) return false;
+			
+			idx = Integer.parseInt(att("ID"));
+			
+			
+			if (qName.equals("TrackSegment") || qName.equals("EESegment") ||
+					qName.equals("HiddenSegment") || qName.equals("LUSegment") ||
+					qName.equals("HiddenLUSegment") || qName.equals("Crossing")) {
+				x1 = dbl("X1");
+				y1 = dbl("Y1");
+				x2 = dbl("X2");
+				y2 = dbl("Y2");
+				
+				Line2D myline = new Line2D.Double(x1,y1,x2,y2);
+				
+				if (qName.equals("TrackSegment"))
+					put(idx, new TrackSegment(null, null, myline));
+				
+				if (qName.equals("Crossing"))
+					put(idx, new Crossing(null, null, myline));
+				
+				if (qName.equals("HiddenSegment"))
+					put(idx, new HiddenSegment(null, null, myline));
+				
+				if (qName.equals("EESegment"))
+					put(idx, new EESegment(null, null, myline, att("Label")));
+				
+				if (qName.equals("LUSegment") || qName.equals("HiddenLUSegment")) {
+					luType = qName;
+					luIdx = idx;
+					luLine = myline;
+					cars = new ArrayList<Car>();
+					
+					luDa = att("DrawAccept").equals("Yes");
+					
+					// segment will be instantiated after cars are loaded
+				}
+				
+				link(idx, "Begin", "End");
+				return false;
+			}
+			
+			if (qName.equals("Curve")) {
+				x1 = dbl("X1");
+				y1 = dbl("Y1");
+				x2 = dbl("X2");
+				y2 = dbl("Y2");
+				double cx1,cy1;
+				cx1 = dbl("CX1");
+				cy1 = dbl("CY1");
+				
+				put(idx, new Curve(null, null, new QuadCurve2D.Double(x1, y1,
+						cx1, cy1,
+						x2, y2)));
+				
+				link(idx, "Begin", "End");
+				return false;
+			}
+			
+			if (qName.equals("Switch")) {
+				Point2D mp = new Point2D.Double(dbl("X"), dbl("Y"));
+				
+				put(idx, new Switch(null, null, null, mp));
+				link(idx, "Begin", "End1", "End2");
+				return false;
+			}
+			
+			if (qName.equals("FourWay")) {
+				Point2D mp = new Point2D.Double(dbl("X"), dbl("Y"));
+				
+				put(idx, new FourWay(null, null, null, null, mp));
+				// in the order of the FourWay point constants
+				link(idx, "BeginA", "EndA", "BeginB", "EndB");
+				return false;
+			}
+			
+			if (qName.equals("Label")) {
+				Point2D mp = new Point2D.Double(dbl("X"), dbl("Y"));
+				
+				double angle = dbl("Angle");
+				String value = att("Label");
+				Distance size = new Distance(dbl("Size"), Distance.Measure.FEET);
+				Color c = new Color(Integer.parseInt(att("Red")),
+						Integer.parseInt(att("Green")),
+						Integer.parseInt(att("Blue")));
+				
+				put(idx, new Label(value, size, c, mp, angle));
+				return false;
+			}
+			
+			throw new SAXException("Unknown segment type: "+qName);
+		}
 		
-	    /**
-	     * Constructor.
-	     * 
-	     * @param tbf Metadata to load
-	     */
-		public XMLHandler(MetaData tbf) {
-			super();
-			_tbf = tbf;
+		// every segment now exists, so connect them, in file order
+		private void linkUp() {
+			for (int i = 0; i < nlinks; i++) {
+				RailSegment r = seg(linkSeg[i]);
+				
+				for (int p = 0; p < LINKS; p++) {
+					int to = linkTo[i * LINKS + p];
+					if (to > -1)
+						r.setDest(p, true, seg(to));
+				}
+			}
 		}
+		
+		/**
+		 * 
+		 * @return Convert the rail segments into an array without nulls
+		 */
+		public RailSegment[] lines() {
+			ArrayList<RailSegment> cmp = new ArrayList<RailSegment>(maxId + 1);
+			
+			for (int i = 0; i <= maxId; i++) 
+				if (byId[i] != null) cmp.add(byId[i]);
+			
+			return cmp.toArray(new RailSegment[0]);
+		}
+	}
+	
+	// the factory is shared, and need not be safe to use from several threads at once
+	private static synchronized XMLStreamReader open(InputStream in) throws XMLStreamException {
+		if (factory == null) {
+			factory = XMLInputFactory.newInstance();
+			// maps never need outside entities
+			factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+			factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		}
+		return factory.createXMLStreamReader(in);
+	}
+	
+	private static RailSegment[] read(InputStream in, MetaData toBeFilled) throws SAXException, IOException {
+		StreamParser parser = new StreamParser(toBeFilled);
+		
+		try {
+			parser.parse(new BufferedInputStream(in, BUFFER_SIZE));
+		} catch (XMLStreamException e) {
+			throw new SAXException(e);
+		} finally {
+			in.close();
+		}
+		
+		return parser.lines();
 	}
 	
 	/**
-	 * Reads from an RWM file and returns the rail segments.  Uses two passes.
+	 * Reads from an RWM file and returns the rail segments.  The URL is only read once.
 	 * 
 	 * @param f URL of the RWM file
 	 * @param toBeFilled An instance of {@link MetaData} to fill.
@@ -415,37 +402,16 @@ public class RWMReader {
 	 */
 	public static RailSegment[] read(URL f, MetaData toBeFilled) throws SAXException, IOException {
 		
-			org.xml.sax.XMLReader xr = XMLReaderFactory.createXMLReader();
-			
-			XMLHandler handler = new XMLHandler(toBeFilled);
-			
-			xr.setContentHandler(handler);
-			xr.setErrorHandler(handler);
-			
-
-		    
-		    xr.parse(new InputSource(f.openStream()));
-
-		    // phase 2
-		    
-		    xr.parse(new InputSource(f.openStream()));
-		    
-		    
-		    
-		    RailSegment[] la = handler.lines();
-		    
-		    toBeFilled.ourFile = null;
-		    
-		    return la;
-		    
-		    
-			
-			
-			
+		RailSegment[] la = read(f.openStream(), toBeFilled);
+		
+		toBeFilled.ourFile = null;
+		
+		return la;
 	}
 	
 	/**
-	 * Reads from an RWM file and returns the rail segments and updates the given metadata.  Uses two passes.
+	 * Reads from an RWM file and returns the rail segments and updates the given metadata.
+	 * The file is only read once.
 	 * 
 	 * @param f File of the RWM file
 	 * @param toBeFilled An instance of {@link MetaData} to fill.
@@ -455,31 +421,10 @@ public class RWMReader {
 	 */
 	public static RailSegment[] read(File f, MetaData toBeFilled) throws SAXException, IOException {
 		
-		org.xml.sax.XMLReader xr = XMLReaderFactory.createXMLReader();
-		
-		XMLHandler handler = new XMLHandler(toBeFilled);
+		RailSegment[] la = read(new FileInputStream(f), toBeFilled);
 		
-		xr.setContentHandler(handler);
-		xr.setErrorHandler(handler);
+		toBeFilled.ourFile = f;
 		
-
-	    FileReader r = new FileReader(f);
-	    xr.parse(new InputSource(r));
-
-	    // phase 2
-	    r = new FileReader(f);
-	    xr.parse(new InputSource(r));
-	    
-	    
-	    
-	    RailSegment[] la = handler.lines();
-	    
-	    toBeFilled.ourFile = f;
-	    
-	    return la;
-	    
+		return la;
 	}
-    
-	
-
 }
@@ -99,13 +99,14 @@ public class TRNWriter {
 		
 		
 		
-		for (int i = 0; i < t.array().length; i++) {
+		Consist cs = t.consist();
+		for (int i = 0; i < cs.size(); i++) {
 			nl();
 			writeLine("[CarID=" + (i+1) + "]");
 			writeLine("CarID=" + (i+1));
 			writeLine("CarName=");
-			Car c = t.array()[i];
-			if (c.isEngine()) {
+			Car c = cs.car(i);
+			if (cs.engine(i)) {
 				writeLine("TypeGroup=E:4400:70:400000");
 				writeLine("TypeID=1:&HAFAFAF:&HA00000:&H80FFFF");
 			} else if (c instanceof Caboose) {
@@ -123,11 +124,10 @@ public class TRNWriter {
 			writeLine("EmailAddress=");
 			
 			
-			if (c.isLoadable()) {
-				if (c.loaded()) writeLine("IsLoaded=7"); else writeLine("IsLoaded=6");
-			} else {
+			if (cs.loadable(i) && cs.loaded(i))
+				writeLine("IsLoaded=7");
+			else
 				writeLine("IsLoaded=6");
-			}
 		}
 		
 		nl();
@@ -159,8 +159,8 @@ public class YardReader {
 		toBeFilled.imgfile = f.getName().substring(0, f.getName().length() - 3) + "jpg"; // same file name, different ext
 		toBeFilled.ourFile = f;
 //		 set default distances
-		Distance.feetPerPixels = 3.0;
-		RailCanvas.zoom = 1.0;
+		World.current().feetPerPixels = 3.0;
+		World.current().zoom = 1.0;
 		
 		
 	
@@ -41,9 +41,8 @@ import javax.swing.SwingConstants;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
-import net.kolls.railworld.Distance;
 import net.kolls.railworld.Images;
-import net.kolls.railworld.RailCanvas;
+import net.kolls.railworld.World;
 import net.kolls.railworld.play.PlayFrame;
 import net.kolls.railworld.play.script.ScriptManager;
 
@@ -241,8 +240,8 @@ public class Applet extends JApplet implements Runnable {
 		        		
 		        		b.setText("Starting Game");
 		        
-		        		Distance.feetPerPixels = mymap.getMetaData().feetPerPixel;
-		        		RailCanvas.zoom = mymap.getMetaData().zoom;
+		        		World.current().feetPerPixels = mymap.getMetaData().feetPerPixel;
+		        		World.current().zoom = mymap.getMetaData().zoom;
 
 		        		ScriptManager scripts;
 		        		
@@ -13,6 +13,7 @@ import javax.swing.JPanel;
 
 import net.kolls.railworld.RailSegment;
 import net.kolls.railworld.io.MetaData;
+import net.kolls.railworld.io.RWMBReader;
 import net.kolls.railworld.io.RWMMapFilter;
 import net.kolls.railworld.io.RWMReader;
 import net.kolls.railworld.io.YardMapFilter;
@@ -178,7 +179,7 @@ public abstract class MapLoader {
 	 * Loads the map from the given file.   The map image must be in the same directory.
 	 * 
 	 * @param file The file containing a compatible map to load, either in Rail World 
-	 * or Yard Duty format.
+	 * (XML or binary) or Yard Duty format.
 	 * @return The map loader containing the file data.
 	 * @throws IOException If the map cannot be loaded.
 	 * @throws SAXException If the map cannot be parsed.
@@ -198,6 +199,10 @@ public abstract class MapLoader {
 				la = RWMReader.read(file, md);
 				
 			}
+			if (u.endsWith(".RWMB")) {
+				// the compact binary format
+				la = RWMBReader.read(file, md);
+			}
 			if (u.endsWith(".YRD")) {
 				// Yard duty format
 				la = YardReader.read(file, md);
@@ -259,6 +264,10 @@ public abstract class MapLoader {
 				la = RWMReader.read(url, md);
 				
 			}
+			if (u.endsWith(".RWMB")) {
+				// the compact binary format
+				la = RWMBReader.read(url, md);
+			}
 			if (u.endsWith(".YRD")) {
 				// Yard duty format
 				// la = YardReader.read(url, md);
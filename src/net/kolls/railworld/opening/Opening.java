@@ -46,10 +46,10 @@ import javax.swing.event.ChangeListener;
 import net.kolls.railworld.Distance;
 import net.kolls.railworld.Factories;
 import net.kolls.railworld.Images;
-import net.kolls.railworld.RailCanvas;
 import net.kolls.railworld.RailFrame;
 import net.kolls.railworld.RailSegment;
 import net.kolls.railworld.YesNoCancel;
+import net.kolls.railworld.World;
 import net.kolls.railworld.edit.EditFrame;
 import net.kolls.railworld.io.ImageFilter;
 import net.kolls.railworld.io.MetaData;
@@ -193,10 +193,10 @@ public class Opening extends JFrame implements ActionListener {
 				    md.ourFile = file.getParentFile(); // the directory, gives a default save point
 				        
 
-				    Distance.feetPerPixels = md.feetPerPixel;
+				    World.current().feetPerPixels = md.feetPerPixel;
 				    // The "ideal size" is 3 ft/px.  We want to present the default zoom at that size.
 
-				    RailCanvas.zoom = Distance.getDefaultZoom(); 
+				    World.current().zoom = Distance.getDefaultZoom(); 
 						
 					final BufferedImage fbi = bi;
 					final MetaData fmd = md;
@@ -451,8 +451,8 @@ public class Opening extends JFrame implements ActionListener {
 		}
 		
 		// 5. set the scale and zoom
-		RailCanvas.zoom = mi.getMetaData().zoom;
-		Distance.feetPerPixels = mi.getMetaData().feetPerPixel;
+		World.current().zoom = mi.getMetaData().zoom;
+		World.current().feetPerPixels = mi.getMetaData().feetPerPixel;
 		
 		// 6. create the frame
 		RailFrame frame = null;
@@ -39,6 +39,7 @@ import javax.swing.JPanel;
 
 import net.kolls.railworld.Images;
 import net.kolls.railworld.Sounds;
+import net.kolls.railworld.World;
 import net.kolls.railworld.Sounds.SoundSystem;
 
 /**
@@ -188,7 +189,7 @@ public class Options extends JDialog implements ActionListener {
 		fps = new JComboBox(new String[] {"Auto", "5", "10", "15", "20", "25"});
 		fps.setEditable(true);
 		fps.setSelectedItem(getFPS() == 0 ? "Auto" : getFPS());
-		fps.setToolTipText("Frames per second the game should attempt to run.  Generally should be left on Auto");
+		fps.setToolTipText("Simulation steps per second; the display is painted as often as the screen refreshes.  Generally should be left on Auto");
 		s.addLabeledControl("Target FPS", fps);
 		
 		
@@ -274,6 +275,7 @@ public class Options extends JDialog implements ActionListener {
 		if (currss != newss) {
 			Sounds s = new Sounds();
 			s.loadSounds(null, getSoundSystem());
+			World.current().setSounds(s);
 		}
 		setVisible(false);
 		
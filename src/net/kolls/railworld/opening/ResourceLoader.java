@@ -26,6 +26,7 @@ import javax.swing.JProgressBar;
 import net.kolls.railworld.Factories;
 import net.kolls.railworld.Images;
 import net.kolls.railworld.Sounds;
+import net.kolls.railworld.World;
 
 /**
  * Loads basic resources, such as images, sounds, and icons.
@@ -100,6 +101,7 @@ public class ResourceLoader extends JProgressBar implements Runnable {
 		
         Sounds s = new Sounds();
         s.loadSounds(this, Options.getSoundSystem());
+        World.current().setSounds(s);
         
         // before maps can be loaded, the factories must be initialized
         Factories.init();
@@ -0,0 +1,146 @@
+package net.kolls.railworld.play;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import net.kolls.railworld.CLoc;
+import net.kolls.railworld.RailSegment;
+import net.kolls.railworld.Train;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Files the ends of every train by the segment they are on, so that
+ * {@link Trains#step()} only has to compare a train against the few
+ * trains which end on the segments just ahead of it.  Both the head and the tail
+ * are filed, so a train is found even when it does not occupy the segment
+ * the other train is on, such as when it sits right on a segment boundary.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class CollisionIndex {
+
+	// trains with an end on each segment
+	private HashMap<RailSegment, ArrayList<Train>> ends;
+
+	// where each train was filed, head then tail
+	private HashMap<Train, RailSegment[]> filed;
+
+	private ArrayList<ArrayList<Train>> spare;
+
+	/**
+	 * Create an empty index.
+	 */
+	public CollisionIndex() {
+		ends = new HashMap<RailSegment, ArrayList<Train>>();
+		filed = new HashMap<Train, RailSegment[]>();
+		spare = new ArrayList<ArrayList<Train>>();
+	}
+
+	/**
+	 * Remove all trains.
+	 */
+	public void clear() {
+		for (ArrayList<Train> l : ends.values()) {
+			l.clear();
+			spare.add(l);
+		}
+		ends.clear();
+		filed.clear();
+	}
+
+	private void file(RailSegment r, Train t) {
+		if (r == null) return;
+		ArrayList<Train> l = ends.get(r);
+		if (l == null) {
+			l = spare.isEmpty() ? new ArrayList<Train>() : spare.remove(spare.size() - 1);
+			ends.put(r, l);
+		}
+		if (!l.contains(t)) l.add(t);
+	}
+
+	private void unfile(RailSegment r, Train t) {
+		if (r == null) return;
+		ArrayList<Train> l = ends.get(r);
+		if (l == null) return;
+		l.remove(t);
+		if (l.isEmpty()) {
+			ends.remove(r);
+			spare.add(l);
+		}
+	}
+
+	/**
+	 * File a train under the segments holding its head and its tail.
+	 * If the train was already filed, it is moved.
+	 *
+	 * @param t The train
+	 */
+	public void add(Train t) {
+		CLoc tail = t.geometry().tail();
+		add(t, t.pos.r, tail == null ? null : tail.r);
+	}
+
+	// file a train where its ends were, rather than where they are
+	void add(Train t, RailSegment head, RailSegment tail) {
+		remove(t);
+
+		RailSegment[] rs = new RailSegment[] { head, tail };
+		file(rs[0], t);
+		file(rs[1], t);
+		filed.put(t, rs);
+	}
+
+	/**
+	 * Take a train out of the index.
+	 *
+	 * @param t The train
+	 */
+	public void remove(Train t) {
+		RailSegment[] rs = filed.remove(t);
+		if (rs == null) return;
+		unfile(rs[0], t);
+		unfile(rs[1], t);
+	}
+
+	/**
+	 * Find the trains with an end on either of two segments.
+	 *
+	 * @param a The first segment
+	 * @param b The second segment, which may be the same as the first
+	 * @param self A train to leave out, usually the one asking
+	 * @param out Receives the trains, each once
+	 */
+	public void near(RailSegment a, RailSegment b, Train self, List<Train> out) {
+		out.clear();
+		collect(a, self, out);
+		if (b != a) collect(b, self, out);
+	}
+
+	private void collect(RailSegment r, Train self, List<Train> out) {
+		ArrayList<Train> l = ends.get(r);
+		if (l == null) return;
+		for (int i = 0; i < l.size(); i++) {
+			Train t = l.get(i);
+			if (t != self && !out.contains(t)) out.add(t);
+		}
+	}
+}
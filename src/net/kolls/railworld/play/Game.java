@@ -0,0 +1,123 @@
+package net.kolls.railworld.play;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.awt.event.ActionListener;
+
+import net.kolls.railworld.RailSegment;
+import net.kolls.railworld.Train;
+import net.kolls.railworld.play.script.ScriptManager;
+
+/**
+ * A game in progress, as seen by the scripts.  A game is either played in a
+ * {@link PlayFrame} or simulated without a display by a {@link HeadlessGame}.
+ *
+ * @author Rick Rutt
+ *
+ */
+public interface Game {
+
+	/**
+	 *
+	 * @return The rail segments of the map, including signals
+	 */
+	RailSegment[] segments();
+
+	/**
+	 *
+	 * @return The trains on the map
+	 */
+	Trains trains();
+
+	/**
+	 *
+	 * @return The scripts in use
+	 */
+	ScriptManager scripts();
+
+	/**
+	 *
+	 * @return Milliseconds of playtime that have elapsed
+	 */
+	long elapsed();
+
+	/**
+	 * Set the playtime elapsed, as when resuming a saved game.
+	 *
+	 * @param ms Milliseconds of playtime
+	 */
+	void setElapsed(long ms);
+
+	/**
+	 * Center the display on a point of the map, if there is a display.
+	 *
+	 * @param x The x coordinate, in map pixels
+	 * @param y The y coordinate, in map pixels
+	 */
+	void center(int x, int y);
+
+	/**
+	 * Run some commands inside the game loop.  Given command will be run
+	 * at the beginning of the next step.  This ensures appropriate
+	 * synchronization with train activity.
+	 *
+	 * @param r The commands to run.
+	 */
+	void runInLoop(Runnable r);
+
+	/**
+	 * Add a train.  The train adding occurs in the game loop.
+	 *
+	 * @param t The train to add
+	 * @param select Whether or not to select the train
+	 */
+	void addTrain(Train t, boolean select);
+
+	/**
+	 * Remove a train.  The train is removed at the beginning of the game loop.
+	 *
+	 * @param t The train to remove.
+	 */
+	void removeTrain(Train t);
+
+	/**
+	 * Immediately quits the game.  If a score is specified,
+	 * and a mission is in progress, this score may be recorded
+	 * as a high score.
+	 *
+	 * @param score Optional, the player's final score
+	 */
+	void stop(Integer score);
+
+	/**
+	 * Removes the controls for adding and changing trains, as missions
+	 * provide their own trains.
+	 *
+	 * @param mcact Optional, a listener for the mission control button
+	 */
+	void hideTrainButtons(ActionListener mcact);
+
+	/**
+	 * Tell the player something, such as how a mission ended.
+	 *
+	 * @param title The title of the message
+	 * @param text The message
+	 */
+	void message(String title, String text);
+}
@@ -0,0 +1,213 @@
+package net.kolls.railworld.play;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.event.ActionListener;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.kolls.railworld.RailSegment;
+import net.kolls.railworld.Train;
+import net.kolls.railworld.World;
+import net.kolls.railworld.play.script.ScriptManager;
+import net.kolls.railworld.segment.Signal;
+
+/**
+ * A game simulated without a display, as fast as it can be stepped.
+ * The map is prepared as a {@link PlayFrame} would, and the scripts
+ * see the same {@link Game}, so missions may be played out unattended.
+ * <p>
+ * Several scripts keep time or check on the mission as they are drawn,
+ * so after each step the draw listeners are called as a display would,
+ * onto a small scratch image.
+ * <p>
+ * The trains in an accident are taken off the map at the start of the next
+ * step, so the simulation can go on; the mission, if any, is told of the accident
+ * as usual.  Messages to the player are kept rather than shown.
+ * <p>
+ * The game works in the {@link World} current when it is created.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class HeadlessGame implements Game {
+
+	private RailSegment[] la;
+	private Trains trains;
+	private ScriptManager sm;
+	private SimulationEngine engine;
+
+	private Graphics2D scratch;
+	private Rectangle view;
+
+	private boolean stopped;
+	private Integer score;
+	private int accidents;
+	private ArrayList<String> messages;
+
+	/**
+	 * Create a game over a map.  Signals are added and the scripts may modify
+	 * the segments; the scripts are not yet started.  Call
+	 * {@link ScriptManager#init(Game)}, or load a saved game into this one,
+	 * before stepping.
+	 *
+	 * @param lines The map's segments
+	 * @param scripts The scripts to play with
+	 */
+	public HeadlessGame(RailSegment[] lines, ScriptManager scripts) {
+		lines = Signal.createSignals(lines);
+		lines = scripts.modifySegments(lines);
+		for (RailSegment r : lines)
+			r.recomp();
+
+		la = lines;
+		sm = scripts;
+		trains = new Trains();
+		messages = new ArrayList<String>();
+
+		scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+		view = new Rectangle(0, 0, 640, 480);
+
+		engine = new SimulationEngine(la, trains, sm);
+		engine.addSimulationListener(new SimulationListener() {
+			public void railAccident(RailAccident ra) {
+				accidents++;
+
+				removeTrain(ra.t1);
+				if (ra.t2 != null) removeTrain(ra.t2);
+
+				if (sm.mission != null)
+					sm.mission.railAccident(ra);
+			}
+			public void controllerChanged(Train t) { }
+			public void stepped(SimulationEngine se) { }
+		});
+	}
+
+	/**
+	 * Perform a single step of the simulation, and then call the draw listeners.
+	 */
+	public void step() {
+		World old = engine.world().bind();
+		try {
+			engine.step();
+			sm.draw(scratch, view);
+		} finally {
+			World.restore(old);
+		}
+	}
+
+	/**
+	 * Step until some playtime has elapsed, or the game is stopped.
+	 *
+	 * @param until The playtime to stop at, in milliseconds
+	 */
+	public void run(long until) {
+		while (!stopped && engine.elapsed < until)
+			step();
+	}
+
+	/**
+	 *
+	 * @return The engine simulating this game
+	 */
+	public SimulationEngine engine() { return engine; }
+
+	/**
+	 *
+	 * @return If the game has been stopped, as by a mission ending
+	 */
+	public boolean isStopped() { return stopped; }
+
+	/**
+	 *
+	 * @return The score the game was stopped with, or <code>null</code> if there was none
+	 */
+	public Integer score() { return score; }
+
+	/**
+	 *
+	 * @return The number of accidents so far
+	 */
+	public int accidents() { return accidents; }
+
+	/**
+	 *
+	 * @return The messages for the player so far, each as "title: text"
+	 */
+	public List<String> messages() { return messages; }
+
+	public RailSegment[] segments() {
+		return la;
+	}
+
+	public Trains trains() {
+		return trains;
+	}
+
+	public ScriptManager scripts() {
+		return sm;
+	}
+
+	public long elapsed() {
+		return engine.elapsed;
+	}
+
+	public void setElapsed(long ms) {
+		engine.elapsed = ms;
+	}
+
+	public void center(int x, int y) { }
+
+	public void runInLoop(Runnable r) {
+		engine.runInLoop(r);
+	}
+
+	public void addTrain(final Train t, final boolean select) {
+		runInLoop(new Runnable() {
+			public void run() {
+				trains.add(t);
+				if (select) trains.select(t, null);
+			}
+		});
+	}
+
+	public void removeTrain(final Train t) {
+		runInLoop(new Runnable() {
+			public void run() {
+				trains.remove(t);
+			}
+		});
+	}
+
+	public void stop(Integer score) {
+		trains.select(null, null);
+		this.score = score;
+		stopped = true;
+	}
+
+	public void hideTrainButtons(ActionListener mcact) { }
+
+	public void message(String title, String text) {
+		messages.add(title + ": " + text.replace('\n', ' '));
+	}
+}
@@ -0,0 +1,80 @@
+package net.kolls.railworld.play;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+
+import net.kolls.railworld.RailCanvas;
+import net.kolls.railworld.play.script.DrawListener;
+
+/**
+ * Shows the {@link StepMetrics} averages in the top right of the display.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class MetricsOverlay implements DrawListener {
+
+	private static final int WIDTH = 190;
+
+	private StepMetrics metrics;
+
+	/**
+	 * Create an overlay.
+	 *
+	 * @param m The metrics to show
+	 */
+	public MetricsOverlay(StepMetrics m) {
+		metrics = m;
+	}
+
+	@Override
+	public void draw(Graphics2D gc, Rectangle onScreen) {
+		AffineTransform at = gc.getTransform();
+		gc.setTransform(new AffineTransform());
+
+		int x = onScreen.width - WIDTH;
+		int y = 20;
+
+		line(gc, x, y, String.format("%.1f steps/s  %.1f fps  %d ms", metrics.getStepsPerSecond(),
+				metrics.getFramesPerSecond(), metrics.getClockWait()));
+		y += 14;
+		for (StepMetrics.Phase p : StepMetrics.Phase.values()) {
+			line(gc, x, y, String.format("%-12s %7.2f ms", p.label, metrics.millis(p)));
+			y += 14;
+		}
+		line(gc, x, y, String.format("longest step %.2f ms", metrics.getLongestStepMillis()));
+		y += 14;
+		line(gc, x, y, metrics.getTrains() + " trains  " + metrics.getOccupiedSegments() + " occupied  "
+				+ metrics.getListeners() + " listeners");
+		y += 14;
+		long a = metrics.getAllocatedBytesPerStep();
+		if (a >= 0)
+			line(gc, x, y, String.format("%.1f KB allocated/step", a / 1024.0));
+
+		gc.setTransform(at);
+	}
+
+	private static void line(Graphics2D gc, int x, int y, String s) {
+		RailCanvas.drawOutlineFont(gc, x, y, s, 10, Color.white, 0, false);
+	}
+}
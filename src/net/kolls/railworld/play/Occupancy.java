@@ -0,0 +1,143 @@
+package net.kolls.railworld.play;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import net.kolls.railworld.RailSegment;
+import net.kolls.railworld.Train;
+import net.kolls.railworld.TrainGeometry;
+
+/**
+ * Keeps {@link RailSegment#trains()} and each car's segments up to date as trains move.
+ * For each train, the segments it was last registered with are remembered.  When the
+ * train's {@link TrainGeometry} changes, it is removed from the segments it has left
+ * and added to the segments it has entered; a train which has not moved costs nothing.
+ * Trains which are no longer in the list are removed from their segments.
+ * <p>
+ * This is the only thing which should change segment occupancy during play.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class Occupancy {
+
+	// where a train was last registered
+	private static class Entry {
+		TrainGeometry geo;
+		int version;
+		RailSegment[] segs = new RailSegment[8];
+		int n;
+		int seen;
+	}
+
+	private IdentityHashMap<Train, Entry> entries = new IdentityHashMap<Train, Entry>();
+	private int stamp;
+	private int occupied;
+
+	private static boolean contains(RailSegment[] a, int n, RailSegment r) {
+		for (int i = 0; i < n; i++)
+			if (a[i] == r) return true;
+		return false;
+	}
+
+	private Entry entry(Train t) {
+		Entry e = entries.get(t);
+		if (e == null) {
+			e = new Entry();
+			entries.put(t, e);
+		}
+		return e;
+	}
+
+	// bring one train's registration up to date, if it has moved
+	private void track(Train t, Entry e) {
+		TrainGeometry g = t.geometry();
+		if (e.geo == g && e.version == g.version()) return;
+
+		RailSegment[] ns = g.segments();
+		int nn = g.segmentCount();
+
+		for (int i = 0; i < e.n; i++)
+			if (!contains(ns, nn, e.segs[i])) e.segs[i].trains().remove(t);
+
+		for (int i = 0; i < nn; i++)
+			if (!contains(e.segs, e.n, ns[i])) ns[i].trains().add(t);
+
+		if (e.segs.length < nn) e.segs = new RailSegment[ns.length];
+		System.arraycopy(ns, 0, e.segs, 0, nn);
+		e.n = nn;
+		e.geo = g;
+		e.version = g.version();
+
+		g.assignCars(t);
+	}
+
+	/**
+	 * Register any trains which are not yet known, such as those just added,
+	 * without notifying the segments.  Other trains are left as they are.
+	 *
+	 * @param trains All trains
+	 */
+	public void addNew(Iterable<Train> trains) {
+		for (Train t : trains)
+			if (!entries.containsKey(t)) track(t, entry(t));
+	}
+
+	/**
+	 * Bring every train's registration up to date, and notify each segment occupied
+	 * with {@link RailSegment#enter(Train)}.  Trains which are gone are removed from their segments.
+	 *
+	 * @param trains All trains
+	 */
+	public void update(Iterable<Train> trains) {
+		stamp++;
+		occupied = 0;
+
+		for (Train t : trains) {
+			Entry e = entry(t);
+			e.seen = stamp;
+			track(t, e);
+			e.geo.enter(t);
+			occupied += e.n;
+		}
+
+		Iterator<Map.Entry<Train, Entry>> it = entries.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Train, Entry> me = it.next();
+			Entry e = me.getValue();
+			if (e.seen == stamp) continue;
+
+			for (int i = 0; i < e.n; i++)
+				e.segs[i].trains().remove(me.getKey());
+			it.remove();
+		}
+	}
+
+	/**
+	 *
+	 * @return The number of segments occupied as of the last {@link #update(Iterable)},
+	 * counting a segment once for each train on it
+	 */
+	public int occupied() {
+		return occupied;
+	}
+}
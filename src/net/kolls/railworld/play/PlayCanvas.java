@@ -57,9 +57,20 @@ public class PlayCanvas  extends RailCanvas {
 	 */
 	public boolean showContextInfo;
 	
-	private ArrayList<RailSegment> dynamicSegs;
+	// segments inside the area being painted
+	private ArrayList<RailSegment> visibleSegs;
 	private int currmx, currmy;
 	
+	// car lines from the last frame, and the ones being painted now
+	private volatile CarLineIndex carLines;
+	private CarLineIndex nextCarLines;
+	
+	// give us some leeway (1 ft)
+	private static final Distance clickDist = new Distance(Car.CAR_WIDTH.feet()+1, Distance.Measure.FEET);
+	
+	// how far a car may be painted beyond its middle line, counting the selected arrow
+	private static final Distance carMargin = new Distance(Car.CAR_WIDTH.feet()*2, Distance.Measure.FEET);
+	
 	
 	/**
 	 * Create a play canvas.
@@ -72,19 +83,15 @@ public class PlayCanvas  extends RailCanvas {
 		
 		super(s,lines,mini);
 		
-		dynamicSegs = new ArrayList<RailSegment>();
-		int i;
-		
-		
-		
-		for (i = 0; i < lines.length; i++) 
-			if (lines[i].isDynamic()) 
-				dynamicSegs.add(lines[i]);
+		visibleSegs = new ArrayList<RailSegment>();
 		
 		
 		
 		currmx = currmy = -1;
 		showContextInfo = true;
+		
+		carLines = new CarLineIndex();
+		nextCarLines = new CarLineIndex();
 
 		
 		
@@ -95,10 +102,10 @@ public class PlayCanvas  extends RailCanvas {
 	
 	@Override
 	public void doMiniPaint(Graphics2D g) {
-		for (Train t : trains) {
-			TrainMiniPainter tac = new TrainMiniPainter(g, miniv.getScale() * RailCanvas.zoom, miniv.getScale() * RailCanvas.zoom);
-			tac.act(t);
-		}
+		TrainMiniPainter tac = new TrainMiniPainter(g, miniv.getScale() * World.current().zoom, miniv.getScale() * World.current().zoom);
+		for (Train t : trains) 
+			t.geometry().visit(t, tac);
+		tac.flush();
 	}	
 
 
@@ -109,54 +116,67 @@ public class PlayCanvas  extends RailCanvas {
 		
 		
 		
-		for (RailSegment r : dynamicSegs)
-			r.draw(4, g);
+		// the clip is the part of the map on screen; nothing outside it is drawn
+		Rectangle view = g.getClipBounds();
+		if (view == null) view = new Rectangle(hvx, hvy, (int)Math.ceil(getWidth() / World.current().zoom),
+				(int)Math.ceil(getHeight() / World.current().zoom));
 		
+		// segment bounds already allow for whatever they draw around their points
+		visibleSegs.clear();
+		segmentIndex().query(view, visibleSegs);
+		for (RailSegment r : visibleSegs)
+			if (r.isDynamic()) r.draw(4, g);
 		
 		
-		// why two loops?  Because the drawing may need the trains vector
-		// of ANY particular segment
-		// so only after all dynamic drawing is complete
-		// can the trains vector be cleared
-		for (RailSegment r : la)
-			r.trains().clear();
-			
 		
+		// only the main display records car lines for the mouse
+		CarLineIndex cli = detailed ? nextCarLines : null;
+		if (cli != null) cli.clear();
 		
-			
+		// segment occupancy is maintained by the simulation engine,
+		// not here, so painting may be skipped without affecting play
+		TrainPainter tac = new TrainPainter(this, g, false, trains.getSelectedCar(), cli);
+		double margin = carMargin.pixels();
 		for (Train t : trains) {
-			TrainPainter tac = new TrainPainter(this, g, t.followMe || t.followMeOnce, trains.getSelectedCar());
+			// a followed train is visited wherever it is, so the display can catch up with it
+			boolean follow = t.followMe || t.followMeOnce;
+			if (!follow && !t.geometry().intersects(view, margin)) continue;
 			
-			tac.act(t);
+			if (cli != null) cli.beginTrain(t);
+			tac.setFollow(follow);
+			
+			t.geometry().visit(t, tac, interpolation);
 			if (tac.didFollow) {
 				t.followMeOnce = false;
 			}
 		}
+		// the cars of all trains are drawn together, a few draws for the lot
+		tac.flush();
 		
 		if (!detailed) return;
 		
+		cli.build();
+		nextCarLines = carLines;
+		carLines = cli;
+		
 		
 		// perform script painting
-		sm.draw(g, new Rectangle(hvx, hvy, this.getWidth(), this.getHeight()));
+		sm.draw(g, view);
 		
 		// show info based on mouse position
 		if (currmx > -1 && showContextInfo) {
 			String desc = null;
-			TrainClickTest tct = new TrainClickTest(currmx, currmy);
-			for (Train t : trains) {
-				tct.act(t);
-				if (tct.cc != null) {
-					desc = tct.cc.show();
-					if (tct.cc.isLoadable()) desc += tct.cc.loaded() ? " (loaded)" : " (empty)";
-					
-					break;
-				}
+			int hit = cli.lineAt(currmx, currmy, clickDist);
+			if (hit > -1) {
+				Car cc = cli.car(hit);
+				desc = cc.show();
+				if (cc.isLoadable()) desc += cc.loaded() ? " (loaded)" : " (empty)";
 			}
 			
 			// if no train, then consider segments
 			Point2D pos = new Point2D.Double(currmx, currmy);
 			if (desc == null) {
-				for (RailSegment r : dynamicSegs) {
+				for (RailSegment r : nearDynamic(pos)) {
 					desc = r.mouseOver(pos);
 					if (desc != null) {
 						break;
@@ -186,26 +206,21 @@ public class PlayCanvas  extends RailCanvas {
 		Point2D p = transform(e);
 
 		// check to see if we select a train
-		Train t;
-		int i;
-		TrainClickTest tc = new TrainClickTest((int)p.getX(), (int)p.getY());
+		// using the car positions as last painted, which is what the user clicked on
+		CarLineIndex cli = carLines;
+		int hit = cli.lineAt((int)p.getX(), (int)p.getY(), clickDist);
 		
 		boolean didWork = false;
-		for (i = 0; i < trains.size(); i++) {
-			t = trains.get(i);
-			tc.act(t);
-			if (tc.cc != null) {
-				didWork = true;
-				// clicked on this train
-				trains.select(t, tc.cc);
-				return; // don't process track events
-			}
+		if (hit > -1) {
+			// clicked on this train
+			trains.select(cli.train(hit), cli.car(hit));
+			return; // don't process track events
 		}
 		
 		
 		// apply any behavior for track items
-		for ( i = 0; i < dynamicSegs.size(); i++) {
-			if (dynamicSegs.get(i).click(p, this)) {
+		for (RailSegment r : nearDynamic(p)) {
+			if (r.click(p, this)) {
 				didWork = true;
 				break;
 			}
@@ -219,6 +234,23 @@ public class PlayCanvas  extends RailCanvas {
 	
 	
 	
+	/**
+	 * Find the dynamic segments which may respond to the mouse at a position.
+	 * 
+	 * @param p The position on the map
+	 * @return The nearby dynamic segments, in map order
+	 */
+	private ArrayList<RailSegment> nearDynamic(Point2D p) {
+		ArrayList<RailSegment> near = new ArrayList<RailSegment>();
+		// segment bounds already allow for the mouse being nearby
+		segmentIndex().query(new Rectangle2D.Double(p.getX(), p.getY(), 0, 0), near);
+		
+		for (int i = near.size() - 1; i >= 0; i--)
+			if (!near.get(i).isDynamic()) near.remove(i);
+		return near;
+	}
+	
+	
 	@Override
 	public void leftDrag(MouseEvent e) {
 		
@@ -42,7 +42,6 @@ import javax.swing.event.ListSelectionEvent;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.FontMetrics;
-import java.awt.Graphics2D;
 import java.awt.event.ActionListener;
 import java.awt.event.ActionEvent;
 import java.awt.event.MouseEvent;
@@ -50,10 +49,8 @@ import java.awt.event.MouseListener;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.lang.reflect.InvocationTargetException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.Random;
 import java.util.Vector;
@@ -67,7 +64,7 @@ import java.util.prefs.Preferences;
  *
  */
 @SuppressWarnings("serial")
-public class PlayFrame extends RailFrame {
+public class PlayFrame extends RailFrame implements Game {
 
 	/**
 	 * The canvas in use.  The canvas maintains the active train list and segments.
@@ -79,6 +76,11 @@ public class PlayFrame extends RailFrame {
 	 * The game loop that manages action on this frame.
 	 */
 	public GameLoop gl;
+	
+	/**
+	 * The simulation stepped by the game loop.
+	 */
+	public SimulationEngine engine;
 	private MetaData mmd;
 	private JToggleButton pause, cth;
 	@SuppressWarnings("rawtypes")
@@ -95,8 +97,9 @@ public class PlayFrame extends RailFrame {
 	public void stop(Integer score) {
 		jdb.trains.select(null, null); // terminate any sound going on if train selected
 		
-		Sounds.allStop();
+		World.current().sounds().allStop();
 		gl.stop();
+		engine.metrics().unregister();
 		
 		SwingUtilities.invokeLater(new Runnable() {
 			public void run() {
@@ -131,6 +134,38 @@ public class PlayFrame extends RailFrame {
 		
 	}
 	
+	public RailSegment[] segments() {
+		return jdb.la;
+	}
+	
+	public Trains trains() {
+		return jdb.trains;
+	}
+	
+	public ScriptManager scripts() {
+		return jdb.sm;
+	}
+	
+	public long elapsed() {
+		return gl.elapsed;
+	}
+	
+	public void setElapsed(long ms) {
+		gl.elapsed = ms;
+	}
+	
+	public void center(int x, int y) {
+		jdb.submitCenterCoords(x, y);
+	}
+	
+	public void runInLoop(Runnable r) {
+		gl.runInLoop(r);
+	}
+	
+	public void message(String title, String text) {
+		JOptionPane.showMessageDialog(this, text, title, JOptionPane.INFORMATION_MESSAGE);
+	}
+	
 	private void exportt(Train t) {
 	
 		JFileChooser jfc = new JFileChooser();
@@ -524,9 +559,9 @@ public class PlayFrame extends RailFrame {
 			JToggleButton tb = (JToggleButton)e.getSource();
 			gl.paused = tb.isSelected();
 			if (gl.paused)
-				Sounds.allFreeze();	
+				World.current().sounds().allFreeze();	
 			else
-				Sounds.allUnfreeze();
+				World.current().sounds().allUnfreeze();
 			
 			
 		}
@@ -591,7 +626,8 @@ public class PlayFrame extends RailFrame {
 			int rv = jfc.showSaveDialog(this);
 			if (rv != JFileChooser.APPROVE_OPTION) return;
 			File file = jfc.getSelectedFile();
-			if (file.getName().toUpperCase().endsWith(".RWG") == false) {
+			if (file.getName().toUpperCase().endsWith(".RWG") == false
+					&& file.getName().toUpperCase().endsWith(".RWGB") == false) {
 				// add extension if need
 				file = new File(file.getParent(), file.getName() + ".rwg");
 				
@@ -606,8 +642,8 @@ public class PlayFrame extends RailFrame {
             
 	         mmd.centerX = (int)jdb.getCenterPoint().getX();
 	         mmd.centerY = (int)jdb.getCenterPoint().getY();
-	         mmd.feetPerPixel = Distance.feetPerPixels;
-	         mmd.zoom = RailCanvas.zoom;
+	         mmd.feetPerPixel = World.current().feetPerPixels;
+	         mmd.zoom = World.current().zoom;
 	         mmd.elapsed = gl.elapsed;
 	            
 	            
@@ -645,7 +681,7 @@ public class PlayFrame extends RailFrame {
 		
 		if (e.getActionCommand().equals("ZoomIn")) {
 			Point2D p = jdb.getCenterPoint();
-			RailCanvas.zoom *= 1.5;
+			World.current().zoom *= 1.5;
 			
 			jdb.recomp();
 			jdb.submitCenterCoords((int)p.getX(), (int)p.getY());
@@ -654,7 +690,7 @@ public class PlayFrame extends RailFrame {
 		
 		if (e.getActionCommand().equals("ZoomOut")) {
 			Point2D p = jdb.getCenterPoint();
-			RailCanvas.zoom /= 1.5;
+			World.current().zoom /= 1.5;
 			
 			jdb.recomp();
 			jdb.submitCenterCoords((int)p.getX(), (int)p.getY());
@@ -757,117 +793,118 @@ public class PlayFrame extends RailFrame {
 		
 		// prepare the game loop
 		
-		final int w = (int)(jdb.orig_src.getWidth()*Distance.getDefaultZoom());
-		final int h = (int)(jdb.orig_src.getHeight()*Distance.getDefaultZoom());
-		tlcr = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+		thumbnails = new TrainThumbnails(jdb);
 		
-		gl = new GameLoop(jdb) {
-			private void handleRA(RailAccident ra) {
-				
-				if (Options.getAccidents()) {
-					paused = true;
-					pause.setSelected(true);
-					Sounds.allFreeze();
-					Sounds.wreck.unfreeze();
-					Sounds.wreck.play();
-					jdb.submitCenterCoords((int)ra.pos.getX(), (int)ra.pos.getY());
-					RailAccidentFrame raf = new RailAccidentFrame(jdb, ra, mmd.title);
-					
-					raf.setVisible(true);
-					
-					if (jdb.sm.mission != null)
-						jdb.sm.mission.railAccident(ra);
-					
-				} else {
-					System.out.println(ra.title());
-					
-					ra.t1.setThrottle(0);
-					ra.t1.setBrake(true);
-					ra.t1.setVel(0);
-					
-					if (ra.t2 != null) {
-						ra.t2.setThrottle(0);
-						ra.t2.setBrake(true);
-						ra.t2.setVel(0);
-					}
-				}
-				
-				
-				
+		// the engine and its metrics step by the clock step in effect when it is made
+		if (Options.getFPS() != 0)
+			World.current().clockWait = (int)((1.0 / Options.getFPS()) * 1000);
+		else
+			World.current().clockWait = World.DEFAULT_CLOCK_WAIT;
+		
+		engine = new SimulationEngine(jdb.la, jdb.trains, jdb.sm);
+		final UIUpdateBus updates = new UIUpdateBus();
+		engine.addSimulationListener(new SimulationListener() {
+			public void railAccident(RailAccident ra) {
+				handleRA(ra);
+			}
+			public void controllerChanged(Train t) {
+				// the panels are updated together once the step is done
+				updates.mark(t.getController());
+			}
+			public void stepped(SimulationEngine se) {
+				updates.publish();
+			}
+		});
+		
+		// the list is told of changes on the event thread
+		final Runnable refreshList = new Runnable() {
+			public void run() {
+				jdb.trains.refreshList();
 			}
+		};
+		
+		gl = new GameLoop(jdb, engine) {
 			
 			@Override
-			protected void prePaint() {
-				try {
-					jdb.trains.step();
-					
-					
-					
-					
-				} catch (RailAccident ra) {
-					handleRA(ra);
-
-					
-				}
-			}
+			protected void prePaint() { }
+			
 			@Override
 			protected void run() {
 				
+				/* refresh the images used for train list cell renderer */
 				
-				Train t;
-				Iterator<Train> i = jdb.trains.iterator();
-				
-				while (i.hasNext()) {
-					
-					try {
-						// get train item inside try block due to concurrent modification if train added/deleted
-						t = i.next();
-						
-						
-						if (t.getController().process())
-							SwingUtilities.invokeAndWait(t.getController()); // avoid update flicker
-						
-						
-						
-						jdb.sm.trainStep(t);
-						
-					}
-					catch (InterruptedException ex) { }
-					catch (InvocationTargetException ex) { }
-					catch (ConcurrentModificationException e) {
-						e.printStackTrace();
-						break; 
-					} // must abandon this loop if modified
-					catch (RailAccident ra) {
-						handleRA(ra);
-					}
-					//catch (Exception e) { e.printStackTrace(); }
-
-					
+				if (thumbnails.refresh(jdb.trains)) {
+					updates.mark(refreshList);
+					updates.publish();
 				}
-		
-				/* refresh the image used for train list cell renderer */
-				
-				Graphics2D g2 = tlcr.createGraphics();
-				jdb.draw(g2, new Point2D.Double(w/2, h/2), w, h, Distance.getDefaultZoom(), false);
-				g2.dispose();
-				
-				jdb.trains.refreshList();
 				
 			}
 			
 			
 		};
 		
+		// F3 shows the step timings; they are also published over JMX
+		engine.metrics().register(String.valueOf(md.title));
+		final MetricsOverlay overlay = new MetricsOverlay(engine.metrics());
+		getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_F3, 0), "metrics");
+		getRootPane().getActionMap().put("metrics", new AbstractAction() {
+			private boolean shown;
+			public void actionPerformed(ActionEvent e) {
+				shown = !shown;
+				final boolean show = shown;
+				// the listeners are drawn from the game loop
+				gl.runInLoop(new Runnable() {
+					public void run() {
+						if (show)
+							jdb.sm.addDrawListener(overlay);
+						else
+							jdb.sm.removeDrawListener(overlay);
+					}
+				});
+			}
+		});
 
 	}
 
+	private void handleRA(RailAccident ra) {
+		
+		if (Options.getAccidents()) {
+			engine.paused = true;
+			pause.setSelected(true);
+			World.current().sounds().allFreeze();
+			World.current().sounds().wreck.unfreeze();
+			World.current().sounds().wreck.play();
+			jdb.submitCenterCoords((int)ra.pos.getX(), (int)ra.pos.getY());
+			RailAccidentFrame raf = new RailAccidentFrame(jdb, ra, mmd.title);
+			
+			raf.setVisible(true);
+			
+			if (jdb.sm.mission != null)
+				jdb.sm.mission.railAccident(ra);
+			
+		} else {
+			System.out.println(ra.title());
+			
+			ra.t1.setThrottle(0);
+			ra.t1.setBrake(true);
+			ra.t1.setVel(0);
+			
+			if (ra.t2 != null) {
+				ra.t2.setThrottle(0);
+				ra.t2.setBrake(true);
+				ra.t2.setVel(0);
+			}
+		}
+		
+		
+		
+	}
 	
 	/**
-	 * A default zoom low detail version of the map, used in particular
-	 * for the train list. 
+	 * Default zoom low detail pictures of each train's surroundings,
+	 * used for the train list.
 	 */
-	public BufferedImage tlcr;
+	public TrainThumbnails thumbnails;
 	
 	@Override
 	public void startLoop() {
@@ -0,0 +1,171 @@
+package net.kolls.railworld.play;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import net.kolls.railworld.CLoc;
+import net.kolls.railworld.RailSegment;
+import net.kolls.railworld.Train;
+import net.kolls.railworld.TrainGeometry;
+
+/**
+ * Divides the trains into groups which cannot affect each other during one step,
+ * so that each group may be stepped on its own.
+ * <p>
+ * Each train is given the segments it could touch this step: those it occupies,
+ * and those around its front which it could enter or look at.  A train moves
+ * at most onto the next segment in a step, along with any zero length segments
+ * (signals and such) in between.  Trains whose segments overlap, directly or
+ * through other trains, are in the same region.
+ * <p>
+ * So trains on separate networks, such as those divided by
+ * {@link net.kolls.railworld.segment.EESegment}s, are never together, and
+ * nor are trains on the same network which are simply far apart.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class Regions {
+
+	// the first train found touching each segment
+	private IdentityHashMap<RailSegment, Integer> owner;
+	private IdentityHashMap<Train, Integer> index;
+	// how many more segments of length may be looked past, for segments already visited
+	private IdentityHashMap<RailSegment, Integer> seen;
+	private int[] parent;
+
+	/**
+	 * Create a partitioner.  It may be reused from step to step.
+	 */
+	public Regions() {
+		owner = new IdentityHashMap<RailSegment, Integer>();
+		index = new IdentityHashMap<Train, Integer>();
+		seen = new IdentityHashMap<RailSegment, Integer>();
+		parent = new int[0];
+	}
+
+	/**
+	 * Divide the trains into regions.
+	 *
+	 * @param trains The trains
+	 * @return The regions, each as the indices of its trains in increasing order.
+	 * The regions are ordered by their first train.
+	 */
+	public List<int[]> partition(Trains trains) {
+		int n = trains.size();
+		if (parent.length < n) parent = new int[n];
+		owner.clear();
+		index.clear();
+
+		for (int i = 0; i < n; i++) {
+			parent[i] = i;
+			index.put(trains.get(i), i);
+		}
+
+		for (int i = 0; i < n; i++) {
+			Train t = trains.get(i);
+
+			TrainGeometry geo = t.geometry();
+			RailSegment[] segs = geo.segments();
+			for (int j = 0; j < geo.segmentCount(); j++)
+				touch(segs[j], i);
+			CLoc tail = geo.tail();
+			if (tail != null) touch(tail.r, i);
+
+			if (t.pos.r == null) continue;
+
+			// a train on a zero length segment passes over it, and any after it,
+			// and then may go on from the first real segment
+			seen.clear();
+			touch(t.pos.r, i);
+			ahead(t.pos.r, t.pos.r.lengthFeet() == 0 ? 1 : 0, i);
+
+			// trains known to be on the segments ahead, for the accident checks
+			for (RailSegment r : seen.keySet())
+				for (Train o : r.trains()) {
+					Integer k = index.get(o);
+					if (k != null) union(i, k);
+				}
+		}
+
+		ArrayList<int[]> out = new ArrayList<int[]>();
+		int[] count = new int[n];
+		int[] slot = new int[n];
+		for (int i = 0; i < n; i++)
+			count[find(i)]++;
+		for (int i = 0; i < n; i++) {
+			int root = find(i);
+			if (root == i) {
+				slot[i] = out.size();
+				out.add(new int[count[i]]);
+				count[i] = 0;
+			}
+			out.get(slot[root])[count[root]++] = i;
+		}
+		return out;
+	}
+
+	// mark the segments next to r, in either direction since switches may flip,
+	// going on past zero length segments, and past others while budget remains
+	private void ahead(RailSegment r, int budget, int train) {
+		Integer had = seen.get(r);
+		if (had != null && had >= budget) return;
+		seen.put(r, budget);
+
+		for (int i = 0; i < r.getDests(); i++) {
+			RailSegment d = r.getDest(i);
+			if (d == null) continue;
+			touch(d, train);
+			if (d.lengthFeet() == 0)
+				ahead(d, budget, train);
+			else if (budget > 0)
+				ahead(d, budget - 1, train);
+			else if (!seen.containsKey(d))
+				seen.put(d, -1);
+		}
+	}
+
+	private void touch(RailSegment r, int train) {
+		if (r == null) return;
+		Integer o = owner.get(r);
+		if (o == null)
+			owner.put(r, train);
+		else
+			union(o, train);
+	}
+
+	private int find(int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+
+	private void union(int a, int b) {
+		a = find(a);
+		b = find(b);
+		// the lower index is the root, so regions come out in train order
+		if (a < b) parent[b] = a;
+		else if (b < a) parent[a] = b;
+	}
+}
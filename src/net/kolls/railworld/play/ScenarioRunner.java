@@ -0,0 +1,465 @@
+package net.kolls.railworld.play;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.kolls.railworld.Car;
+import net.kolls.railworld.Factories;
+import net.kolls.railworld.RailSegment;
+import net.kolls.railworld.Train;
+import net.kolls.railworld.World;
+import net.kolls.railworld.car.Engine;
+import net.kolls.railworld.car.Passenger;
+import net.kolls.railworld.io.MetaData;
+import net.kolls.railworld.io.RWGReader;
+import net.kolls.railworld.opening.MapLoader;
+import net.kolls.railworld.play.script.Mission;
+import net.kolls.railworld.play.script.Script;
+import net.kolls.railworld.play.script.ScriptManager;
+import net.kolls.railworld.segment.EESegment;
+import net.kolls.railworld.tc.AutoControl;
+
+/**
+ * Runs games without a display, as fast as they can be stepped, and reports how
+ * they went and how quickly.  This is for soak testing maps and missions and for
+ * measuring the simulation's speed.
+ * <p>
+ * Usage: <code>java net.kolls.railworld.play.ScenarioRunner [options] scenario...</code>
+ * <p>
+ * Each scenario is a map (<code>.rwm</code> or <code>.rwmb</code>), a saved game
+ * (<code>.rwg</code> or <code>.rwgb</code>), or the name of a mission, which is
+ * played on its own map from the data directory.  The options are:
+ * <dl>
+ * <dt><code>-hours H</code></dt><dd>Simulated hours to run each scenario for, default 1.</dd>
+ * <dt><code>-step MS</code></dt><dd>Milliseconds of play time in each step, default
+ * {@link World#DEFAULT_CLOCK_WAIT} as in the game.</dd>
+ * <dt><code>-scripts a,b,...</code></dt><dd>Scripts to play maps and missions with, by name,
+ * such as <code>SpeedLimits</code>.  Naming a mission plays it on the map given.
+ * Saved games always use the scripts they were saved with.</dd>
+ * <dt><code>-trains N</code></dt><dd>Keep up to N automatically controlled trains coming
+ * in from the map's entrances, default none.</dd>
+ * <dt><code>-repeat N</code></dt><dd>Run each scenario N times, default once.</dd>
+ * <dt><code>-threads N</code></dt><dd>How many scenarios to run at once, default one per processor.</dd>
+ * <dt><code>-parallel</code></dt><dd>Also move the trains of each scenario in parallel.</dd>
+ * <dt><code>-metrics</code></dt><dd>Also report where the time of an average step went,
+ * from the engine's {@link StepMetrics}.</dd>
+ * <dt><code>-seed S</code></dt><dd>Seed for the trains sent in, default 1.  Each run adds its number.</dd>
+ * <dt><code>-data DIR</code></dt><dd>Where missions' maps are found, default <code>data</code>.</dd>
+ * </dl>
+ * Each scenario is run in a {@link World} of its own.  A line is printed for each
+ * run, in the order given, followed by the totals.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class ScenarioRunner {
+
+	private double hours = 1;
+	private int step = World.DEFAULT_CLOCK_WAIT;
+	private String[] scripts = new String[0];
+	private int ntrains;
+	private int repeat = 1;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private boolean parallel;
+	private boolean metrics;
+	private long seed = 1;
+	private File data = new File("data");
+
+	/**
+	 * The results of one run of a scenario.
+	 */
+	public static class Result {
+		/**
+		 * The scenario run.
+		 */
+		public String scenario;
+
+		/**
+		 * Which run of the scenario, from 1.
+		 */
+		public int run;
+
+		/**
+		 * Steps performed.
+		 */
+		public long ticks;
+
+		/**
+		 * Milliseconds of playtime simulated.
+		 */
+		public long elapsed;
+
+		/**
+		 * Wall time taken to step, in nanoseconds.
+		 */
+		public long nanos;
+
+		/**
+		 * Accidents which occurred.
+		 */
+		public int accidents;
+
+		/**
+		 * How the mission ended, or <code>null</code> if there was no mission.
+		 */
+		public String mission;
+
+		/**
+		 * Where the time of an average step went, or <code>null</code> if this was not asked for.
+		 */
+		public String phases;
+
+		@Override
+		public String toString() {
+			double secs = nanos / 1e9;
+			String s = scenario + " #" + run + ": " + ticks + " ticks, " + time(elapsed) + " played in "
+				+ String.format("%.2f", secs) + " s (" + String.format("%.0f", ticks / Math.max(secs, 1e-9))
+				+ " ticks/s), " + accidents + " accident" + (accidents == 1 ? "" : "s");
+			if (mission != null) s += ", " + mission;
+			if (phases != null) s += "\n  " + phases;
+			return s;
+		}
+	}
+
+	// the average step, by phase, in microseconds
+	private static String phases(StepMetrics m) {
+		long n = Math.max(m.getSteps(), 1);
+		StringBuilder sb = new StringBuilder("per step:");
+		for (StepMetrics.Phase p : StepMetrics.Phase.values())
+			if (!p.frame)
+				sb.append(String.format(" %s %.1f us,", p.label, m.totalNanos(p) / 1e3 / n));
+		long a = m.totalAllocated();
+		sb.append(a < 0 ? " allocation unknown" : String.format(" %.1f KB allocated", a / 1024.0 / n));
+		return sb.toString();
+	}
+
+	private static String time(long ms) {
+		long s = ms / 1000;
+		return String.format("%d:%02d:%02d", s / 3600, s / 60 % 60, s % 60);
+	}
+
+	// find a script by its name, ignoring spaces and case, or by its class name
+	private static Script find(ScriptManager all, String name) {
+		String n = name.replace(" ", "");
+		for (Script s : all)
+			if (s.toString().replace(" ", "").equalsIgnoreCase(n) || s.getClass().getSimpleName().equalsIgnoreCase(n))
+				return s;
+		throw new IllegalArgumentException("Unknown script " + name);
+	}
+
+	private static boolean isMap(String name) {
+		String u = name.toUpperCase();
+		return u.endsWith(".RWM") || u.endsWith(".RWMB");
+	}
+
+	private static boolean isGame(String name) {
+		String u = name.toUpperCase();
+		return u.endsWith(".RWG") || u.endsWith(".RWGB");
+	}
+
+	// the scripts asked for, a mission's with its own first
+	private ScriptManager chosenScripts(Mission mission) {
+		ScriptManager all = ScriptManager.allWithSupportingScripts();
+		ScriptManager sm = new ScriptManager();
+
+		for (String name : scripts) {
+			Script s = find(all, name);
+			if (s instanceof Mission) {
+				if (mission != null && mission.getClass() != s.getClass())
+					throw new IllegalArgumentException("Only one mission may be played at a time");
+				mission = (Mission)s;
+			} else
+				sm.add(s);
+		}
+
+		if (mission == null) return sm;
+
+		ScriptManager ms = mission.createScriptManager();
+		for (Script s : sm) {
+			boolean had = false;
+			for (Script m : ms)
+				if (m.getClass() == s.getClass()) had = true;
+			if (!had) ms.add(s);
+		}
+		return ms;
+	}
+
+	// load a scenario, in the current world
+	private HeadlessGame load(String scenario) throws Exception {
+		ScriptManager sm;
+		File map;
+		File saved = null;
+
+		if (isGame(scenario)) {
+			saved = new File(scenario);
+			sm = RWGReader.readForScripts(saved, ScriptManager.allWithSupportingScripts());
+			map = new File(saved.getParentFile(), RWGReader.readForRWM(saved));
+		} else if (isMap(scenario)) {
+			sm = chosenScripts(null);
+			map = new File(scenario);
+		} else {
+			Script s = find(ScriptManager.allMissions(), scenario);
+			sm = chosenScripts((Mission)s);
+			map = new File(data, sm.mission.rwmFilename());
+		}
+
+		MapLoader ml = MapLoader.loadFromFile(map);
+		MetaData md = ml.getMetaData();
+		World.current().zoom = md.zoom;
+		World.current().feetPerPixels = md.feetPerPixel;
+
+		HeadlessGame g = new HeadlessGame(ml.getSegments(), sm);
+		if (saved != null)
+			RWGReader.read(saved, g);
+		else
+			sm.init(g);
+		return g;
+	}
+
+	/**
+	 * Keeps trains coming in from the map's entrances, up to a given number.
+	 */
+	private static class Traffic {
+		private HeadlessGame game;
+		private int most;
+		private Random r;
+		private ArrayList<EESegment> ees;
+		private Car[] sources;
+
+		Traffic(HeadlessGame game, int most, long seed) {
+			this.game = game;
+			this.most = most;
+			r = new Random(seed);
+
+			ees = new ArrayList<EESegment>();
+			for (RailSegment rs : game.segments())
+				if (rs instanceof EESegment) ees.add((EESegment)rs);
+
+			ArrayList<Car> cs = new ArrayList<Car>();
+			for (Car c : Factories.cars().allTypes()) {
+				if (c.isLoadable() && c.canUserCreate() && !(c instanceof Passenger)) {
+					Car c2 = (Car)c.newInstance();
+					c2.load();
+					cs.add(c2);
+
+					c2 = (Car)c.newInstance();
+					c2.unload();
+					cs.add(c2);
+				}
+			}
+			sources = cs.toArray(new Car[0]);
+		}
+
+		// send in at most one train, at a clear entrance
+		void top() {
+			if (game.trains().size() >= most || ees.isEmpty()) return;
+
+			EESegment ee = ees.get(r.nextInt(ees.size()));
+			RailSegment next = ee.dest(ee.HES);
+			if (!ee.trains().isEmpty() || !ee.HES.trains().isEmpty()
+					|| (next != null && !next.trains().isEmpty())) return;
+
+			Train t = new Train(TrainCreator.generate(r, new Engine(), sources));
+
+			AutoControl ac = new AutoControl();
+			ac.setSyncToClick(false);
+			t.setController(ac);
+			t.getController().setTrainActionScriptNotify(game.scripts());
+
+			int vel;
+			if (t.weight() < 1000)
+				vel = 25;
+			else if (t.weight() < 1500)
+				vel = 20;
+			else
+				vel = 15;
+			t.setVel(vel);
+			t.setThrottle(vel / 5);
+
+			t.pos.r = ee;
+			t.pos.orig = ee.HES;
+			game.addTrain(t, false);
+		}
+	}
+
+	/**
+	 * Run one scenario in a world of its own.
+	 *
+	 * @param scenario The map, saved game or mission
+	 * @param run Which run this is, from 1
+	 * @return The results
+	 * @throws Exception If the scenario cannot be loaded
+	 */
+	public Result run(String scenario, int run) throws Exception {
+		World w = new World();
+		w.clockWait = step;
+		World old = w.bind();
+		try {
+			HeadlessGame g = load(scenario);
+			g.engine().setParallel(parallel);
+
+			Traffic traffic = ntrains > 0 ? new Traffic(g, ntrains, seed + run - 1) : null;
+			long until = g.elapsed() + (long)(hours * 60 * 60 * 1000);
+
+			long start = System.nanoTime();
+			while (!g.isStopped() && g.elapsed() < until) {
+				if (traffic != null) traffic.top();
+				g.step();
+			}
+
+			Result res = new Result();
+			res.nanos = System.nanoTime() - start;
+			res.scenario = scenario;
+			res.run = run;
+			res.ticks = g.engine().ticks();
+			res.elapsed = g.elapsed();
+			res.accidents = g.accidents();
+			if (metrics) res.phases = phases(g.engine().metrics());
+
+			g.engine().setParallel(false);
+
+			if (g.scripts().mission != null) {
+				String last = g.messages().isEmpty() ? "" : " (" + g.messages().get(g.messages().size() - 1) + ")";
+				if (!g.isStopped())
+					res.mission = "mission still under way";
+				else if (g.score() != null)
+					res.mission = "mission complete, score " + g.score() + last;
+				else
+					res.mission = "mission failed" + last;
+			}
+			return res;
+		} finally {
+			World.restore(old);
+		}
+	}
+
+	/**
+	 * Run every scenario as many times as asked, several at once.
+	 *
+	 * @param scenarios The maps, saved games and missions
+	 * @return <code>true</code> if every run could be made
+	 * @throws InterruptedException If interrupted while waiting for the runs
+	 */
+	public boolean runAll(List<String> scenarios) throws InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		ArrayList<String> names = new ArrayList<String>();
+		ArrayList<Future<Result>> runs = new ArrayList<Future<Result>>();
+
+		for (final String s : scenarios)
+			for (int i = 1; i <= repeat; i++) {
+				final int run = i;
+				names.add(s + " #" + run);
+				runs.add(pool.submit(new Callable<Result>() {
+					public Result call() throws Exception {
+						return run(s, run);
+					}
+				}));
+			}
+		pool.shutdown();
+
+		boolean ok = true;
+		long ticks = 0, elapsed = 0, accidents = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < runs.size(); i++) {
+			try {
+				Result r = runs.get(i).get();
+				System.out.println(r);
+				ticks += r.ticks;
+				elapsed += r.elapsed;
+				accidents += r.accidents;
+			} catch (ExecutionException e) {
+				System.out.println(names.get(i) + ": unable to run, " + e.getCause());
+				ok = false;
+			}
+		}
+		double secs = (System.nanoTime() - start) / 1e9;
+
+		System.out.println("total: " + runs.size() + " run" + (runs.size() == 1 ? "" : "s") + ", " + ticks + " ticks, "
+				+ time(elapsed) + " played in " + String.format("%.2f", secs) + " s ("
+				+ String.format("%.0f", ticks / Math.max(secs, 1e-9)) + " ticks/s), " + accidents + " accident"
+				+ (accidents == 1 ? "" : "s"));
+		return ok;
+	}
+
+	private static void usage() {
+		System.err.println("Usage: ScenarioRunner [-hours H] [-step MS] [-scripts a,b,...] [-trains N] [-repeat N] [-threads N] [-parallel] [-metrics] [-seed S] [-data dir] (map.rwm|game.rwg|mission)...");
+		System.exit(2);
+	}
+
+	/**
+	 * Command line entry point.
+	 *
+	 * @param args The options and scenarios
+	 */
+	public static void main(String[] args) {
+		if (System.getProperty("java.awt.headless") == null)
+			System.setProperty("java.awt.headless", "true");
+
+		ScenarioRunner sr = new ScenarioRunner();
+		ArrayList<String> scenarios = new ArrayList<String>();
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				String a = args[i];
+				if (a.equals("-parallel")) sr.parallel = true;
+				else if (a.equals("-metrics")) sr.metrics = true;
+				else if (!a.startsWith("-")) scenarios.add(a);
+				else if (i + 1 == args.length) usage();
+				else if (a.equals("-hours")) sr.hours = Double.parseDouble(args[++i]);
+				else if (a.equals("-step")) sr.step = Integer.parseInt(args[++i]);
+				else if (a.equals("-scripts")) sr.scripts = args[++i].split(",");
+				else if (a.equals("-trains")) sr.ntrains = Integer.parseInt(args[++i]);
+				else if (a.equals("-repeat")) sr.repeat = Integer.parseInt(args[++i]);
+				else if (a.equals("-threads")) sr.threads = Integer.parseInt(args[++i]);
+				else if (a.equals("-seed")) sr.seed = Long.parseLong(args[++i]);
+				else if (a.equals("-data")) sr.data = new File(args[++i]);
+				else usage();
+			}
+		} catch (NumberFormatException e) {
+			usage();
+		}
+		if (scenarios.isEmpty() || sr.step < 1 || sr.threads < 1 || sr.repeat < 1) usage();
+
+		// check the names now, rather than in every run
+		try {
+			sr.chosenScripts(null);
+			for (String s : scenarios)
+				if (!isMap(s) && !isGame(s))
+					find(ScriptManager.allMissions(), s);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.exit(2);
+		}
+
+		try {
+			System.exit(sr.runAll(scenarios) ? 0 : 1);
+		} catch (InterruptedException e) {
+			System.exit(1);
+		}
+	}
+}
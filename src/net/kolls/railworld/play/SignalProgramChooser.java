@@ -91,7 +91,7 @@ public class SignalProgramChooser extends JFrame implements AWTEventListener {
 		
 		spsg = new ButtonGroup();
 		
-		ArrayList<SignalProgram> sps = Factories.sps.allTypes();
+		ArrayList<SignalProgram> sps = Factories.sps().allTypes();
 		for (int i = 0; i < sps.size(); i++) {
 			sig.add(createButton(sps.get(i), signal));
 		}
@@ -0,0 +1,312 @@
+package net.kolls.railworld.play;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import net.kolls.railworld.RailSegment;
+import net.kolls.railworld.TrackTable;
+import net.kolls.railworld.Train;
+import net.kolls.railworld.World;
+import net.kolls.railworld.play.script.ScriptManager;
+
+/**
+ * Advances the simulation (trains, controllers and scripts) one logical step at a time.
+ * The engine does not paint anything and does not depend on a {@link net.kolls.railworld.RailCanvas};
+ * a display subscribes through a {@link SimulationListener} and draws at whatever rate suits it.
+ * Without a display, the engine may simply be stepped as fast as possible using {@link #run(long)}.
+ * <p>
+ * The engine works in the {@link World} current when it is created: each step advances
+ * by {@link World#clockWait} milliseconds of play time, and is made with that world bound,
+ * so engines in different worlds may be stepped at the same time.
+ * The segments are filed in a {@link TrackTable} when the engine is created, so they
+ * must be recomputed, in that world, beforehand.
+ * <p>
+ * The time taken by each part of a step is kept in the engine's {@link StepMetrics}.
+ *
+ * @author Rick Rutt
+ */
+public class SimulationEngine {
+
+	private RailSegment[] la;
+	private Trains trains;
+	private ScriptManager sm;
+	private BlockingQueue<Runnable> todos;
+	private CopyOnWriteArrayList<SimulationListener> listeners;
+	private Occupancy occupancy;
+	private long ticks;
+	private ForkJoinPool pool;
+	private World world;
+	private StepMetrics metrics;
+	private boolean keepShapes;
+	private TrackTable track;
+
+	/**
+	 * Set to <code>true</code> to suspend train movement.  Commands
+	 * given to {@link #runInLoop(Runnable)} are still executed.
+	 */
+	public boolean paused;
+
+	/**
+	 * Milliseconds of simulated play time that have elapsed.
+	 */
+	public long elapsed;
+
+	/**
+	 * Create an engine over a given map, train list and scripts.
+	 *
+	 * @param lines The rail segments
+	 * @param trs The trains to simulate
+	 * @param scripts The scripts to notify of train steps
+	 */
+	public SimulationEngine(RailSegment[] lines, Trains trs, ScriptManager scripts) {
+		la = lines;
+		trains = trs;
+		sm = scripts;
+		todos = new LinkedBlockingQueue<Runnable>();
+		listeners = new CopyOnWriteArrayList<SimulationListener>();
+		occupancy = new Occupancy();
+		world = World.current();
+		metrics = new StepMetrics(world);
+		track = new TrackTable(lines);
+		paused = false;
+		elapsed = 0;
+		ticks = 0;
+	}
+
+	/**
+	 *
+	 * @return The rail segments being simulated
+	 */
+	public RailSegment[] segments() { return la; }
+
+	/**
+	 *
+	 * @return The lengths of the segments, as the trains are moved over them
+	 */
+	public TrackTable track() { return track; }
+
+	/**
+	 *
+	 * @return The world the engine works in
+	 */
+	public World world() { return world; }
+
+	/**
+	 *
+	 * @return The trains being simulated
+	 */
+	public Trains trains() { return trains; }
+
+	/**
+	 *
+	 * @return The scripts notified of train steps
+	 */
+	public ScriptManager scripts() { return sm; }
+
+	/**
+	 *
+	 * @return Where the time goes in each step
+	 */
+	public StepMetrics metrics() { return metrics; }
+
+	/**
+	 * Have each train's shape kept before it is moved, so a display may paint
+	 * between steps with {@link net.kolls.railworld.TrainGeometry#visit(Train, net.kolls.railworld.ConsistVisitor, double)}.
+	 *
+	 * @param keep <code>true</code> to keep the shapes
+	 */
+	public void setKeepShapes(boolean keep) {
+		keepShapes = keep;
+	}
+
+	/**
+	 *
+	 * @return The number of steps performed so far, not counting paused steps
+	 */
+	public long ticks() { return ticks; }
+
+	/**
+	 * Add a listener to be notified of engine events.
+	 *
+	 * @param l The listener to add
+	 */
+	public void addSimulationListener(SimulationListener l) {
+		listeners.add(l);
+	}
+
+	/**
+	 * Remove a listener.
+	 *
+	 * @param l The listener to remove
+	 */
+	public void removeSimulationListener(SimulationListener l) {
+		listeners.remove(l);
+	}
+
+	/**
+	 * Run some commands inside the engine.  Given command will be run
+	 * at the beginning of the next step.  This ensures appropriate
+	 * synchronization with train activity.
+	 *
+	 * @param r The commands to run.
+	 */
+	public void runInLoop(Runnable r) {
+		try {
+			todos.put(r);
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Choose whether trains are moved in parallel.  When on, trains which cannot
+	 * meet during a step are moved at the same time, on a pool of threads; see
+	 * {@link Trains#setPool(ForkJoinPool)}.  Controllers and scripts are still run
+	 * one train at a time, and the trains end up just where they would have
+	 * moving one after another.  Off by default.
+	 *
+	 * @param on <code>true</code> to move trains in parallel
+	 */
+	public void setParallel(boolean on) {
+		if (on && pool == null)
+			pool = new ForkJoinPool();
+		if (!on && pool != null) {
+			pool.shutdown();
+			pool = null;
+		}
+		trains.setPool(pool);
+	}
+
+	/**
+	 *
+	 * @return If trains are moved in parallel
+	 */
+	public boolean isParallel() { return pool != null; }
+
+	private void fireAccident(RailAccident ra) {
+		for (SimulationListener l : listeners)
+			l.railAccident(ra);
+	}
+
+	/**
+	 * Perform a single step.  Queued commands are run, trains are moved and checked
+	 * for accidents, segment occupancy is brought up to date, and then each train's controller
+	 * and the scripts are given the chance to act.
+	 */
+	public void step() {
+		World old = world.bind();
+		try {
+			stepInWorld();
+		} finally {
+			World.restore(old);
+		}
+	}
+
+	private void stepInWorld() {
+		metrics.startStep();
+
+		Runnable r = todos.poll();
+
+		while (r != null) {
+			r.run();
+			r = todos.poll();
+		}
+		metrics.lap(StepMetrics.Phase.COMMANDS);
+
+		if (paused) return;
+
+		// trains added since the last step must be on their segments for the accident checks
+		occupancy.addNew(trains);
+		metrics.lap(StepMetrics.Phase.OCCUPANCY);
+
+		if (keepShapes)
+			for (Train t : trains)
+				t.geometry().keep(t);
+
+		try {
+			trains.step();
+		} catch (RailAccident ra) {
+			fireAccident(ra);
+		}
+		metrics.lap(StepMetrics.Phase.MOVE);
+
+		updateOccupancy();
+		metrics.lap(StepMetrics.Phase.OCCUPANCY);
+
+		if (paused) return;
+
+		Iterator<Train> i = trains.iterator();
+		while (i.hasNext()) {
+			try {
+				// get train item inside try block due to concurrent modification if train added/deleted
+				Train t = i.next();
+
+				if (t.getController().process())
+					for (SimulationListener l : listeners)
+						l.controllerChanged(t);
+				metrics.lap(StepMetrics.Phase.CONTROLLERS);
+
+				sm.trainStep(t);
+				metrics.lap(StepMetrics.Phase.SCRIPTS);
+			}
+			catch (ConcurrentModificationException e) {
+				e.printStackTrace();
+				break;
+			} // must abandon this loop if modified
+			catch (RailAccident ra) {
+				fireAccident(ra);
+			}
+		}
+
+		ticks++;
+		elapsed += world.clockWait;
+
+		metrics.endStep(trains.size(), occupancy.occupied(), sm.listenerCount() + listeners.size());
+
+		for (SimulationListener l : listeners)
+			l.stepped(this);
+	}
+
+	/**
+	 * Perform a number of steps back-to-back, without any waiting.
+	 * This is intended for running without a display.
+	 *
+	 * @param steps How many steps to perform
+	 */
+	public void run(long steps) {
+		for (long s = 0; s < steps; s++)
+			step();
+	}
+
+	/**
+	 * Bring up to date which trains are on which segments.  Segment
+	 * occupancy is needed by the accident checks in {@link Trains#step()}
+	 * and by loading and unloading, so it is maintained here rather than as a
+	 * side effect of painting.
+	 */
+	private void updateOccupancy() {
+		occupancy.update(trains);
+	}
+}
@@ -0,0 +1,56 @@
+package net.kolls.railworld.play;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import net.kolls.railworld.Train;
+
+/**
+ * Receives events from a {@link SimulationEngine}.  All methods are called
+ * on the thread that is stepping the engine, so a listener that touches
+ * the user interface must hand the work over to the AWT event thread itself.
+ *
+ * @author Rick Rutt
+ */
+public interface SimulationListener {
+
+	/**
+	 * An accident occurred while stepping.  The listener may pause the engine
+	 * to stop the remainder of the step from being processed.
+	 *
+	 * @param ra The accident
+	 */
+	void railAccident(RailAccident ra);
+
+	/**
+	 * The controller of the given train has changed something that should
+	 * be reflected on its display.
+	 *
+	 * @param t The train whose controller needs a display update
+	 * @see net.kolls.railworld.TrainControl#process()
+	 */
+	void controllerChanged(Train t);
+
+	/**
+	 * A complete step has been performed.  Trains and segments are consistent
+	 * at this point and may be drawn or examined.
+	 *
+	 * @param se The engine that was stepped
+	 */
+	void stepped(SimulationEngine se);
+}
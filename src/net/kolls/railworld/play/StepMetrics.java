@@ -0,0 +1,429 @@
+package net.kolls.railworld.play;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+import net.kolls.railworld.World;
+
+/**
+ * Where the time goes in each step of the simulation and each frame painted.
+ * The engine and the game loop mark the end of each phase with {@link #lap(Phase)},
+ * which adds the time since the last mark to that phase.  Counts of trains,
+ * occupied segments and listeners are taken at the end of each step, along with
+ * the bytes the stepping thread allocated.
+ * <p>
+ * The figures are seen three ways.  Each step and frame is recorded as a
+ * Flight Recorder event, <code>net.kolls.railworld.Step</code> and
+ * <code>net.kolls.railworld.Frame</code>, when a recording is running.
+ * Averages over the last {@link #WINDOW} milliseconds are available through JMX
+ * once {@link #register(String)} is called, and may be painted over the map with a
+ * {@link MetricsOverlay}.  Totals since the metrics were created are kept for
+ * reports such as {@link ScenarioRunner}'s.
+ * <p>
+ * Steps and frames must be recorded from the one thread which steps the
+ * simulation and paints it.  The averages may be read from any thread.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class StepMetrics implements StepMetricsMBean {
+
+	/**
+	 * The parts of a step, and of a frame.
+	 */
+	public enum Phase {
+		/**
+		 * Running the commands queued with {@link SimulationEngine#runInLoop(Runnable)}
+		 */
+		COMMANDS("commands", false),
+		/**
+		 * {@link Trains#step()}: moving the trains and checking for accidents
+		 */
+		MOVE("move", false),
+		/**
+		 * Bringing segment occupancy up to date
+		 */
+		OCCUPANCY("occupancy", false),
+		/**
+		 * The trains' controllers
+		 */
+		CONTROLLERS("controllers", false),
+		/**
+		 * Scripts notified of each train's step
+		 */
+		SCRIPTS("scripts", false),
+		/**
+		 * Painting the map, trains and script drawings
+		 */
+		PAINT("paint", true),
+		/**
+		 * Refreshing the train list and its thumbnails
+		 */
+		LIST("list", true);
+
+		/**
+		 * The name shown for this phase
+		 */
+		public final String label;
+
+		/**
+		 * Is this part of a frame, rather than a step?
+		 */
+		public final boolean frame;
+
+		Phase(String label, boolean frame) {
+			this.label = label;
+			this.frame = frame;
+		}
+	}
+
+	/**
+	 * The period the averages are taken over, in milliseconds.
+	 */
+	public static final long WINDOW = 1000;
+
+	private static final int PHASES = Phase.values().length;
+	private static final AtomicInteger ids = new AtomicInteger();
+
+	// the allocation counter of the current thread, where the JVM has one
+	private static final com.sun.management.ThreadMXBean THREADS;
+	static {
+		java.lang.management.ThreadMXBean t = ManagementFactory.getThreadMXBean();
+		if (t instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean)t).isThreadAllocatedMemorySupported())
+			THREADS = (com.sun.management.ThreadMXBean)t;
+		else
+			THREADS = null;
+	}
+
+	@Name("net.kolls.railworld.Step")
+	@Label("Simulation Step")
+	@Category("Rail World")
+	@Description("One step of the simulation, by phase")
+	static class StepEvent extends Event {
+		@Label("Commands") @Timespan long commands;
+		@Label("Move") @Timespan long move;
+		@Label("Occupancy") @Timespan long occupancy;
+		@Label("Controllers") @Timespan long controllers;
+		@Label("Scripts") @Timespan long scripts;
+		@Label("Trains") int trains;
+		@Label("Occupied Segments") int occupied;
+		@Label("Listeners") int listeners;
+		@Label("Allocated") @DataAmount long allocated;
+	}
+
+	@Name("net.kolls.railworld.Frame")
+	@Label("Frame")
+	@Category("Rail World")
+	@Description("One frame painted, by phase")
+	static class FrameEvent extends Event {
+		@Label("Paint") @Timespan long paint;
+		@Label("List") @Timespan long list;
+		@Label("Clock Wait") @Timespan(Timespan.MILLISECONDS) long clockWait;
+	}
+
+	// the averages over the last window
+	private static class Averages {
+		final double[] millis = new double[PHASES];
+		double stepsPerSecond, framesPerSecond, longest;
+		long allocated = -1;
+	}
+
+	private final World world;
+	private ObjectName name;
+
+	private long mark, stepStart, allocStart;
+	private StepEvent stepEvent;
+	private FrameEvent frameEvent;
+	private final long[] current = new long[PHASES];
+
+	private final long[] window = new long[PHASES];
+	private long windowStart, windowSteps, windowFrames, windowAllocated, windowLongest;
+	private boolean allocKnown = true;
+
+	private final long[] total = new long[PHASES];
+	private long totalAllocated;
+	private volatile long steps, frames, late;
+	private volatile int trains, occupied, listeners;
+	private volatile Averages last = new Averages();
+
+	/**
+	 * Create metrics for a simulation.
+	 *
+	 * @param w The world simulated, whose clock step is reported
+	 */
+	public StepMetrics(World w) {
+		world = w;
+	}
+
+	private static long allocated() {
+		return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+	}
+
+	/**
+	 * A step is beginning.
+	 */
+	public void startStep() {
+		stepEvent = new StepEvent();
+		stepEvent.begin();
+		allocStart = allocated();
+		stepStart = mark = System.nanoTime();
+	}
+
+	/**
+	 * A frame is beginning.
+	 */
+	public void startFrame() {
+		frameEvent = new FrameEvent();
+		frameEvent.begin();
+		mark = System.nanoTime();
+	}
+
+	/**
+	 * A phase has ended.  The time since the start or the last phase is added to it.
+	 *
+	 * @param p The phase which has ended
+	 */
+	public void lap(Phase p) {
+		long t = System.nanoTime();
+		current[p.ordinal()] += t - mark;
+		mark = t;
+	}
+
+	/**
+	 * The step has ended.
+	 *
+	 * @param trains The number of trains
+	 * @param occupied The number of segments occupied
+	 * @param listeners The number of listeners
+	 */
+	public void endStep(int trains, int occupied, int listeners) {
+		long t = System.nanoTime();
+		long a = allocated();
+		long alloc = a < 0 || allocStart < 0 ? -1 : a - allocStart;
+
+		StepEvent e = stepEvent;
+		e.end();
+		if (e.shouldCommit()) {
+			e.commands = current[Phase.COMMANDS.ordinal()];
+			e.move = current[Phase.MOVE.ordinal()];
+			e.occupancy = current[Phase.OCCUPANCY.ordinal()];
+			e.controllers = current[Phase.CONTROLLERS.ordinal()];
+			e.scripts = current[Phase.SCRIPTS.ordinal()];
+			e.trains = trains;
+			e.occupied = occupied;
+			e.listeners = listeners;
+			e.allocated = alloc;
+			e.commit();
+		}
+
+		fold(false);
+		windowSteps++;
+		windowLongest = Math.max(windowLongest, t - stepStart);
+		if (alloc < 0)
+			allocKnown = false;
+		else {
+			windowAllocated += alloc;
+			totalAllocated += alloc;
+		}
+
+		this.trains = trains;
+		this.occupied = occupied;
+		this.listeners = listeners;
+		steps++;
+
+		publish(t);
+	}
+
+	/**
+	 * The frame has ended.
+	 */
+	public void endFrame() {
+		FrameEvent e = frameEvent;
+		e.end();
+		if (e.shouldCommit()) {
+			e.paint = current[Phase.PAINT.ordinal()];
+			e.list = current[Phase.LIST.ordinal()];
+			e.clockWait = world.clockWait;
+			e.commit();
+		}
+
+		fold(true);
+		windowFrames++;
+		frames++;
+
+		publish(System.nanoTime());
+	}
+
+	/**
+	 * The simulation fell too far behind to catch up before a frame,
+	 * and the steps it was behind were dropped.
+	 */
+	public void late() {
+		late++;
+	}
+
+	// move the phases just recorded into the window and totals
+	private void fold(boolean frame) {
+		for (Phase p : Phase.values()) {
+			if (p.frame != frame) continue;
+			int i = p.ordinal();
+			window[i] += current[i];
+			total[i] += current[i];
+			current[i] = 0;
+		}
+	}
+
+	// work out the averages once the window is over
+	private void publish(long t) {
+		if (windowStart == 0) windowStart = t;
+		long span = t - windowStart;
+		if (span < WINDOW * 1000000) return;
+
+		Averages av = new Averages();
+		for (Phase p : Phase.values()) {
+			long n = p.frame ? windowFrames : windowSteps;
+			int i = p.ordinal();
+			av.millis[i] = n == 0 ? 0 : window[i] / 1e6 / n;
+			window[i] = 0;
+		}
+		av.stepsPerSecond = windowSteps * 1e9 / span;
+		av.framesPerSecond = windowFrames * 1e9 / span;
+		av.longest = windowLongest / 1e6;
+		if (allocKnown && windowSteps > 0) av.allocated = windowAllocated / windowSteps;
+		last = av;
+
+		windowStart = t;
+		windowSteps = windowFrames = windowAllocated = windowLongest = 0;
+		allocKnown = true;
+	}
+
+	/**
+	 * Make these metrics available through JMX, as
+	 * <code>net.kolls.railworld:type=StepMetrics</code> with the given name.
+	 *
+	 * @param title A name for the simulation, such as the map title
+	 */
+	public void register(String title) {
+		try {
+			ObjectName on = new ObjectName("net.kolls.railworld:type=StepMetrics,name="
+					+ ObjectName.quote(title) + ",id=" + ids.incrementAndGet());
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, on);
+			name = on;
+		} catch (JMException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Remove these metrics from JMX, if they were registered.
+	 */
+	public void unregister() {
+		if (name == null) return;
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+		} catch (JMException e) {
+			e.printStackTrace();
+		}
+		name = null;
+	}
+
+	/**
+	 * The average time of a phase over the last window.
+	 *
+	 * @param p The phase
+	 * @return Milliseconds per step, or per frame for painting phases
+	 */
+	public double millis(Phase p) {
+		return last.millis[p.ordinal()];
+	}
+
+	/**
+	 * The total time of a phase since the metrics were created.
+	 * This must be read from the thread recording the metrics.
+	 *
+	 * @param p The phase
+	 * @return Nanoseconds spent in the phase
+	 */
+	public long totalNanos(Phase p) {
+		return total[p.ordinal()];
+	}
+
+	/**
+	 * The bytes allocated by all steps since the metrics were created.
+	 * This must be read from the thread recording the metrics.
+	 *
+	 * @return Bytes allocated, or -1 if this is not known
+	 */
+	public long totalAllocated() {
+		return THREADS == null ? -1 : totalAllocated;
+	}
+
+	/**
+	 *
+	 * @return Frames painted since the metrics were created
+	 */
+	public long getFrames() { return frames; }
+
+	public long getSteps() { return steps; }
+
+	public double getStepsPerSecond() { return last.stepsPerSecond; }
+
+	public double getFramesPerSecond() { return last.framesPerSecond; }
+
+	public int getClockWait() { return world.clockWait; }
+
+	public long getLateFrames() { return late; }
+
+	public double getCommandMillis() { return millis(Phase.COMMANDS); }
+
+	public double getMoveMillis() { return millis(Phase.MOVE); }
+
+	public double getOccupancyMillis() { return millis(Phase.OCCUPANCY); }
+
+	public double getControllerMillis() { return millis(Phase.CONTROLLERS); }
+
+	public double getScriptMillis() { return millis(Phase.SCRIPTS); }
+
+	public double getPaintMillis() { return millis(Phase.PAINT); }
+
+	public double getListMillis() { return millis(Phase.LIST); }
+
+	public double getLongestStepMillis() { return last.longest; }
+
+	public long getAllocatedBytesPerStep() { return last.allocated; }
+
+	public int getTrains() { return trains; }
+
+	public int getOccupiedSegments() { return occupied; }
+
+	public int getListeners() { return listeners; }
+}
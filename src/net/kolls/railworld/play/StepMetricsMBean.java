@@ -0,0 +1,132 @@
+package net.kolls.railworld.play;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+/**
+ * The management interface of {@link StepMetrics}, as seen through JMX.
+ * Times are averages over the last {@link StepMetrics#WINDOW} milliseconds;
+ * engine phases are per step and painting phases per frame.
+ *
+ * @author Rick Rutt
+ *
+ */
+public interface StepMetricsMBean {
+
+	/**
+	 *
+	 * @return Steps made since the metrics were created
+	 */
+	long getSteps();
+
+	/**
+	 *
+	 * @return Steps made per second
+	 */
+	double getStepsPerSecond();
+
+	/**
+	 *
+	 * @return Frames painted per second
+	 */
+	double getFramesPerSecond();
+
+	/**
+	 *
+	 * @return The length of a clock step, in milliseconds
+	 */
+	int getClockWait();
+
+	/**
+	 *
+	 * @return Frames before which the simulation could not catch up, since the metrics were created
+	 */
+	long getLateFrames();
+
+	/**
+	 *
+	 * @return Milliseconds spent running queued commands
+	 */
+	double getCommandMillis();
+
+	/**
+	 *
+	 * @return Milliseconds spent moving trains and checking for accidents
+	 */
+	double getMoveMillis();
+
+	/**
+	 *
+	 * @return Milliseconds spent bringing segment occupancy up to date
+	 */
+	double getOccupancyMillis();
+
+	/**
+	 *
+	 * @return Milliseconds spent in train controllers
+	 */
+	double getControllerMillis();
+
+	/**
+	 *
+	 * @return Milliseconds spent in scripts
+	 */
+	double getScriptMillis();
+
+	/**
+	 *
+	 * @return Milliseconds spent painting the map
+	 */
+	double getPaintMillis();
+
+	/**
+	 *
+	 * @return Milliseconds spent refreshing the train list
+	 */
+	double getListMillis();
+
+	/**
+	 *
+	 * @return The longest step, in milliseconds
+	 */
+	double getLongestStepMillis();
+
+	/**
+	 *
+	 * @return Bytes allocated by each step, or -1 if this is not known
+	 */
+	long getAllocatedBytesPerStep();
+
+	/**
+	 *
+	 * @return The number of trains
+	 */
+	int getTrains();
+
+	/**
+	 *
+	 * @return The number of segments occupied, counting a segment once for each train on it
+	 */
+	int getOccupiedSegments();
+
+	/**
+	 *
+	 * @return The number of listeners
+	 */
+	int getListeners();
+}
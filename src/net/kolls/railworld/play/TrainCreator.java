@@ -179,7 +179,7 @@ public class TrainCreator extends JFrame {
 		
 		
 		
-		ArrayList<Car> at = Factories.cars.allTypes();
+		ArrayList<Car> at = Factories.cars().allTypes();
 		for (int i = 0; i < at.size(); i++) {
 			Car c = at.get(i);
 			if (c.canUserCreate() == false) continue;
@@ -24,7 +24,7 @@ import java.awt.Dimension;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
 import java.text.NumberFormat;
 
 import javax.swing.*;
@@ -40,7 +40,6 @@ import javax.swing.*;
 public class TrainListCellRenderer extends JPanel implements ListCellRenderer {
 
 	private PlayFrame pf;
-	private Point2D p;
 	private Train myT;
 	
 	/**
@@ -101,20 +100,9 @@ public class TrainListCellRenderer extends JPanel implements ListCellRenderer {
     	g2.drawString(text, 32+borderWidth*2, baseline);
     	g2.translate(1,1);
     	
-    	/*
-    	BufferedImage thumb = crw.get(myT);
+    	BufferedImage thumb = pf.thumbnails.get(myT);
     	if (thumb != null)
-    		g2.drawImage(thumb, 0, 0, this);
-    		*/
-    	p = myT.pos.getPoint();
-    	int x1 = (int)(p.getX()*Distance.getDefaultZoom());
-    	int y1 = (int)(p.getY()*Distance.getDefaultZoom());
-    	
-    	// center on this point
-    	x1 -= 16;
-    	y1 -= 16;
-    	
-    	g2.drawImage(pf.tlcr, 0, 0, 31, 31, x1, y1, x1+32, y1+32, null);  
+    		g2.drawImage(thumb, 0, 0, 31, 31, 0, 0, TrainThumbnails.SIZE, TrainThumbnails.SIZE, null);
     			
     	
     	
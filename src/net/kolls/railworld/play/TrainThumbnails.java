@@ -0,0 +1,214 @@
+package net.kolls.railworld.play;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import net.kolls.railworld.Distance;
+import net.kolls.railworld.RailSegment;
+import net.kolls.railworld.Train;
+import net.kolls.railworld.TrainGeometry;
+import net.kolls.railworld.tuic.TrainPainter;
+
+/**
+ * The small pictures of each train's surroundings shown in the train list.
+ * Each train has its own thumbnail, at the default zoom: the static layers
+ * of the map around it, with the nearby signals and trains drawn over them.
+ * A thumbnail is only redrawn when a train in it has moved, or another has come
+ * into it, and no more often than {@link #REFRESH_INTERVAL}.  One showing a signal,
+ * switch or other dynamic segment is redrawn every time, as these may change
+ * while no train moves.
+ * <p>
+ * {@link #refresh(Iterable)} must be called from the simulation thread, as it
+ * reads the trains.  {@link #get(Train)} may be called from any thread.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class TrainThumbnails {
+
+	/**
+	 * The width and height of a thumbnail, in pixels.
+	 */
+	public static final int SIZE = 32;
+
+	/**
+	 * The least time between refreshes, in milliseconds.
+	 */
+	public static final long REFRESH_INTERVAL = 250;
+
+	private static class Thumb {
+		// where on the map the thumbnail was drawn, the trains drawn in it and how they were placed
+		int mx = Integer.MIN_VALUE, my;
+		TrainGeometry[] geos = new TrainGeometry[0];
+		int[] versions = new int[0];
+		int seen;
+		// the one being shown, and the one to draw into next
+		volatile BufferedImage front;
+		BufferedImage back;
+	}
+
+	private final PlayCanvas canvas;
+	private final double zoom;
+
+	private final Map<Train, Thumb> thumbs = Collections.synchronizedMap(new IdentityHashMap<Train, Thumb>());
+	private long last;
+	private int stamp;
+
+	private final ArrayList<RailSegment> near = new ArrayList<RailSegment>();
+	private final IdentityHashMap<Train, Boolean> nearTrains = new IdentityHashMap<Train, Boolean>();
+	private final ArrayList<Train> drawn = new ArrayList<Train>();
+	private boolean dynamic;
+
+	/**
+	 * Create the thumbnails for a map being played.
+	 *
+	 * @param canvas The {@link PlayCanvas} showing the map
+	 */
+	public TrainThumbnails(PlayCanvas canvas) {
+		this.canvas = canvas;
+		zoom = Distance.getDefaultZoom();
+	}
+
+	/**
+	 * Redraw the thumbnails of any trains which have moved since they were last drawn,
+	 * and of those showing dynamic segments, unless the last refresh was too recent.  Thumbnails of trains which are gone are dropped.
+	 *
+	 * @param trains All trains
+	 * @return <code>true</code> if the thumbnails were refreshed, and so the list should be repainted
+	 */
+	public boolean refresh(Iterable<Train> trains) {
+		long now = System.currentTimeMillis();
+		if (now - last < REFRESH_INTERVAL) return false;
+		last = now;
+
+		stamp++;
+		for (Train t : trains) {
+			Thumb th = thumbs.get(t);
+			if (th == null) {
+				th = new Thumb();
+				thumbs.put(t, th);
+			}
+			th.seen = stamp;
+
+			Point2D p = t.pos.getPoint();
+			int mx = (int)p.getX() - (int)(SIZE / 2 / zoom);
+			int my = (int)p.getY() - (int)(SIZE / 2 / zoom);
+			findTrains(mx, my);
+			if (unchanged(th, mx, my) && !dynamic) continue;
+
+			if (th.back == null) th.back = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+			draw(mx, my, th.back);
+
+			BufferedImage shown = th.front;
+			th.front = th.back;
+			th.back = shown;
+		}
+
+		synchronized (thumbs) {
+			Iterator<Thumb> it = thumbs.values().iterator();
+			while (it.hasNext())
+				if (it.next().seen != stamp) it.remove();
+		}
+
+		return true;
+	}
+
+	// find the segments and trains in a thumbnail with its upper left corner at mx, my on the map,
+	// and whether any of the segments are dynamic
+	private void findTrains(int mx, int my) {
+		near.clear();
+		canvas.segmentIndex().query(new Rectangle2D.Double(mx, my, SIZE / zoom, SIZE / zoom), near);
+
+		// the segments know which trains are on them
+		nearTrains.clear();
+		drawn.clear();
+		dynamic = false;
+		for (RailSegment r : near) {
+			if (r.isDynamic()) dynamic = true;
+			for (Train o : r.trains())
+				if (nearTrains.put(o, Boolean.TRUE) == null)
+					drawn.add(o);
+		}
+	}
+
+	// check whether a thumbnail would show the same area and the same trains, unmoved,
+	// as when it was last drawn, and if not, remember what it will show
+	private boolean unchanged(Thumb th, int mx, int my) {
+		int n = drawn.size();
+		boolean same = th.mx == mx && th.my == my && th.geos.length == n;
+		for (int i = 0; same && i < n; i++) {
+			TrainGeometry geo = drawn.get(i).geometry();
+			same = th.geos[i] == geo && th.versions[i] == geo.version();
+		}
+		if (same) return true;
+
+		th.mx = mx;
+		th.my = my;
+		th.geos = new TrainGeometry[n];
+		th.versions = new int[n];
+		for (int i = 0; i < n; i++) {
+			th.geos[i] = drawn.get(i).geometry();
+			th.versions[i] = th.geos[i].version();
+		}
+		return false;
+	}
+
+	// draw the area found by findTrains into a thumbnail
+	private void draw(int mx, int my, BufferedImage img) {
+		Graphics2D g = img.createGraphics();
+		g.setComposite(AlphaComposite.Src);
+		canvas.drawStatic(g, mx, my, SIZE, SIZE, zoom);
+		g.setComposite(AlphaComposite.SrcOver);
+
+		g.scale(zoom, zoom);
+		g.translate(-mx, -my);
+
+		// as on the main display, signals and such go under the trains
+		for (RailSegment r : near)
+			if (r.isDynamic()) r.draw(4, g);
+
+		TrainPainter tp = new TrainPainter(canvas, g, false, null);
+		for (Train o : drawn)
+			o.geometry().visit(o, tp);
+		tp.flush();
+
+		g.dispose();
+	}
+
+	/**
+	 * Get the thumbnail for a train.
+	 *
+	 * @param t The train
+	 * @return The thumbnail, {@link #SIZE} pixels square, or <code>null</code> if none has been drawn yet.
+	 */
+	public BufferedImage get(Train t) {
+		Thumb th = thumbs.get(t);
+		return th == null ? null : th.front;
+	}
+}
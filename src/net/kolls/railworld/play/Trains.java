@@ -23,15 +23,21 @@ import net.kolls.railworld.Car;
 import net.kolls.railworld.Distance;
 import net.kolls.railworld.RailSegment;
 import net.kolls.railworld.Sound;
-import net.kolls.railworld.Sounds;
 import net.kolls.railworld.Train;
 import net.kolls.railworld.TrainControl;
+import net.kolls.railworld.World;
 import net.kolls.railworld.segment.*;
 import net.kolls.railworld.tuic.*;
 import net.kolls.railworld.play.ra.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.swing.*;
 import javax.swing.event.ListDataListener;
 import javax.swing.event.ListDataEvent;
@@ -54,6 +60,12 @@ public class Trains implements ListModel, Iterable<Train> {
 	private Train selectedT;
 	private Sound ls;
 	private JList trainList;
+	
+	private CollisionIndex contacts;
+	private ArrayList<Train> near;
+	
+	private ForkJoinPool pool;
+	private Regions regions;
 
 	/**
 	 * Create a train list with a particular controller panel and a visual list.
@@ -71,9 +83,21 @@ public class Trains implements ListModel, Iterable<Train> {
 		tv = new ArrayList<Train>();
 		trainList = tl;
 		
+		contacts = new CollisionIndex();
+		near = new ArrayList<Train>();
+		regions = new Regions();
+		
 		
 		
 	}
+	
+	/**
+	 * Create a train list without any display, for running a
+	 * {@link SimulationEngine} with no user interface.
+	 */
+	public Trains() {
+		this(null, null);
+	}
 
 	
 	
@@ -113,7 +137,7 @@ public class Trains implements ListModel, Iterable<Train> {
 		
 		if (selectedT != null) selectedT.getController().setSelected(null);
 		
-		tch.removeAll();
+		if (tch != null) tch.removeAll();
 		
 
 		
@@ -124,7 +148,7 @@ public class Trains implements ListModel, Iterable<Train> {
 		
 		if (selectedT != null) {
 			
-			tch.add(selectedT.getController());
+			if (tch != null) tch.add(selectedT.getController());
 			
 			selectedT.getController().setSelected(c);
 			selectedT.getController().select();
@@ -133,12 +157,14 @@ public class Trains implements ListModel, Iterable<Train> {
 			// since our tv vector models the list
 			// the indices should be the same
 			
-			trainList.setSelectedIndex(tv.indexOf(t));
-			trainList.ensureIndexIsVisible(tv.indexOf(t));
+			if (trainList != null) {
+				trainList.setSelectedIndex(tv.indexOf(t));
+				trainList.ensureIndexIsVisible(tv.indexOf(t));
+			}
 			 
 		} else {
 			
-			trainList.clearSelection();
+			if (trainList != null) trainList.clearSelection();
 			
 			if (ls != null) {
 				ls.stop();
@@ -148,7 +174,7 @@ public class Trains implements ListModel, Iterable<Train> {
 		}
 		
 		
-		tch.repaint();
+		if (tch != null) tch.repaint();
 	}
 
 	/**
@@ -168,12 +194,10 @@ public class Trains implements ListModel, Iterable<Train> {
 		t2.setController( (TrainControl)t.getController().newInstance());
 		t2.getController().setTrainActionScriptNotify(t.getController().getTrainActionScriptNotify());
 
-		TrainEndPointFinder tp = new TrainEndPointFinder();
-		tp.act(t);
-		CLoc pos = tp.p;
+		CLoc tail = t.geometry().tail();
 		
 		
-		t2.pos = pos;
+		t2.pos = new CLoc(tail.r, tail.orig, tail.per);
 
 		t2.setThrottle(t.getThrottle());
 		t2.setBrake(t.getBrake());
@@ -304,20 +328,52 @@ public class Trains implements ListModel, Iterable<Train> {
 	/**
 	 * Process all train behavior for one step.  Perform joins, splits, and reverses as requested.
 	 * Move trains.  Detect accidents.
+	 * <p>
+	 * If a pool has been given with {@link #setPool(ForkJoinPool)}, the trains are divided
+	 * into {@link Regions} which are moved at the same time.  Trains are otherwise moved
+	 * one after another, and the first join, removal or accident ends the step.
 	 * 
 	 * @throws RailAccident If an accident occurs.
 	 */
 	public void step() throws RailAccident {
-
-		RailSegment l;
-		Train t, t2;
-		int i;
-		Train nt;
-		
+		boolean done;
+		if (pool == null || size() < 2 || requested())
+			done = stepAll();
+		else
+			done = stepRegions();
 		
+		if (done) engineSound();
+	}
+	
+	/**
+	 * Move the trains in independent regions at the same time.  Only moves along
+	 * a segment are made in parallel; a train entering another segment, and everything
+	 * after it in the list, waits until the trains before it have moved.
+	 * So the outcome is the same as moving all trains one after another:
+	 * the first join, removal or accident in the order of the list ends the step,
+	 * and the trains after it do not move.
+	 * 
+	 * @param p The pool to move regions on, or <code>null</code> to move all trains one after another.
+	 */
+	public void setPool(ForkJoinPool p) {
+		pool = p;
+	}
+	
+	// does any train want reversing or splitting?
+	private boolean requested() {
+		for (int i = 0; i < size(); i++)
+			if (get(i).reverse || get(i).split) return true;
+		return false;
+	}
+	
+	// step every train in turn; false if the step was ended early
+	private boolean stepAll() throws RailAccident {
+		Train t;
+		int i;
 		
-		TrainEndPointFinder tp = new TrainEndPointFinder();
-		int joinDist = new Distance(10, Distance.Measure.FEET).iPixels();
+		contacts.clear();
+		for (i = 0; i < size(); i++)
+			contacts.add(get(i));
 		
 		for (i = 0; i < size(); i++) {
 			t = get(i);
@@ -328,7 +384,7 @@ public class Trains implements ListModel, Iterable<Train> {
 					select(reverse(t), null);
 				else
 					reverse(t);
-				return;
+				return false;
 			}
 			// check if need to be split
 			if (t.split) {
@@ -336,246 +392,436 @@ public class Trains implements ListModel, Iterable<Train> {
 					select(split(t), null);
 				else
 					split(t);
-				Sounds.uncouple.play();
-				return;
+				World.current().sounds().uncouple.play();
+				return false;
 			}
 			
 			// motionless trains can't initiate any action
 			if (t.vel() == 0 && t.getThrottle() == 0) continue;
 			
+			Outcome a = move(t, contacts, near);
+			if (a != null) {
+				apply(a);
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	private class RegionStep extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final int[] members;
+		private final Train[] ts;
+		private final World world;
+		
+		private final CollisionIndex rc = new CollisionIndex();
+		private final ArrayList<Train> rn = new ArrayList<Train>();
+		
+		// where each train's ends were filed when the step began, and whether it has moved since
+		private final RailSegment[] heads, tails;
+		private final boolean[] moved;
+		
+		// the trains before next are done with for this step;
+		// the last round went as far as reached, saving each train it moved
+		int next, reached;
+		private final double[] per, vel;
+		private final int[] throttle;
+		
+		// the first train in list order any region has had to stop at this round
+		AtomicInteger stop;
+		
+		RegionStep(int[] m, World w) {
+			members = m;
+			world = w;
+			ts = new Train[m.length];
+			heads = new RailSegment[m.length];
+			tails = new RailSegment[m.length];
+			moved = new boolean[m.length];
+			per = new double[m.length];
+			vel = new double[m.length];
+			throttle = new int[m.length];
+			for (int i = 0; i < m.length; i++) {
+				Train t = Trains.this.get(m[i]);
+				CLoc tail = t.geometry().tail();
+				ts[i] = t;
+				heads[i] = t.pos.r;
+				tails[i] = tail == null ? null : tail.r;
+				rc.add(t, heads[i], tails[i]);
+			}
+		}
+		
+		@Override
+		protected void compute() {
+			World old = world.bind();
+			try {
+				stepRegion();
+			} finally {
+				World.restore(old);
+			}
+		}
+		
+		// move trains until one would do more than advance along its segment
+		private void stepRegion() {
+			int i;
+			for (i = next; i < ts.length; i++) {
+				if (members[i] > stop.get()) break;
+				
+				Train t = ts[i];
+				if (t.vel() == 0 && t.getThrottle() == 0) continue;
+				
+				if (!plain(t, rc, rn)) {
+					lower(stop, members[i]);
+					break;
+				}
+				
+				per[i] = t.pos.per;
+				vel[i] = t.vel();
+				throttle[i] = t.getThrottle();
+				t.pos.per = t.pos.r.step(t.pos.per, t.vel());
+				t.adjust();
+				rc.add(t);
+				moved[i] = true;
+			}
+			reached = i;
+		}
+		
+		// put back the trains moved this round which come after the given train in list order
+		void undoAfter(int cut) {
+			int i = next;
+			while (i < reached && members[i] <= cut) i++;
+			next = i;
+			if (i == reached) return;
 			
-			// check if train is off the map
-			// this method will break if the
-			// train is completely on a hidden line segment
-			// which directly abuts an end segment
-			
+			for (; i < reached; i++) {
+				if (!moved[i]) continue;
+				Train t = ts[i];
+				t.pos.per = per[i];
+				t.setVel(vel[i]);
+				t.setThrottle(throttle[i]);
+				moved[i] = false;
+			}
 			
+			// file the trains as they would be had the undone ones never moved
+			rc.clear();
+			for (i = 0; i < ts.length; i++)
+				rc.add(ts[i], heads[i], tails[i]);
+			for (i = 0; i < ts.length; i++)
+				if (moved[i]) rc.add(ts[i]);
+		}
+		
+		// whether the region stopped at the given train
+		boolean stoppedAt(int cut) {
+			return next < ts.length && members[next] == cut;
+		}
+		
+		// move the train the region stopped at, in full
+		Outcome moveNext() throws RailAccident {
+			int i = next++;
+			moved[i] = true;
+			return move(ts[i], rc, rn);
+		}
+	}
+	
+	private static void lower(AtomicInteger a, int v) {
+		int c;
+		while (v < (c = a.get()))
+			if (a.compareAndSet(c, v)) return;
+	}
+	
+	/*
+	 * Step each region at once, with the same outcome as stepAll; false if the step was ended early.
+	 * Moves which only advance a train along its segment are made in parallel, and each
+	 * region stops at the first train which would enter another segment or end the step.
+	 * Such moves of trains after the first of these in list order are then undone,
+	 * that train is moved in full, and unless it ended the step the regions carry on.
+	 */
+	private boolean stepRegions() throws RailAccident {
+		List<int[]> parts = regions.partition(this);
+		if (parts.size() == 1) return stepAll();
+		
+		ArrayList<RegionStep> steps = new ArrayList<RegionStep>(parts.size());
+		for (int[] p : parts)
+			steps.add(new RegionStep(p, World.current()));
+		
+		final ArrayList<RegionStep> going = new ArrayList<RegionStep>(steps.size());
+		while (true) {
+			AtomicInteger stop = new AtomicInteger(Integer.MAX_VALUE);
+			going.clear();
+			for (RegionStep s : steps) {
+				if (s.next == s.members.length) continue;
+				s.reinitialize();
+				s.stop = stop;
+				going.add(s);
+			}
+			if (going.isEmpty()) return true;
 			
+			pool.invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+				
+				@Override
+				protected void compute() {
+					invokeAll(going);
+				}
+			});
 			
+			int cut = stop.get();
+			RegionStep at = null;
+			for (RegionStep s : going) {
+				s.undoAfter(cut);
+				if (s.stoppedAt(cut)) at = s;
+			}
+			if (at == null) return true;
 			
-			tp.act(t);
-			if (t.pos.r == tp.p.r && t.pos.r instanceof HiddenSegment && t.pos.r.dest(null) instanceof EESegment) {
-				remove(i);
-				t.pos.r.trains().clear();
-				if (selectedT == t) select(null, null);
-				return;
+			Outcome a = at.moveNext();
+			if (a != null) {
+				apply(a);
+				return false;
 			}
+		}
+	}
+	
+	/*
+	 * Whether moving a train would only advance it along the segment it is on,
+	 * without ending the step.  This changes nothing.
+	 */
+	private boolean plain(Train t, CollisionIndex contacts, ArrayList<Train> near) {
+		try {
+			if (contact(t, contacts, near) != null) return false;
+		} catch (RailAccident ra) {
+			return false;
+		}
+		
+		RailSegment r = t.pos.r;
+		if (r.lengthFeet() == 0) return false;
+		if (r.singleton() && r.trains().size() > 1) return false;
+		return r.step(t.pos.per, t.vel()) != 1;
+	}
 
+	// what a train did which ends the step
+	private static final int OFF_MAP = 0, HEAD_TO_HEAD = 1, HEAD_TO_TAIL = 2;
+	
+	private static class Outcome {
+		final int kind;
+		final Train t, t2;
+		
+		Outcome(int k, Train a, Train b) {
+			kind = k;
+			t = a;
+			t2 = b;
+		}
+	}
+	
+	/*
+	 * Check a train, before it moves, for leaving the map or meeting another train,
+	 * either of which ends the step.  Returns what the train did, or null.
+	 * This changes nothing.
+	 */
+	private Outcome contact(Train t, CollisionIndex contacts, ArrayList<Train> near) throws RailAccident {
+		Train t2;
+		CLoc tail;
+		int joinDist = new Distance(10, Distance.Measure.FEET).iPixels();
+		
+		// check if train is off the map
+		// this method will break if the
+		// train is completely on a hidden line segment
+		// which directly abuts an end segment
+		
+		tail = t.geometry().tail();
+		if (t.pos.r == tail.r && t.pos.r instanceof HiddenSegment && t.pos.r.dest(null) instanceof EESegment)
+			return new Outcome(OFF_MAP, t, null);
+		
+		
+		// find forward segments to joinDist
+		// this allows to join if they happen to be right on a segment boundary
+		// don't join on zero length segments, skip to the next "real" segment
+		ArrayList<RailSegment> fsegs = t.pos.r.destNZ(t.pos.orig);
+		RailSegment nextseg = fsegs.get(fsegs.size() - 1);
+		
+		// only trains with an end on one of these segments can be hit,
+		// whether or not they occupy the segment the front of this train is on
+		contacts.near(t.pos.r, nextseg, t, near);
+		
+		for (int j = 0; j < near.size(); j++) {
+			t2 = near.get(j);
 			
 			
-			
-			// TODO: this could cause a crash because
-			// if the train is aligned right on the edge of the next segment
-			// then the other train won't see it
-			Iterator<Train> it = t.pos.r.trains().iterator();
-			
-			
-
-			
-			while (it.hasNext()) {
-				t2 = it.next();
-				
-				if (t2 == t) continue;
-
-
-
-
-				// find forward segments to joinDist
-				// this allows to join if they happen to be right on a segment boundary
-				// don't join on zero length segments, skip to the next "real" segment
-				ArrayList<RailSegment> fsegs = t.pos.r.destNZ(t.pos.orig);
-				RailSegment nextseg = fsegs.get(fsegs.size() - 1);
-				
+			// for collision: is front of train intersecting 
+			// another train?
+			if ( (t2.pos.r == t.pos.r || t2.pos.r == nextseg) && t2.pos.getPoint().distance(t.pos.getPoint()) < joinDist) {
+				// front of my train hits front of other train
 				
+				// if total speed is 5 MPH or less, we join (1 mph grace)
+				double rv = t.vel() + t2.vel();
 				
-				// for collision: is front of train intersecting 
-				// another train?
-				if ( (t2.pos.r == t.pos.r || t2.pos.r == nextseg) && t2.pos.getPoint().distance(t.pos.getPoint()) < joinDist) {
-					// front of my train hits front of other train
-					
-					// if total speed is 5 MPH or less, we join (1 mph grace)
-					double rv = t.vel() + t2.vel();
-					
-					if (rv > MAX_JOIN_FT) {
-						/* remove(t);
-						remove(t2);
-						if (selectedT == t || selectedT == t2) select(null, null);
-						*/
-						throw new HeadOn(t, t2, t2.pos.getPoint());
-					}
-					
-					double nv;
-					
-					if (momentum(t) > momentum(t2)) {
-						nt = join(reverse(t2), t);
-						nv = (t.vel()*t.weight() - t2.vel()*t2.weight()) / ((t.weight()+t2.weight()));
-						
-						
-					} else {
-						nt = join(reverse(t), t2);
-						nv = (t2.vel()*t2.weight() - t.vel()*t.weight()) / ((t.weight()+t2.weight()));
-						
-						
-					}
-					if (nt.getBrake() == false) nt.setVel(nv);
-					if (selectedT == t || selectedT == t2) select(nt, null);
-					
-					Sounds.couple.play();
-					return;
-				}
-				
-
-				
-				
-				
-				
-				
-				tp.act(t2);
-
-				
-				if ( (tp.p.r == t.pos.r || tp.p.r == nextseg) && tp.p.getPoint().distance(t.pos.getPoint()) < joinDist) {
-					// front of my train hits end of other train
-					
-					// if total speed is 5 MPH or less, we join (1 mph grace)
-					double rv = Math.abs(t.vel() - t2.vel()); 
-					if (rv > MAX_JOIN_FT) {
-						/*remove(t);
-						remove(t2);
-						if (selectedT == t || selectedT == t2) select(null, null);
-						*/
-						throw new RearEnd(t, t2, t.pos.getPoint());
-					}
-
-					
-					nt = join(t2, t);
-					double nv = (t.vel()*t.weight() + t2.vel()*t2.weight()) / ((t.weight()+t2.weight()));
-					if (nt.getBrake() == false) nt.setVel(nv);
-					if (selectedT == t || selectedT == t2) select(nt, null);
-					
-					Sounds.couple.play();
-					return;
+				if (rv > MAX_JOIN_FT) {
+					throw new HeadOn(t, t2, t2.pos.getPoint());
 				}
 				
-				
-				  
-
-				
+				return new Outcome(HEAD_TO_HEAD, t, t2);
 			}
-
 			
 			
-
+			tail = t2.geometry().tail();
 			
 			
-			// can't replace with destNZ because of the call to enter
-			while (t.pos.r.length().feet() == 0) { // jump over 0 length items
+			if ( (tail.r == t.pos.r || tail.r == nextseg) && tail.getPoint().distance(t.pos.getPoint()) < joinDist) {
+				// front of my train hits end of other train
 				
-				t.pos.r.enter(t);
-				
-
+				// if total speed is 5 MPH or less, we join (1 mph grace)
+				double rv = Math.abs(t.vel() - t2.vel()); 
+				if (rv > MAX_JOIN_FT) {
+					throw new RearEnd(t, t2, t.pos.getPoint());
+				}
 				
-				l = t.pos.r;  // makes less jumpy
-				t.pos.r = t.pos.r.dest(t.pos.orig);
-				t.pos.orig = l;
+				return new Outcome(HEAD_TO_TAIL, t, t2);
 			}
-			t.pos.per = t.pos.r.step(t.pos.per, t.vel());
+			
+		}
 		
-			// this can only happen if a train enters on top of another train
-			if (t.pos.r != null && t.pos.r.singleton() && t.pos.r.trains().size() > 1) {
-				t2 = t.pos.r.trains().toArray(new Train[0])[1];
-				if (t == t2)
-					t2 = t.pos.r.trains().toArray(new Train[0])[0];
-				
+		return null;
+	}
+	
+	/*
+	 * Move one train, checking it against the trains in the index.
+	 * Returns what the train did if that ends the step, as it changes the list of trains,
+	 * or null if the train simply moved.  This changes nothing but the train
+	 * and the segments it enters, so it may be called for trains in different regions at once.
+	 */
+	private Outcome move(Train t, CollisionIndex contacts, ArrayList<Train> near) throws RailAccident {
+		RailSegment l;
+		Train t2;
+		
+		Outcome a = contact(t, contacts, near);
+		if (a != null) return a;
+		
+		// can't replace with destNZ because of the call to enter
+		while (t.pos.r.lengthFeet() == 0) { // jump over 0 length items
+			
+			t.pos.r.enter(t);
+			
+			
+			
+			l = t.pos.r;  // makes less jumpy
+			t.pos.r = t.pos.r.dest(t.pos.orig);
+			t.pos.orig = l;
+		}
+		t.pos.per = t.pos.r.step(t.pos.per, t.vel());
+		
+		// this can only happen if a train enters on top of another train
+		if (t.pos.r != null && t.pos.r.singleton() && t.pos.r.trains().size() > 1) {
+			t2 = t.pos.r.trains().toArray(new Train[0])[1];
+			if (t == t2)
+				t2 = t.pos.r.trains().toArray(new Train[0])[0];
+			
+			throw new SideOn(t, t2, t.pos.getPoint());
+			
+		}
 		
+		if (t.pos.per == 1) {
+			
+			
+			t.pos.per = 0;
+			l = t.pos.r;
+			t.pos.r = t.pos.r.dest(t.pos.orig);
+			
+			
+			// we repeat this here with one important change
+			// if the new segment the train is entering is singleton and will be accident
+			// the train does not actually enter the segment (no enter is recorded, and the pos is retained at the old segment)
+			// this prevents a switch from flipping in favor of a crash-causing train, for instance
+			// note we check > 0 because this train isn't there yet
+			if (t.pos.r != null && t.pos.r.singleton() && t.pos.r.trains().size() > 0) {
+				t2 = t.pos.r.trains().toArray(new Train[0])[0];
 				
-				t.pos.r.trains().clear();
-				t2.pos.r.trains().clear();
 				
-				/*
-				if (t == selectedT || t2 == selectedT) select(null, null);
 				
-				remove(t);
-				remove(t2);
-				*/
+				t.pos.r = l;
+				t.pos.per = 1 - t.pos.r.pixelStep(0);
+				
+				
 				throw new SideOn(t, t2, t.pos.getPoint());
 				
 			}
-
-			if (t.pos.per == 1) {
-				
+			
+			if (t.pos.r == null) {
+				// edge overrun
 				
-				t.pos.per = 0;
-				l = t.pos.r;
-				t.pos.r = t.pos.r.dest(t.pos.orig);
 				
 				
-				// we repeat this here with one important change
-				// if the new segment the train is entering is singleton and will be accident
-				// the train does not actually enter the segment (no enter is recorded, and the pos is retained at the old segment)
-				// this prevents a switch from flipping in favor of a crash-causing train, for instance
-				// note we check > 0 because this train isn't there yet
-				if (t.pos.r != null && t.pos.r.singleton() && t.pos.r.trains().size() > 0) {
-					t2 = t.pos.r.trains().toArray(new Train[0])[0];
-					
-					
-					
-					t.pos.r = l;
-					t.pos.per = 1 - t.pos.r.pixelStep(0);
-					
-					
-					
-					/*
-					if (t == selectedT || t2 == selectedT) select(null, null);
-					remove(t);
-					remove(t2);
-					*/
-					throw new SideOn(t, t2, t.pos.getPoint());
-					
-				}
+				t.pos.r = l;
+				t.pos.per = 1 - t.pos.r.pixelStep(0); 
+				//0.999;
 				
-				if (t.pos.r == null) {
-					// edge overrun
-					
-
-					
-					t.pos.r = l;
-					t.pos.per = 1 - t.pos.r.pixelStep(0); 
-					//0.999;
-					
-					// if total speed is more than 5 MPH, it's an accident  (1 mph grace)
-					
-					if (t.vel() > MAX_JOIN_FT) {
-						//remove(t);
-						//if (selectedT == t) select(null, null);
-						throw new OverRun(t, t.pos.getPoint());
-					}
-
-					
-					t.setThrottle(0);
-					t.setVel(0);
-				} else t.pos.orig = l;
-
+				// if total speed is more than 5 MPH, it's an accident  (1 mph grace)
 				
+				if (t.vel() > MAX_JOIN_FT) {
+					throw new OverRun(t, t.pos.getPoint());
+				}
 				
-				t.pos.r.enter(t);
-
 				
-			}
+				t.setThrottle(0);
+				t.setVel(0);
+			} else t.pos.orig = l;
 			
-
-			// move train
-			t.adjust();
 			
 			
+			t.pos.r.enter(t);
+			
+			
+		}
+		
+		
+		// move train
+		t.adjust();
+		
+		// later trains must see where this one is now
+		contacts.add(t);
+		
+		return null;
+	}
+	
+	// make the change to the list of trains a moving train has called for
+	private void apply(Outcome a) {
+		Train t = a.t, t2 = a.t2, nt;
+		double nv;
+		
+		switch (a.kind) {
+		case OFF_MAP:
+			remove(t);
+			if (selectedT == t) select(null, null);
+			return;
+			
+		case HEAD_TO_HEAD:
+			if (momentum(t) > momentum(t2)) {
+				nt = join(reverse(t2), t);
+				nv = (t.vel()*t.weight() - t2.vel()*t2.weight()) / ((t.weight()+t2.weight()));
+			} else {
+				nt = join(reverse(t), t2);
+				nv = (t2.vel()*t2.weight() - t.vel()*t.weight()) / ((t.weight()+t2.weight()));
+			}
+			break;
+			
+		default:
+			nt = join(t2, t);
+			nv = (t.vel()*t.weight() + t2.vel()*t2.weight()) / ((t.weight()+t2.weight()));
+			break;
 		}
 		
+		if (nt.getBrake() == false) nt.setVel(nv);
+		if (selectedT == t || selectedT == t2) select(nt, null);
 		
-		// play correct engine sound
+		World.current().sounds().couple.play();
+	}
+	
+	// play correct engine sound
+	private void engineSound() {
 		Sound ds = null;
 		
 		if (selectedT != null) {
 			if (selectedT.hasEngine()) {
-				ds = Sounds.engine[selectedT.getThrottle()];
+				ds = World.current().sounds().engine[selectedT.getThrottle()];
 			}
 		}
 		if (ds != ls) {
@@ -583,11 +829,7 @@ public class Trains implements ListModel, Iterable<Train> {
 			ls = ds;
 			if (ls != null) ls.loop();
 		}
-
-		
-		
-		
-	}	
+	}
 	
 	
 	
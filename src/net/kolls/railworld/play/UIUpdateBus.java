@@ -0,0 +1,83 @@
+package net.kolls.railworld.play;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.util.LinkedHashSet;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Carries display updates from the simulation to the Swing event thread without
+ * making the simulation wait.  During a step, whatever needs redisplaying
+ * (such as a {@link net.kolls.railworld.TrainControl}) is marked; at the end of the step
+ * everything marked is run on the event thread in one batch.
+ * <p>
+ * Each update reads the current state when it runs, so only the latest one matters.
+ * If the event thread falls behind, updates marked meanwhile join the batch
+ * already waiting rather than queuing another, and an update marked several
+ * times is only run once.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class UIUpdateBus {
+
+	// guarded by this
+	private LinkedHashSet<Runnable> dirty = new LinkedHashSet<Runnable>();
+	private LinkedHashSet<Runnable> running = new LinkedHashSet<Runnable>();
+	private boolean posted;
+
+	private final Runnable drain = new Runnable() {
+		public void run() {
+			LinkedHashSet<Runnable> batch;
+			synchronized (UIUpdateBus.this) {
+				batch = dirty;
+				dirty = running;
+				running = batch;
+				posted = false;
+			}
+
+			for (Runnable r : batch)
+				r.run();
+			batch.clear();
+		}
+	};
+
+	/**
+	 * Mark something as needing to be run on the event thread.
+	 * May be called from any thread.
+	 *
+	 * @param r The update
+	 */
+	public synchronized void mark(Runnable r) {
+		dirty.add(r);
+	}
+
+	/**
+	 * Send everything marked to the event thread, unless a batch is already waiting
+	 * there, in which case it will pick them up.  Does not wait.
+	 */
+	public void publish() {
+		synchronized (this) {
+			if (posted || dirty.isEmpty()) return;
+			posted = true;
+		}
+		SwingUtilities.invokeLater(drain);
+	}
+}
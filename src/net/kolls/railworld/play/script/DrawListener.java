@@ -29,10 +29,12 @@ import java.awt.Rectangle;
 public interface DrawListener {
 	/**
 	 * Called at every step to allow the script to draw on the map.  This is called
-	 * after all z-levels for segments.
+	 * after all z-levels for segments.  It is called even when nothing of interest is
+	 * on screen; anything drawn outside <code>onScreen</code> is clipped away, so a
+	 * script with many things to draw may skip those outside it.
 	 * 
 	 * @param gc  Graphics context of the image to draw on.
-	 * @param onScreen What portion (coordinates) of the image are on screen.
+	 * @param onScreen What portion (map coordinates) of the image are on screen.
 	 */
 	void draw(Graphics2D gc, Rectangle onScreen);
 }
@@ -39,10 +39,10 @@ public interface Script extends SaveLoad {
 	/**
 	 * Setup the script.  Called once when the game begins.
 	 * 
-	 * @param pf The {@link PlayFrame} for this game
+	 * @param game The {@link Game} being played
 	 *
 	 */
-	void init(PlayFrame pf);
+	void init(Game game);
 	
 	
 	/**
@@ -23,11 +23,14 @@ package net.kolls.railworld.play.script;
 
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
+import java.awt.Shape;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.kolls.railworld.RailSegment;
 import net.kolls.railworld.Train;
-import net.kolls.railworld.play.PlayFrame;
+import net.kolls.railworld.play.Game;
 import net.kolls.railworld.play.RailAccident;
 
 
@@ -52,7 +55,8 @@ public class ScriptManager extends ArrayList<Script> {
 	public ScriptManager() {
 		super();
 		drawables = new ArrayList<DrawListener>();
-		tals = new ArrayList<TalCondition>();
+		talsByEvent = new ConcurrentHashMap<String, TalBucket>();
+		talsAnyEvent = new TalBucket();
 	}
 	
 	
@@ -117,10 +121,45 @@ public class ScriptManager extends ArrayList<Script> {
 	 */
 	protected ArrayList<DrawListener> drawables;
 	
+	private static final TalCondition[] NO_TALS = new TalCondition[0];
+	
 	/**
-	 * All train listeners
+	 * The train action listeners for one event, or for every event.  Each array is
+	 * replaced, never changed, when a listener is added or removed, so a dispatch
+	 * in progress carries on with the listeners it started with.
 	 */
-	protected ArrayList<TalCondition> tals;
+	private static class TalBucket {
+		/**
+		 * Listeners for any train
+		 */
+		volatile TalCondition[] anyTrain = NO_TALS;
+		
+		/**
+		 * Listeners for one train
+		 */
+		final ConcurrentHashMap<Train, TalCondition[]> byTrain = new ConcurrentHashMap<Train, TalCondition[]>();
+		
+		TalCondition[] forTrain(Train t) {
+			if (t == null) return NO_TALS;
+			TalCondition[] a = byTrain.get(t);
+			return a == null ? NO_TALS : a;
+		}
+	}
+	
+	/**
+	 * Train listeners by event name
+	 */
+	private ConcurrentHashMap<String, TalBucket> talsByEvent;
+	
+	/**
+	 * Train listeners for every event
+	 */
+	private TalBucket talsAnyEvent;
+	
+	// guards changes to the listeners; dispatch does not lock
+	private final Object talLock = new Object();
+	private long talOrder;
+	private volatile int talCount;
 	
 	/**
 	 * Add a listener to be notified when the canvas is drawn.
@@ -150,7 +189,33 @@ public class ScriptManager extends ArrayList<Script> {
 	 * @see TalCondition
 	 */
 	public void addTrainActionListener(TrainActionListener tal, Train t, String event) {
-		tals.add(new TalCondition(tal,t,event));
+		TalCondition tc = new TalCondition(tal,t,event);
+		
+		synchronized (talLock) {
+			tc.order = talOrder++;
+			
+			TalBucket b = talsAnyEvent;
+			if (event != null) {
+				b = talsByEvent.get(event);
+				if (b == null) {
+					b = new TalBucket();
+					talsByEvent.put(event, b);
+				}
+			}
+			
+			if (t == null) {
+				b.anyTrain = append(b.anyTrain, tc);
+			} else {
+				b.byTrain.put(t, append(b.forTrain(t), tc));
+			}
+			talCount++;
+		}
+	}
+	
+	private static TalCondition[] append(TalCondition[] a, TalCondition tc) {
+		TalCondition[] n = Arrays.copyOf(a, a.length + 1);
+		n[a.length] = tc;
+		return n;
 	}
 	
 	/**
@@ -162,41 +227,66 @@ public class ScriptManager extends ArrayList<Script> {
 	 * @param event Event name
 	 */
 	public void removeTrainActionListener(TrainActionListener tal, Train t, String event) {
-		// this work around is needed because we can't say remove new talc ...
-		
-		TalCondition rc = null;
-		TalCondition compareTo = new TalCondition(tal, t, event);
-		for (TalCondition talc : tals) {
-			if (talc.equals(compareTo)) rc = talc; 
+		synchronized (talLock) {
+			TalBucket b = event == null ? talsAnyEvent : talsByEvent.get(event);
+			if (b == null) return;
+			
+			TalCondition[] a = t == null ? b.anyTrain : b.forTrain(t);
+			
+			// the most recently added match
+			int i = a.length - 1;
+			while (i >= 0 && a[i].tal != tal) i--;
+			if (i < 0) return;
+			
+			TalCondition[] n = new TalCondition[a.length - 1];
+			System.arraycopy(a, 0, n, 0, i);
+			System.arraycopy(a, i + 1, n, i, n.length - i);
+			
+			if (t == null) b.anyTrain = n;
+			else if (n.length == 0) b.byTrain.remove(t);
+			else b.byTrain.put(t, n);
+			talCount--;
 		}
-		tals.remove(rc);
+	}
 	
+	/**
+	 * 
+	 * @return The number of draw listeners and train action listeners
+	 */
+	public int listenerCount() {
+		return drawables.size() + talCount;
 	}
 	
 	/**
 	 * The canvas is being drawn. Notify all
-	 * draw listeners.  
+	 * draw listeners.  Every listener is called, as many use drawing to keep time,
+	 * but the graphics context is clipped to the on-screen rectangle while they draw.
 	 * 
 	 * @param gc The canvas' graphics context
-	 * @param onScreen The on-screen rectangle
+	 * @param onScreen The on-screen rectangle, on the map
 	 */
 	public void draw(Graphics2D gc, Rectangle onScreen) {
 
-		for (DrawListener d : drawables)
-			d.draw(gc, onScreen);
-		
+		Shape clip = gc.getClip();
+		gc.clip(onScreen);
+		try {
+			for (DrawListener d : drawables)
+				d.draw(gc, onScreen);
+		} finally {
+			gc.setClip(clip);
+		}
 		
 	}
 
 	/**
 	 * The game is being started.
 	 * 
-	 * @param pf The game's PlayFrame.
+	 * @param game The game.
 	 */
-	public void init(PlayFrame pf) {
+	public void init(Game game) {
 		
 		for (Script s : this)
-			s.init(pf);
+			s.init(game);
 
 	}
 	
@@ -243,12 +333,45 @@ public class ScriptManager extends ArrayList<Script> {
 	 * @return True if the event should be canceled, False otherwise.
 	 */
 	public boolean trainAction(Train t, String s) {
+		// the listeners that apply: this event or any event, this train or any train
+		TalBucket e = s == null ? null : talsByEvent.get(s);
+		TalCondition[] l0 = e == null ? NO_TALS : e.anyTrain;
+		TalCondition[] l1 = e == null ? NO_TALS : e.forTrain(t);
+		TalCondition[] l2 = talsAnyEvent.anyTrain;
+		TalCondition[] l3 = talsAnyEvent.forTrain(t);
+		
+		// usually only one kind applies
+		TalCondition[] only = null;
+		int kinds = 0;
+		if (l0.length > 0) { only = l0; kinds++; }
+		if (l1.length > 0) { only = l1; kinds++; }
+		if (l2.length > 0) { only = l2; kinds++; }
+		if (l3.length > 0) { only = l3; kinds++; }
+		
+		if (kinds == 0) return false;
+		
 		boolean v = false;
 		
-		for (TalCondition tc : tals) {
-			if (tc.t != null && tc.t != t) continue; // train must match or be null
-			if (tc.event != null && tc.event.equals(s) == false) continue; // event must match or be null
+		if (kinds == 1) {
+			for (TalCondition tc : only) {
+				boolean cv = tc.tal.trainAction(t, s);
+				v = cv || v; // once true, stay true
+			}
+			return v;
+		}
+		
+		// otherwise notify in the order they were added
+		TalCondition[][] ls = { l0, l1, l2, l3 };
+		int[] pos = new int[ls.length];
+		while (true) {
+			int w = -1;
+			for (int i = 0; i < ls.length; i++) {
+				if (pos[i] < ls[i].length && (w == -1 || ls[i][pos[i]].order < ls[w][pos[w]].order))
+					w = i;
+			}
+			if (w == -1) break;
 			
+			TalCondition tc = ls[w][pos[w]++];
 			boolean cv = tc.tal.trainAction(t, s);
 			v = cv || v; // once true, stay true
 		}
@@ -276,29 +399,21 @@ public class ScriptManager extends ArrayList<Script> {
 	 * The runnable "r" will be run on the train's next step.
 	 * This can be used to defer some action one step, or
 	 * create an accident from a method not approved for throwing accidents.
+	 * It is safe to call while train actions are being dispatched.
 	 * 
-	 * @param pf The PlayFrame to reference
+	 * @param game The game to reference
 	 * @param t The train to watch
 	 * @param r The runnable to run
 	 */
-	public static void DeferIntoStep(final PlayFrame mpf, final Train train, final Runnable r) {
+	public static void DeferIntoStep(final Game game, final Train train, final Runnable r) {
 		
 		final TrainActionListener tal = new TrainActionListener() {
 			
 			@Override
 			public boolean trainAction(Train t, String action) {
 				if (t == train && action.equals("step")) {
-					
-					final TrainActionListener _tal = this;
-					// to avoid a concurrent modification
-				 	// of removing the listener while we are IN the listener
-				 	// delay it until the next loop
-				 	mpf.gl.runInLoop(new java.lang.Runnable() {
-				 		public void run() {
-				 			mpf.jdb.sm.removeTrainActionListener(_tal,
-			 					train, "step");
-			 				}
-			 			});	 
+					// listeners may be removed while they are being notified
+					game.scripts().removeTrainActionListener(this, train, "step");
 					
 					r.run();
 				}
@@ -307,17 +422,7 @@ public class ScriptManager extends ArrayList<Script> {
 			
 		};
 		
-		
-		// to avoid a concurrent modification
-	 	// of adding the listener while we are IN the listener
-	 	// delay it until the next loop
-	 	mpf.gl.runInLoop(new java.lang.Runnable() {
-	 		public void run() {
-	 			mpf.jdb.sm.addTrainActionListener(tal,
- 					train, "step");
- 				}
- 			});
-	 	
+		game.scripts().addTrainActionListener(tal, train, "step");
 	}
 	
 	
@@ -26,6 +26,10 @@ public class TalCondition {
 	 * Event name to watch for.  The event names are given in {@link TrainActionListener#trainAction(Train, String)}.
 	 */
 	public String event;
+	
+	// when this condition was added, so listeners are notified in that order
+	long order;
+	
 	/**
 	 * Create a condition
 	 * 
@@ -13,7 +13,7 @@ import net.kolls.railworld.Factories;
 import net.kolls.railworld.RailSegment;
 import net.kolls.railworld.Train;
 import net.kolls.railworld.car.AbstractCar;
-import net.kolls.railworld.play.PlayFrame;
+import net.kolls.railworld.play.Game;
 import net.kolls.railworld.play.script.Script;
 import net.kolls.railworld.play.script.ScriptManager;
 import net.kolls.railworld.play.script.TrainActionListener;
@@ -47,7 +47,7 @@ import net.kolls.railworld.segment.LUSegment;
 public class Completer implements Script, TrainActionListener {
 
 	private HashSet<String> canFill;
-	private PlayFrame mpf;
+	private Game mgame;
 	private RailSegment[] la;
 	private boolean pop = false;
 	
@@ -62,12 +62,12 @@ public class Completer implements Script, TrainActionListener {
 	}
 	
 	@Override
-	public void init(PlayFrame pf) {
+	public void init(Game game) {
 		// find out from the map what kinds of car we can fill
 		canFill = new HashSet<String>();
 		
-		mpf = pf;
-		la = pf.jdb.la; 
+		mgame = game;
+		la = game.segments(); 
 	
 		// find out what kinds of cars we can fill
 		// when those become empty, they are ok
@@ -83,24 +83,24 @@ public class Completer implements Script, TrainActionListener {
 		}
 		
 	 	// have to register completed car to allow it to be loaded
- 		net.kolls.railworld.Factories.cars.addType(new CompletedCar());
+ 		net.kolls.railworld.Factories.cars().addType(new CompletedCar());
  		
- 		 pf.jdb.sm.addTrainActionListener(this,
+ 		 game.scripts().addTrainActionListener(this,
  			null, "load");
 
- 		 pf.jdb.sm.addTrainActionListener(this,
+ 		 game.scripts().addTrainActionListener(this,
  			null, "unload");
  			
  			
  		 
- 		pf.jdb.trains.addListDataListener(new javax.swing.event.ListDataListener() {
+ 		game.trains().addListDataListener(new javax.swing.event.ListDataListener() {
 
 			@Override
 			public void contentsChanged(ListDataEvent e) { }
 
 			@Override
 			public void intervalAdded(ListDataEvent e) {
-				trainCreate(mpf.jdb.trains.get(e.getIndex0()));
+				trainCreate(mgame.trains().get(e.getIndex0()));
 				
 			}
 
@@ -138,6 +138,7 @@ public class Completer implements Script, TrainActionListener {
 				}
 							
 			}
+			train.consistChanged();
 			train.getController().fillConsist();
 	}
 
@@ -192,7 +193,7 @@ public class Completer implements Script, TrainActionListener {
 			
 			// because the load/unload action happens BEFORE its loaded
 			// wait until the next step to actually do the work
-			ScriptManager.DeferIntoStep(mpf, train, new Runnable() {
+			ScriptManager.DeferIntoStep(mgame, train, new Runnable() {
 				@Override
 				public void run() {
 					trainLU(train);
@@ -206,7 +207,7 @@ public class Completer implements Script, TrainActionListener {
 	}
 	
 	private void trainLU(Train train) {
-		Car sel = mpf.jdb.trains.getSelectedCar();
+		Car sel = mgame.trains().getSelectedCar();
 		
 		
 		for (int i = 0; i < train.array().length; i++) {
@@ -229,10 +230,11 @@ public class Completer implements Script, TrainActionListener {
 				}
 			}
 			if (dsel) {
-				mpf.jdb.trains.select(train, train.array()[i]);
+				mgame.trains().select(train, train.array()[i]);
 				dsel = false;
 			}
 		}
+		train.consistChanged();
 		train.getController().fillConsist();
 		trainToComplete = null;
 	}
@@ -308,7 +310,7 @@ public class Completer implements Script, TrainActionListener {
 		public void load(Map<String, String> data) {
     		
     		try {
-				c = Factories.cars.createInstance(data.get("type"));
+				c = Factories.cars().createInstance(data.get("type"));
 			} catch (ClassNotFoundException e) {
 				e.printStackTrace();
 				return;
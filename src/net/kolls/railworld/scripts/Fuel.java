@@ -13,7 +13,7 @@ import net.kolls.railworld.GameLoop;
 import net.kolls.railworld.RailSegment;
 import net.kolls.railworld.Train;
 import net.kolls.railworld.car.Engine;
-import net.kolls.railworld.play.PlayFrame;
+import net.kolls.railworld.play.Game;
 import net.kolls.railworld.play.script.Script;
 import net.kolls.railworld.play.script.TrainActionListener;
 
@@ -62,18 +62,18 @@ public class Fuel implements Script, TrainActionListener, ListDataListener {
 
 	private TrainActionListener tal;
 
-	private PlayFrame pf;
+	private Game game;
 	
 	@Override
-	public void init(PlayFrame pf) {
+	public void init(Game game) {
 		// have to register new cars
 		// 5000 gals is not interesting... give them 15
 		FuelEngine x = new FuelEngine();
- 		net.kolls.railworld.Factories.cars.addType(x);
- 		this.pf = pf;
+ 		net.kolls.railworld.Factories.cars().addType(x);
+ 		this.game = game;
  		this.tal = this;
  		
- 		pf.jdb.trains.addListDataListener(this);
+ 		game.trains().addListDataListener(this);
 
 	}
 
@@ -144,6 +144,10 @@ public class Fuel implements Script, TrainActionListener, ListDataListener {
 			
 				((FuelEngine)c).fuel = f;
 			
+				// an engine out of fuel no longer counts as an engine
+				if (of > 0 && f == 0)
+					train.consistChanged();
+				
 				if ( (int)of - (int)f >= 1
 						|| (of > 0 && f == 0)) 
 				train.getController().fillConsist();
@@ -233,21 +237,15 @@ public class Fuel implements Script, TrainActionListener, ListDataListener {
 
 	@Override
 	public void intervalAdded(ListDataEvent e) {
-		final Train train = pf.jdb.trains.get(e.getIndex0());
+		final Train train = game.trains().get(e.getIndex0());
 		boolean isfe = false;
 		for (Car c : train.array()) {
 			if (c instanceof FuelEngine) isfe = true;
 		}
 		
 		if (isfe) {
-			
-				pf.gl.runInLoop(new java.lang.Runnable() {
-					public void run() {
-						pf.jdb.sm.addTrainActionListener(tal,
-							train, "step");
-					}
-				});
-			}
+			game.scripts().addTrainActionListener(tal, train, "step");
+		}
 			
 		
 	}
@@ -9,7 +9,7 @@ import java.util.Map;
 
 import net.kolls.railworld.RailSegment;
 import net.kolls.railworld.Train;
-import net.kolls.railworld.play.PlayFrame;
+import net.kolls.railworld.play.Game;
 import net.kolls.railworld.play.RailAccident;
 import net.kolls.railworld.play.script.Script;
 import net.kolls.railworld.play.script.ScriptManager;
@@ -59,7 +59,7 @@ public class HornRequired implements Script, TrainActionListener {
 	 */
 	protected static final int MAX_HORN_SECS = 5;
 	
-	private PlayFrame mpf;
+	private Game mgame;
 	
 	@Override
 	public String toString() {
@@ -67,10 +67,10 @@ public class HornRequired implements Script, TrainActionListener {
 	}
 	
 	@Override
-	public void init(PlayFrame pf) {
-		pf.jdb.sm.addTrainActionListener(this, null, "horn");
-		pf.jdb.sm.addTrainActionListener(this, null, "step");
-		mpf = pf;
+	public void init(Game game) {
+		game.scripts().addTrainActionListener(this, null, "horn");
+		game.scripts().addTrainActionListener(this, null, "step");
+		mgame = game;
 
 	}
 
@@ -153,7 +153,7 @@ public class HornRequired implements Script, TrainActionListener {
 				if (!checkForHorn(t)) {
 					whenHorn.put(t, new Date()); // so it won't get thrown twice
 					
-					ScriptManager.DeferIntoStep(mpf, t, new Runnable() {
+					ScriptManager.DeferIntoStep(mgame, t, new Runnable() {
 						@Override
 						public void run() {
 							throw new NoHornStart(t, t.pos.getPoint());
@@ -209,7 +209,7 @@ public class HornRequired implements Script, TrainActionListener {
 			if (!ok) {
 				whenHorn.put(t, new Date()); // so it won't get thrown twice
 				
-				ScriptManager.DeferIntoStep(mpf, t, new Runnable() {
+				ScriptManager.DeferIntoStep(mgame, t, new Runnable() {
 					@Override
 					public void run() {
 						throw new NoHornCrossing(t, t.pos.getPoint());
@@ -14,7 +14,7 @@ import net.kolls.railworld.RailCanvas;
 import net.kolls.railworld.RailSegment;
 import net.kolls.railworld.Train;
 import net.kolls.railworld.edit.SegmentEditPoint;
-import net.kolls.railworld.play.PlayFrame;
+import net.kolls.railworld.play.Game;
 import net.kolls.railworld.play.RailAccident;
 import net.kolls.railworld.play.script.Script;
 import net.kolls.railworld.play.script.ScriptManager;
@@ -50,7 +50,7 @@ import net.kolls.railworld.segment.TrackSegment;
  */
 public class SpeedLimits implements Script {
 
-	private PlayFrame mpf;
+	private Game mgame;
 	
 	@Override
 	public String toString() {
@@ -58,8 +58,8 @@ public class SpeedLimits implements Script {
 	}
 	
 	@Override
-	public void init(PlayFrame pf) {
-		mpf = pf;
+	public void init(Game game) {
+		mgame = game;
 	}
 
 	
@@ -354,7 +354,7 @@ System.out.println(c);
 			if (t.vel() > limit + 2) { // found that actual speed up to 2 mph faster than selected, indicates 1 because of rounding
 				didThrow = t;
 				
-				ScriptManager.DeferIntoStep(mpf, t, new Runnable() {
+				ScriptManager.DeferIntoStep(mgame, t, new Runnable() {
 					@Override
 					public void run() {
 						throw new TooFast(t, pts[0]);
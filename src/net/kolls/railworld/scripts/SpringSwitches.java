@@ -5,9 +5,9 @@ import java.util.Hashtable;
 import java.util.Map;
 
 import net.kolls.railworld.RailSegment;
-import net.kolls.railworld.Sounds;
 import net.kolls.railworld.Train;
-import net.kolls.railworld.play.PlayFrame;
+import net.kolls.railworld.World;
+import net.kolls.railworld.play.Game;
 import net.kolls.railworld.play.script.Script;
 import net.kolls.railworld.segment.Switch;
 
@@ -35,7 +35,7 @@ import net.kolls.railworld.segment.Switch;
  */
 public class SpringSwitches implements Script {
 
-	private PlayFrame pf;
+	private Game game;
 	
 	
 	public RailSegment[] modifySegments(RailSegment[] lines) {
@@ -52,8 +52,8 @@ public class SpringSwitches implements Script {
 	}
 	
 	@Override
-	public void init(PlayFrame pf) { 
-		this.pf = pf;	
+	public void init(Game game) { 
+		this.game = game;	
 	
 		
 		
@@ -67,14 +67,15 @@ public class SpringSwitches implements Script {
 
 	@Override
 	public void load(Map<String, String> data) {
+		RailSegment[] la = game.segments();
 		
-		for (int i = 0; i < pf.jdb.la.length; i++) {
-			if (pf.jdb.la[i] instanceof SpringSwitch) {
+		for (int i = 0; i < la.length; i++) {
+			if (la[i] instanceof SpringSwitch) {
 				
 				if (!data.get(Integer.toString(i)).equals("null")) {
 				
 				
-					((SpringSwitch)pf.jdb.la[i]).orig_flipped =
+					((SpringSwitch)la[i]).orig_flipped =
 						Boolean.parseBoolean(data.get(Integer.toString(i)));
 					
 					
@@ -95,10 +96,11 @@ public class SpringSwitches implements Script {
 	@Override
 	public Map<String, String> save() {
 		Hashtable<String, String> s = new Hashtable<String, String>();
+		RailSegment[] la = game.segments();
 		
-		for (int i = 0; i < pf.jdb.la.length; i++) {
-			if (pf.jdb.la[i] instanceof SpringSwitch) {
-				Boolean b = ((SpringSwitch)pf.jdb.la[i]).orig_flipped;
+		for (int i = 0; i < la.length; i++) {
+			if (la[i] instanceof SpringSwitch) {
+				Boolean b = ((SpringSwitch)la[i]).orig_flipped;
 				s.put(Integer.toString(i), 
 						b == null ? "null" : Boolean.toString(b));
 			}
@@ -162,7 +164,7 @@ public class SpringSwitches implements Script {
 				
 				flipped = orig_flipped;
 				orig_flipped = null;
-				Sounds.switchd.play();
+				World.current().sounds().switchd.play();
 			}
 				
 			if (trains.size() == 0)
@@ -7,7 +7,7 @@ import java.util.Map;
 
 import net.kolls.railworld.RailCanvas;
 import net.kolls.railworld.RailSegment;
-import net.kolls.railworld.play.PlayFrame;
+import net.kolls.railworld.play.Game;
 import net.kolls.railworld.play.script.DrawListener;
 import net.kolls.railworld.play.script.Script;
 
@@ -40,13 +40,13 @@ import net.kolls.railworld.play.script.Script;
 public class Timer implements Script, DrawListener {
 
 
-	protected PlayFrame mpf;
+	protected Game mgame;
 	
 	@Override
-	public void init(PlayFrame pf) {
+	public void init(Game game) {
  
-		mpf = pf; 
-		pf.jdb.sm.addDrawListener(this);
+		mgame = game; 
+		game.scripts().addDrawListener(this);
 
 	}
 
@@ -82,7 +82,7 @@ public class Timer implements Script, DrawListener {
 	}
 
 	protected long getTime() {
-		return mpf.gl.elapsed;
+		return mgame.elapsed();
 	}
 	
 	@Override
@@ -7,7 +7,6 @@ import java.util.ArrayList;
 import java.util.Map;
 
 import javax.swing.JEditorPane;
-import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.event.ListDataEvent;
@@ -21,7 +20,7 @@ import net.kolls.railworld.RailSegment;
 import net.kolls.railworld.Train;
 import net.kolls.railworld.car.Boxcar;
 import net.kolls.railworld.car.Engine;
-import net.kolls.railworld.play.PlayFrame;
+import net.kolls.railworld.play.Game;
 import net.kolls.railworld.play.RailAccident;
 import net.kolls.railworld.play.script.DrawListener;
 import net.kolls.railworld.play.script.Mission;
@@ -56,7 +55,7 @@ import net.kolls.railworld.segment.LUSegment;
  */
 public class Brewsky implements Mission {
 
-	private PlayFrame mpf;
+	private Game mgame;
 	private StatusLine sp;
 	
 	private net.kolls.railworld.scripts.Completer comp_scr;
@@ -93,9 +92,9 @@ public class Brewsky implements Mission {
 
 	@Override
 	public void railAccident(RailAccident ra) {
-		JOptionPane.showMessageDialog(mpf, "Mission failed due to rail accident", "Mission Failure", JOptionPane.INFORMATION_MESSAGE);
+		mgame.message("Mission Failure", "Mission failed due to rail accident");
 		
-		mpf.stop(null);
+		mgame.stop(null);
 
 	}
 
@@ -105,26 +104,26 @@ public class Brewsky implements Mission {
 	}
 	
 	private int points() {
-		int points = (int)( 200.0 / ((double)mpf.gl.elapsed / 1000.0 / 60.0));
+		int points = (int)( 200.0 / ((double)mgame.elapsed() / 1000.0 / 60.0));
 		return Math.min(100, points);
 	
 	}
 
 	@Override
-	public void init(PlayFrame pf) {
+	public void init(Game game) {
 		sp = new StatusLine();
-		pf.jdb.sm.addDrawListener(sp);
+		game.scripts().addDrawListener(sp);
 
-		pf.jdb.sm.addDrawListener(new DrawListener() {
+		game.scripts().addDrawListener(new DrawListener() {
 
 			@Override
 			public void draw(Graphics2D gc, Rectangle onScreen) {
 				// don't care about drawing, just want to update the score regularly
 				
 				if (points() < 1) {
-					JOptionPane.showMessageDialog(mpf, "Mission failed: you took too long to get the beer delivered.", "Mission Failure", JOptionPane.INFORMATION_MESSAGE);
+					mgame.message("Mission Failure", "Mission failed: you took too long to get the beer delivered.");
 					
-					mpf.stop(null);
+					mgame.stop(null);
 				}
 				
 				sp.status = Integer.toString(points()) + " point" + (points() == 1 ? "" : "s");
@@ -134,14 +133,14 @@ public class Brewsky implements Mission {
 		});
 		
 		
-		pf.jdb.trains.addListDataListener(new ListDataListener() {
+		game.trains().addListDataListener(new ListDataListener() {
 
 			
 			ArrayList<Train> trs = new ArrayList<Train>();
 			
 			public void reload() {
 				trs.clear();
-				for (Train t : mpf.jdb.trains)
+				for (Train t : mgame.trains())
 					trs.add(t);
 			}
 			
@@ -163,15 +162,15 @@ public class Brewsky implements Mission {
 				Train t = trs.get(arg0.getIndex0()); // can't retrieve from old list, must use backup list
 				
 				if (t.pos.orig instanceof EESegment) {
-					if (mpf.jdb.trains.size() == 0) {
+					if (mgame.trains().size() == 0) {
 						int pts = points();
-						JOptionPane.showMessageDialog(mpf, "Mission complete!\nThe beer is on its way to delivery, earning "+Integer.toString(pts)+" points.");
-						mpf.stop(pts);
+						mgame.message("Mission Complete", "Mission complete!\nThe beer is on its way to delivery, earning "+Integer.toString(pts)+" points.");
+						mgame.stop(pts);
 				
 					} else {
 						// 	if only one train leaves, that's bad, because there's only one engine!
-						JOptionPane.showMessageDialog(mpf, "Mission failed: All the beer needs to be on one train.");
-						mpf.stop(null);
+						mgame.message("Mission Failure", "Mission failed: All the beer needs to be on one train.");
+						mgame.stop(null);
 					}
 				
 				} else reload();
@@ -179,16 +178,17 @@ public class Brewsky implements Mission {
 			
 		});
 		
-		mpf = pf;
+		mgame = game;
 		
 		// only add these trains if we are fresh, not load game
 		
-		if (mpf.gl.elapsed == 0) {
+		if (mgame.elapsed() == 0) {
+		RailSegment[] la = mgame.segments();
 		
-		for (int i = 0; i < mpf.jdb.la.length; i++) {
+		for (int i = 0; i < la.length; i++) {
 			// consider only empty LUsegments
-			if (mpf.jdb.la[i] instanceof LUSegment) {
-				if ( ((LUSegment)mpf.jdb.la[i]).canLU(new Boxcar())) {
+			if (la[i] instanceof LUSegment) {
+				if ( ((LUSegment)la[i]).canLU(new Boxcar())) {
 					Train t = new Train(new Car[] {
 							// weird syntax ever
 							comp_scr.new CompletedCar(new Boxcar()),
@@ -197,26 +197,26 @@ public class Brewsky implements Mission {
 							comp_scr.new CompletedCar(new Boxcar()),
 							comp_scr.new CompletedCar(new Boxcar())
 					});
-					t.pos = new CLoc(mpf.jdb.la[i], null, 0.98);
+					t.pos = new CLoc(la[i], null, 0.98);
 					t.setBrake(true);
-					t.getController().setTrainActionScriptNotify(mpf.jdb.sm);
-					mpf.addTrain(t, false);
+					t.getController().setTrainActionScriptNotify(mgame.scripts());
+					mgame.addTrain(t, false);
 				
 				}
 			
 			}
 			
-			if (mpf.jdb.la[i] instanceof EESegment) {
+			if (la[i] instanceof EESegment) {
 				
-				if ( ((EESegment)mpf.jdb.la[i]).label.equals("Southeast")) {
-					CLoc st = new CLoc(mpf.jdb.la[i], ((EESegment)mpf.jdb.la[i]).HES, 0);
+				if ( ((EESegment)la[i]).label.equals("Southeast")) {
+					CLoc st = new CLoc(la[i], ((EESegment)la[i]).HES, 0);
 					DLoc stp = st.segFwd(new Distance(1000, Distance.Measure.FEET));
 					Train t = new Train(new Car[] { new Engine()});
 					t.pos = stp.newLoc;
 					t.setBrake(true);
-					t.getController().setTrainActionScriptNotify(mpf.jdb.sm);
+					t.getController().setTrainActionScriptNotify(mgame.scripts());
 					t.followMeOnce = true;
-					mpf.addTrain(t, true);
+					mgame.addTrain(t, true);
 					
 				}
 					
@@ -225,7 +225,7 @@ public class Brewsky implements Mission {
 		}
 		
 		
-		mpf.hideTrainButtons(null);
+		mgame.hideTrainButtons(null);
 		
 		
 		
@@ -3,6 +3,7 @@ package net.kolls.railworld.scripts.missions;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
 import java.awt.GridLayout;
 import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
@@ -18,7 +19,6 @@ import javax.swing.JButton;
 import javax.swing.JEditorPane;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
-import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.event.ListDataEvent;
@@ -31,7 +31,7 @@ import net.kolls.railworld.RailSegment;
 import net.kolls.railworld.Train;
 import net.kolls.railworld.car.Engine;
 import net.kolls.railworld.car.Passenger;
-import net.kolls.railworld.play.PlayFrame;
+import net.kolls.railworld.play.Game;
 import net.kolls.railworld.play.RailAccident;
 import net.kolls.railworld.play.TrainCreator;
 import net.kolls.railworld.play.script.DrawListener;
@@ -77,8 +77,8 @@ public class SeattleDispatcher implements Mission {
 	public final long TOTAL_MISSION_TIME =  15 * 60 * 1000; // 15 min
 	
 	private Random r = new Random();
-	private PlayFrame mpf;
-	private DispatchWindow dw;
+	private Game mgame;
+	private Dispatcher dw;
 	private FadePrinter fp;
 	private StatusLine sp;
 	private int points = 0;
@@ -121,8 +121,8 @@ public class SeattleDispatcher implements Mission {
 			@Override
 			public void actionPerformed(ActionEvent e) {
 				dw.setVisible(false);
-				JOptionPane.showMessageDialog(mpf, "Mission complete!\nYou routed " + Integer.toString(suc_pas) + " passenger trains and " + Integer.toString(suc_frei) + " freight trains, earning "+Integer.toString(points)+" points.");
-				mpf.stop(points);
+				mgame.message("Mission Complete", "Mission complete!\nYou routed " + Integer.toString(suc_pas) + " passenger trains and " + Integer.toString(suc_frei) + " freight trains, earning "+Integer.toString(points)+" points.");
+				mgame.stop(points);
 				
 			}
 			
@@ -141,9 +141,9 @@ public class SeattleDispatcher implements Mission {
 	@Override
 	public void railAccident(RailAccident ra) {
 
-		JOptionPane.showMessageDialog(mpf, "Mission failed due to rail accident", "Mission Failure", JOptionPane.INFORMATION_MESSAGE);
+		mgame.message("Mission Failure", "Mission failed due to rail accident");
 		dw.setVisible(false);
-		mpf.stop(null);
+		mgame.stop(null);
 		
 
 	}
@@ -184,7 +184,7 @@ public class SeattleDispatcher implements Mission {
 		
 		public void reload() {
 			trs.clear();
-			for (Train t : mpf.jdb.trains)
+			for (Train t : mgame.trains())
 				trs.add(t);
 		}
 		
@@ -287,20 +287,20 @@ public class SeattleDispatcher implements Mission {
 	
 	
 	@Override
-	public void init(PlayFrame pf) {
-		mpf = pf;
+	public void init(Game game) {
+		mgame = game;
 		
 		
-		fp = new FadePrinter(pf.gl);
-		pf.jdb.sm.addDrawListener(fp);
+		fp = new FadePrinter(game);
+		game.scripts().addDrawListener(fp);
 		
 		sp = new StatusLine();
-		pf.jdb.sm.addDrawListener(sp);
+		game.scripts().addDrawListener(sp);
 		
-		pf.jdb.trains.addListDataListener(new SeattleDispatchLDL());
+		game.trains().addListDataListener(new SeattleDispatchLDL());
 		
 		// find key segments
-		for (RailSegment rs : mpf.jdb.la) {
+		for (RailSegment rs : mgame.segments()) {
 			if (rs instanceof EESegment) {
 				EESegment ee = (EESegment)rs;
 				if (ee.label.equals("Northwest"))
@@ -339,14 +339,14 @@ public class SeattleDispatcher implements Mission {
 					t.pos = ep.reverse();
 					t.reverse = true;
 					
-					mpf.addTrain(t, false);
+					mgame.addTrain(t, false);
 
 					AutoControl ac = new AutoControl();
 
 					ac.setMyInfo("Waiting to Load");
 					ac.setSyncToClick(false);
 					t.setController(ac);
-					t.getController().setTrainActionScriptNotify(mpf.jdb.sm);
+					t.getController().setTrainActionScriptNotify(mgame.scripts());
 
 				}
 			} else if (rs instanceof TrackSegment) {
@@ -363,13 +363,13 @@ public class SeattleDispatcher implements Mission {
 					CLoc ep = new CLoc(rs, null, 0.25);
 					t.pos = ep.reverse();
 					
-					mpf.addTrain(t, false);
+					mgame.addTrain(t, false);
 
 					AutoControl ac = new AutoControl();
 
 					ac.setSyncToClick(false);
 					t.setController(ac);
-					t.getController().setTrainActionScriptNotify(mpf.jdb.sm);
+					t.getController().setTrainActionScriptNotify(mgame.scripts());
 
 				}
 			}
@@ -379,22 +379,22 @@ public class SeattleDispatcher implements Mission {
 		
 		
 		
-		dw = new DispatchWindow();
-		mpf.jdb.sm.addDrawListener(dw);
-		mpf.hideTrainButtons(new ActionListener() {
+		dw = new Dispatcher();
+		mgame.scripts().addDrawListener(dw);
+		mgame.hideTrainButtons(new ActionListener() {
 
 			@Override
 			public void actionPerformed(ActionEvent e) {
 				dw.setVisible(true);
 				
 				// restore from minimization
-				if (dw.getExtendedState() == JFrame.ICONIFIED)
-					dw.setExtendedState(JFrame.NORMAL);
+				if (dw.window != null && dw.window.getExtendedState() == JFrame.ICONIFIED)
+					dw.window.setExtendedState(JFrame.NORMAL);
 				
 			}
 			
 		});
-		pf.gl.runInLoop(new Runnable() {
+		game.runInLoop(new Runnable() {
 
 			@Override
 			public void run() {
@@ -428,7 +428,7 @@ public class SeattleDispatcher implements Mission {
 			dw.setVisible(false);
 		}
 		if (action.equals("Save")) {
-			JOptionPane.showMessageDialog(mpf, "Save not supported with this mission yet.");
+			mgame.message("Save", "Save not supported with this mission yet.");
 			return true;
 		}
 		return false;
@@ -468,11 +468,20 @@ public class SeattleDispatcher implements Mission {
 
 	
 	
-	@SuppressWarnings("serial")
-	protected class DispatchWindow extends JFrame implements DrawListener {
+	/**
+	 * Brings in the trains, and holds each until the player deploys it
+	 * from the dispatch window.  Without a display there is no window,
+	 * and each train is deployed as soon as it is ready.
+	 */
+	protected class Dispatcher implements DrawListener {
 		
 		public DispatchPanel nw, ne, sw, se, pw, pe;
 		
+		/**
+		 * The dispatch window, or <code>null</code> if there is no display.
+		 */
+		public JFrame window;
+		
 		public TimeQueue<DispatchPanel> dps = new TimeQueue<DispatchPanel>();
 		
 		public boolean hasShownOneMinuteWarning = false;
@@ -481,7 +490,7 @@ public class SeattleDispatcher implements Mission {
 		public void draw(Graphics2D gc, Rectangle onScreen) {
 			// no drawing ,just check action queue
 			
-			TimeQueue<DispatchPanel>.TimeValue tv = dps.poll(mpf.gl.elapsed);
+			TimeQueue<DispatchPanel>.TimeValue tv = dps.poll(mgame.elapsed());
 			if (tv != null) {
 				DispatchPanel next = tv.value;
 				
@@ -492,7 +501,7 @@ public class SeattleDispatcher implements Mission {
 			}
 			
 			
-			if (cdt.countDownFrom - mpf.gl.elapsed <= 60000 && !hasShownOneMinuteWarning) {
+			if (cdt.countDownFrom - mgame.elapsed() <= 60000 && !hasShownOneMinuteWarning) {
 				hasShownOneMinuteWarning = true;
 				fp.add("One minute left! Move those trains!", Color.yellow);
 			
@@ -500,7 +509,7 @@ public class SeattleDispatcher implements Mission {
 		}
 		
 		private long delay(int factor) {
-			return (long)r.nextInt(factor) + factor + mpf.gl.elapsed;
+			return (long)r.nextInt(factor) + factor + mgame.elapsed();
 		}
 		
 		public void start() {
@@ -521,8 +530,8 @@ public class SeattleDispatcher implements Mission {
 				public void deployed() {
 					dps.add(delay(50000), this);
 					
-					_t.getController().setTrainActionScriptNotify(mpf.jdb.sm);
-					mpf.addTrain(_t, true);
+					_t.getController().setTrainActionScriptNotify(mgame.scripts());
+					mgame.addTrain(_t, true);
 					
 					
 				}
@@ -552,7 +561,7 @@ public class SeattleDispatcher implements Mission {
 						} else {
 							// random assorted freight
 							ArrayList<Car> sources = new ArrayList<Car>();
-							ArrayList<Car> at = Factories.cars.allTypes();
+							ArrayList<Car> at = Factories.cars().allTypes();
 							for (int i = 0; i < at.size(); i++) {
 								Car c = at.get(i);
 								
@@ -638,31 +647,31 @@ public class SeattleDispatcher implements Mission {
 			return dp;
 		}
 		
-		public DispatchWindow() {
-			super();
-			getContentPane().setLayout(new GridLayout(3, 2));
+		public Dispatcher() {
 			nw = createRepeatDispatchPanel("Northwest", NORTHWEST);
-			add(nw);
-			
 			ne = createRepeatDispatchPanel("Northeast", NORTHEAST); 
-			add(ne);
-			
 			pw = createStartMovingDispatchPanel("Platform West", WESTPLATFORM); 
-			add(pw);
-			
 			pe = createStartMovingDispatchPanel("Platform East", EASTPLATFORM); 
-			add(pe);
-			
 			sw = createRepeatDispatchPanel("Southwest", SOUTHWEST); 
-			add(sw);
-			
 			se = createRepeatDispatchPanel("Southeast", SOUTHEAST); 
-			add(se);
 			
+			if (GraphicsEnvironment.isHeadless()) return;
 			
+			window = new JFrame();
+			window.getContentPane().setLayout(new GridLayout(3, 2));
+			window.add(nw);
+			window.add(ne);
+			window.add(pw);
+			window.add(pe);
+			window.add(sw);
+			window.add(se);
 			
-			setTitle("Dispatcher");
-			pack();
+			window.setTitle("Dispatcher");
+			window.pack();
+		}
+		
+		public void setVisible(boolean b) {
+			if (window != null) window.setVisible(b);
 		}
 	}
 	
@@ -695,6 +704,9 @@ public class SeattleDispatcher implements Mission {
 			_dest.setText(_dest_seg.label);
 			
 			_deploy.setEnabled(true);
+			
+			// with no window, there is no one to press deploy
+			if (dw.window == null) actionPerformed(null);
 		}
 		
 		public DispatchPanel(String title) {
@@ -765,7 +777,7 @@ public class SeattleDispatcher implements Mission {
 			
 			deployed();
 			
-			mpf.jdb.trains.select(_t, null);
+			mgame.trains().select(_t, null);
 			
 			_t = null;
 		}
@@ -7,8 +7,8 @@ import java.awt.geom.AffineTransform;
 import java.util.ArrayList;
 import java.util.List;
 
-import net.kolls.railworld.GameLoop;
 import net.kolls.railworld.RailCanvas;
+import net.kolls.railworld.play.Game;
 import net.kolls.railworld.play.script.DrawListener;
 
 
@@ -52,20 +52,20 @@ public class FadePrinter implements DrawListener {
 	
 //	private TimeQueue<TextPack> futureMessages;
 	private List<TextPack> currentMessages;
-	private GameLoop gl;
+	private Game game;
 	
 	public void add(String message, Color color /*, long displayElapsed */) {
 		TextPack tp = new TextPack();
 		tp.color = color;
 		tp.message = message;
-		tp.displayElapsed = gl.elapsed;
+		tp.displayElapsed = game.elapsed();
 		currentMessages.add(tp);
 	}
 	
-	public FadePrinter(GameLoop gl) {
+	public FadePrinter(Game game) {
 	//	futureMessages = new TimeQueue<TextPack>();
 		currentMessages = new ArrayList<TextPack>();
-		this.gl = gl;
+		this.game = game;
 	}
 	
 	@Override
@@ -76,14 +76,14 @@ public class FadePrinter implements DrawListener {
 		// step 1. move any futures that are due into current
 		// we'll just one per step
 		
-		//TimeQueue<TextPack>.TimeValue<TextPack> tv = futureMessages.poll(gl.elapsed);
+		//TimeQueue<TextPack>.TimeValue<TextPack> tv = futureMessages.poll(game.elapsed());
 		//if (tv != null) {
 			//currentMessages.add(0, tv.value);
 		//}
 		
 		// step 2. remove any old messages from current
 		// again, just do one per step at this time
-		if (!currentMessages.isEmpty() && gl.elapsed > currentMessages.get(0).displayElapsed + MILLISECONDS_TO_FADE) {
+		if (!currentMessages.isEmpty() && game.elapsed() > currentMessages.get(0).displayElapsed + MILLISECONDS_TO_FADE) {
 			currentMessages.remove(0);
 			
 		}
@@ -94,10 +94,10 @@ public class FadePrinter implements DrawListener {
 			
 			
 			double alpha = 0;
-			double dt = gl.elapsed - (tp.displayElapsed + MILLISECONDS_TO_FADE / 2);
+			double dt = game.elapsed() - (tp.displayElapsed + MILLISECONDS_TO_FADE / 2);
 			alpha = Math.max(0.0, dt / (MILLISECONDS_TO_FADE / 2.0));
 			
-			alpha = (1.0 - alpha) * 255.0; // in the first part, gl.elapsed will be less than half way through the fade
+			alpha = (1.0 - alpha) * 255.0; // in the first part, game.elapsed() will be less than half way through the fade
 			// so we end up with a negative value, which becomes 0 (full)
 			// then after passing it gradually increases to 1 (disappeared)
 			
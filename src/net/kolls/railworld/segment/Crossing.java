@@ -24,7 +24,7 @@ import java.awt.Paint;
 import java.awt.geom.Line2D;
 
 import net.kolls.railworld.RailSegment;
-import net.kolls.railworld.Sounds;
+import net.kolls.railworld.World;
 
 /**
  * At-grade crossing.  Plays crossing sound when train is present or on adjacent segment.
@@ -88,12 +88,12 @@ public class Crossing extends TrackSegment {
 
 			
 			if (h && wasPlaying == false) {
-				Sounds.crossing.loop();
+				World.current().sounds().crossing.loop();
 				wasPlaying = true;
 				
 			} 
 			if (h == false && wasPlaying) {
-				Sounds.crossing.stop();
+				World.current().sounds().crossing.stop();
 				wasPlaying = false;
 				
 			}
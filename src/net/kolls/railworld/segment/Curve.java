@@ -175,6 +175,13 @@ public class Curve extends RailSegment {
 
 	@Override
 	public Point2D getPoint(RailSegment start, double myPos) {
+		double[] xy = new double[2];
+		getPoint(start, myPos, xy, 0);
+		return new Point2D.Double(xy[0], xy[1]);
+	}
+	
+	@Override
+	public void getPoint(RailSegment start, double myPos, double[] xy, int off) {
 		// find which sub-segment we are on
 		if (start == dests[1]) myPos = 1.0 - myPos;
 	
@@ -199,7 +206,9 @@ public class Curve extends RailSegment {
 		
 		if (i >= lens.length) {
 			// at the end
-			return seq[seq.length - 1];
+			xy[off] = seq[seq.length - 1].getX();
+			xy[off+1] = seq[seq.length - 1].getY();
+			return;
 		}
 		
 		// then we find where in the subsegment we are
@@ -216,7 +225,8 @@ public class Curve extends RailSegment {
 		double y1 = seq[i-1].getY();
 		double x2 = seq[i].getX();
 		double y2 = seq[i].getY();
-		return new Point2D.Double(x1+(x2-x1)*subPos, y1+(y2-y1)*subPos);
+		xy[off] = x1+(x2-x1)*subPos;
+		xy[off+1] = y1+(y2-y1)*subPos;
 		
 		
 	}
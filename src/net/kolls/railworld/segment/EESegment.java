@@ -87,6 +87,7 @@ public class EESegment extends TrackSegment {
 		if (dests[0] != null) 
 			dests[1] = HES;
 		else if (dests[1] != null) dests[0] = HES;
+		BlockGraph.invalidate();
 		
 		
 	}
@@ -103,7 +104,7 @@ public class EESegment extends TrackSegment {
 	}
 	
 	@Override
-	public boolean isDynamic() { return true; } // just so we can clear HES trains 
+	public boolean isDynamic() { return true; } // to provide mouse over
 	
 	
 	@Override
@@ -136,10 +137,7 @@ public class EESegment extends TrackSegment {
 	@Override
 	public void draw(int z, Graphics2D gc) {
 		
-		if (z == 4) {
-			HES.trains().clear();
-			return;
-		}
+		if (z == 4) return;
 		Paint p = gc.getPaint();
 
 		cap = BasicStroke.CAP_SQUARE; // end segments always have a cap, and its square
@@ -28,7 +28,6 @@ import java.awt.event.ActionListener;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
-import java.util.HashSet;
 
 import javax.swing.JButton;
 import javax.swing.JPanel;
@@ -37,9 +36,10 @@ import javax.swing.undo.CannotRedoException;
 import javax.swing.undo.CannotUndoException;
 import javax.swing.undo.UndoableEdit;
 
+import net.kolls.railworld.BlockGraph;
 import net.kolls.railworld.Distance;
 import net.kolls.railworld.RailSegment;
-import net.kolls.railworld.Train;
+import net.kolls.railworld.TrainSet;
 import net.kolls.railworld.edit.SegmentEditPoint;
 
 
@@ -105,7 +105,7 @@ public class FourWay extends RailSegment {
 		pts = new Point2D[1];
 		pts[0] = pos;
 		
-		trains = new HashSet<Train>();	
+		trains = new TrainSet();	
 	
 	}
 	
@@ -228,6 +228,7 @@ public class FourWay extends RailSegment {
 			RailSegment tmp = dests[1];
 			dests[1] = dests[3];
 			dests[3] = tmp;
+			BlockGraph.invalidate();
 			recomp();
 			
 					
@@ -242,6 +243,7 @@ public class FourWay extends RailSegment {
 			RailSegment tmp = dests[1];
 			dests[1] = dests[3];
 			dests[3] = tmp;
+			BlockGraph.invalidate();
 			recomp();
 			
 			
@@ -280,6 +282,7 @@ public class FourWay extends RailSegment {
 				RailSegment tmp = dests[1];
 				dests[1] = dests[3];
 				dests[3] = tmp;
+				BlockGraph.invalidate();
 				
 				
 				
@@ -142,6 +142,19 @@ public class LUSegment extends TrackSegment {
 	@Override
 	public boolean isDynamic() { return true; } // to provide mouse over
 	
+	@Override
+	public Rectangle2D getBounds() {
+		Rectangle2D b = super.getBounds();
+		if (lucars == null) return b;
+		
+		// accepted cars are drawn in a row beside the track, and may run past its end
+		double m = Distance.toPixels(15);
+		for (int i = 0; i < lucars.length; i++)
+			m += lucars[i].length().pixels() + Distance.toPixels(15);
+		b.setRect(b.getX() - m, b.getY() - m, b.getWidth() + m*2, b.getHeight() + m*2);
+		return b;
+	}
+	
 	/**
 	 * Draw the cars which this LU segment accepts.  The cars are drawn next
 	 * to the segment.
@@ -342,7 +355,7 @@ public class LUSegment extends TrackSegment {
 		Car c;
 		
 
-		ArrayList<Car> at = Factories.cars.allTypes();
+		ArrayList<Car> at = Factories.cars().allTypes();
 		for (int i = 0; i < at.size(); i++) {
 			c = at.get(i);
 			if (c.isLoadable() == false) continue; // LU only handles loadable cars
@@ -27,6 +27,7 @@ import java.awt.event.ActionListener;
 import java.awt.event.FocusEvent;
 import java.awt.event.FocusListener;
 import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
 
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
@@ -118,6 +119,13 @@ public class Label extends RailSegment {
 	@Override
 	public String mouseOver(Point2D pos) { return null; }
 	
+	@Override
+	public Rectangle2D getBounds() {
+		// text may be rotated about the point, so allow its full width in every direction
+		double r = (value.length() + 1) * size.pixels();
+		return new Rectangle2D.Double(pts[0].getX() - r, pts[0].getY() - r, r*2, r*2);
+	}
+	
 	
 	@Override
 	public RailSegment dest(RailSegment source) {
@@ -30,11 +30,13 @@ import javax.swing.JFrame;
 import javax.swing.JPanel;
 
 
+import net.kolls.railworld.BlockGraph;
 import net.kolls.railworld.Distance;
 import net.kolls.railworld.RailCanvas;
 import net.kolls.railworld.RailSegment;
 import net.kolls.railworld.SignalProgram;
 import net.kolls.railworld.Train;
+import net.kolls.railworld.World;
 import net.kolls.railworld.edit.SegmentEditPoint;
 import net.kolls.railworld.play.SignalProgramChooser;
 import net.kolls.railworld.segment.sp.Green;
@@ -65,12 +67,20 @@ public class Signal extends RailSegment {
 		double d = 0;
 		RailSegment tmp;
 		int iterationCount = 0;
-		while ((a != null) && (iterationCount < CYCLE_LIMIT)) {			
+		while ((a != null) && (iterationCount < CYCLE_LIMIT)) {
+			// skip ahead to the next signal or switch
+			BlockGraph.Run run = BlockGraph.ahead(a, orig);
+			d += run.feet;
+			iterationCount += run.segments;
+			a = run.stop;
+			orig = run.from;
+			if (a == null || iterationCount >= CYCLE_LIMIT) break;
+			
 			if (checkSig && a instanceof Signal) 
 				if (((Signal)a).getDest(Signal.POINT_END) == orig) break;
 		
 			
-			d += a.length().feet();
+			d += a.lengthFeet();
 			tmp = a;
 			a = a.dest(orig);
 			orig = tmp;
@@ -363,8 +373,8 @@ public class Signal extends RailSegment {
 			x -= (int)(rc.getVXY().getX());
 			y -= (int)(rc.getVXY().getY());
 			
-			x = (int)(x * RailCanvas.zoom);
-			y = (int)(y * RailCanvas.zoom);
+			x = (int)(x * World.current().zoom);
+			y = (int)(y * World.current().zoom);
 			
 			Component c = rc;
 			while (c != null) {
@@ -108,11 +108,11 @@ public class Switch extends RailSegment {
 			
 		if (t.pos.orig == dests[1] && flipped == true) {
 			flipped = false;
-			Sounds.switchd.play();
+			World.current().sounds().switchd.play();
 		}
 		if (t.pos.orig == dests[2] && flipped == false) {
 			flipped = true;
-			Sounds.switchd.play();
+			World.current().sounds().switchd.play();
 		}	
 		
 
@@ -204,7 +204,7 @@ public class Switch extends RailSegment {
 		pts[0] = pos;
 		flipped = false;
 		recomp();
-		trains = new HashSet<Train>();	
+		trains = new TrainSet();	
 	
 	}
 	
@@ -231,7 +231,7 @@ public class Switch extends RailSegment {
 		if (indicator.ptSegDist(pos) <= MOUSE_NEAR.iPixels()) {
 		
 			flipped = !flipped;
-			Sounds.switchd.play();
+			World.current().sounds().switchd.play();
 			
 			
 			
@@ -276,6 +276,7 @@ public class Switch extends RailSegment {
 			RailSegment tmp = dests[1];
 			dests[1] = dests[2];
 			dests[2] = tmp;
+			BlockGraph.invalidate();
 			recomp();
 			
 					
@@ -290,6 +291,7 @@ public class Switch extends RailSegment {
 			RailSegment tmp = dests[1];
 			dests[1] = dests[2];
 			dests[2] = tmp;
+			BlockGraph.invalidate();
 			recomp();
 			
 			
@@ -327,6 +329,7 @@ public class Switch extends RailSegment {
 				RailSegment tmp = dests[1];
 				dests[1] = dests[2];
 				dests[2] = tmp;
+				BlockGraph.invalidate();
 				recomp();
 				ec.recomp();
 				
@@ -197,6 +197,13 @@ public class TrackSegment extends RailSegment {
 
 	@Override
 	public Point2D getPoint(RailSegment start, double myPos) {
+		double[] xy = new double[2];
+		getPoint(start, myPos, xy, 0);
+		return new Point2D.Double(xy[0], xy[1]);
+	}
+	
+	@Override
+	public void getPoint(RailSegment start, double myPos, double[] xy, int off) {
 		Line2D c2 = coords;
 		
 		double x1 = c2.getX1();
@@ -210,7 +217,8 @@ public class TrackSegment extends RailSegment {
 		if (dests[1] == null && start == null) {
 			p = 1.0 - myPos;
 		}
-		return new Point2D.Double(x1+(x2-x1)*p, y1+(y2-y1)*p);
+		xy[off] = x1+(x2-x1)*p;
+		xy[off+1] = y1+(y2-y1)*p;
 
 	}
 	
@@ -92,7 +92,7 @@ public class JSSound extends Sound {
 	}
 
 	@Override
-	public void play() {
+	public synchronized void play() {
 		
 		
 		loopcnt = 0;
@@ -105,7 +105,7 @@ public class JSSound extends Sound {
 	}
 
 	@Override
-	public void loop() {
+	public synchronized void loop() {
 		if (frozen) {
 			fzlc++;
 			return;
@@ -121,7 +121,7 @@ public class JSSound extends Sound {
 	}
 
 	@Override
-	public void stop() {
+	public synchronized void stop() {
 		if (fzlc > 0 && frozen) {
 			fzlc--;
 			return;
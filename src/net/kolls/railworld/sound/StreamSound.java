@@ -178,7 +178,7 @@ public class StreamSound extends Sound {
 	}
 
 	@Override
-	public void play() {
+	public synchronized void play() {
 		if (playing() && rst == false) return;
 		
 		if (playing()) {
@@ -197,7 +197,7 @@ public class StreamSound extends Sound {
 	}
 
 	@Override
-	public void loop() {
+	public synchronized void loop() {
 		if (frozen) {
 			fzlc++;
 			return;
@@ -213,7 +213,7 @@ public class StreamSound extends Sound {
 	}
 
 	@Override
-	public void stop() {
+	public synchronized void stop() {
 		if (fzlc > 0 && frozen) {
 			fzlc--;
 			return;
@@ -153,13 +153,20 @@ public class AutoControl extends TrainControl {
 		} else hasSoundedHorn = false;
 		
 		
-		feet = myT.pos.r.length().feet() * (1.0 - myT.pos.per); // length remaining in segment
+		feet = myT.pos.r.lengthFeet() * (1.0 - myT.pos.per); // length remaining in segment
 		feet -= 15; // stop 15 feet short of end
 	
 		// reset so r and orig go together
 		r = myT.pos.r.dest(myT.pos.orig);
 		// search for the end of the track
 		while (r != null && feet <= maxfeet) {
+			
+			// skip ahead to the next signal or switch
+			BlockGraph.Run run = BlockGraph.ahead(r, orig);
+			feet += run.feet;
+			r = run.stop;
+			orig = run.from;
+			if (r == null || feet > maxfeet) break;
 	
 			if (r instanceof Signal) {
 				Signal s = ((Signal)r); 
@@ -176,7 +183,7 @@ public class AutoControl extends TrainControl {
 				
 			}
 			
-			feet += r.length().feet();
+			feet += r.lengthFeet();
 			RailSegment tmp = r;
 			r = r.dest(orig);
 			orig = tmp;
@@ -216,14 +223,19 @@ public class AutoControl extends TrainControl {
 		
 		
 		
-		double d = myT.pos.r.length().feet() * (1.0 - myT.pos.per);
+		double d = myT.pos.r.lengthFeet() * (1.0 - myT.pos.per);
 		r = myT.pos.r.dest(myT.pos.orig); // next segment
 		orig = myT.pos.r;
 		
 		
 		// when 40 feet to signal, check
 		while (modify && d <= 40 && r != null) {
-				
+			
+			BlockGraph.Run run = BlockGraph.ahead(r, orig);
+			d += run.feet;
+			r = run.stop;
+			orig = run.from;
+			if (r == null || d > 40) break;
 			
 			if (r instanceof Signal) {
 				Signal s = (Signal)r;
@@ -251,7 +263,7 @@ public class AutoControl extends TrainControl {
 				}
 			}
 			
-			d += r.length().feet();
+			d += r.lengthFeet();
 			RailSegment tmp = r; 
 			r = r.dest(orig); // next segment
 			orig = tmp;
@@ -166,8 +166,8 @@ public class MixControl extends TrainControl {
 		String dsi = data.get("_D");
 		String si = data.get("_S");
 		try {
-			s = Factories.controllers.createInstance(si);
-			ds = Factories.controllers.createInstance(dsi);	
+			s = Factories.controllers().createInstance(si);
+			ds = Factories.controllers().createInstance(dsi);	
 		} catch (ClassNotFoundException ex) {
 			ex.printStackTrace();
 		}
@@ -152,7 +152,7 @@ public class UserControl extends TrainControl implements ItemListener, ChangeLis
 		super.run();
 		
 
-		if (myT.hasEngine() == false) {
+		if (hasEngine() == false) {
 			throttle.setEnabled(false);
 			horn.setEnabled(false);
 		} else {
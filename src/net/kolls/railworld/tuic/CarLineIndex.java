@@ -0,0 +1,221 @@
+package net.kolls.railworld.tuic;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import net.kolls.railworld.*;
+
+import java.awt.geom.*;
+import java.util.Arrays;
+
+/**
+ * A grid of the lines making up each car, as drawn in one frame.
+ * Lines are collected while the trains are painted (see {@link TrainPainter}),
+ * and then {@link #build()} files them into cells so that the car at a given
+ * position can be found without walking every train again.
+ *
+ * @author Rick Rutt
+ *
+ */
+public class CarLineIndex {
+
+	// x1, y1, x2, y2 for each line
+	private double[] lines;
+	private Car[] cars;
+	private Train[] trains;
+	private Train current;
+	private int n;
+
+	private double minx, miny, maxx, maxy;
+	private double ox, oy, cell;
+	private int cols, rows;
+
+	// lines for cell k are entries[start[k]] .. entries[start[k+1]-1]
+	private int[] start;
+	private int[] entries;
+	private int[] fill;
+	private int nentries;
+
+	private static final int MAX_CELLS = 256;
+
+	// about one car length
+	private static final Distance CELL_SIZE = new Distance(60, Distance.Measure.FEET);
+
+	/**
+	 * Create an empty index.
+	 */
+	public CarLineIndex() {
+		lines = new double[256];
+		cars = new Car[64];
+		trains = new Train[64];
+		start = new int[2];
+		fill = new int[1];
+		entries = new int[64];
+		clear();
+	}
+
+	/**
+	 * Remove all lines, in preparation for a new frame.
+	 */
+	public synchronized void clear() {
+		n = 0;
+		current = null;
+		nentries = 0;
+		cols = rows = 0;
+		minx = miny = Double.MAX_VALUE;
+		maxx = maxy = -Double.MAX_VALUE;
+	}
+
+	/**
+	 * Set the train whose lines are about to be added.
+	 *
+	 * @param t The train being painted
+	 */
+	public synchronized void beginTrain(Train t) {
+		current = t;
+	}
+
+	/**
+	 * Add a line which is part of a car of the current train.
+	 *
+	 * @param c The car
+	 * @param l The line, on the map
+	 */
+	public synchronized void add(Car c, Line2D l) {
+		if (n == cars.length) {
+			cars = Arrays.copyOf(cars, n * 2);
+			trains = Arrays.copyOf(trains, n * 2);
+			lines = Arrays.copyOf(lines, n * 8);
+		}
+		cars[n] = c;
+		trains[n] = current;
+		lines[n*4] = l.getX1(); lines[n*4+1] = l.getY1();
+		lines[n*4+2] = l.getX2(); lines[n*4+3] = l.getY2();
+		n++;
+
+		minx = Math.min(minx, Math.min(l.getX1(), l.getX2()));
+		miny = Math.min(miny, Math.min(l.getY1(), l.getY2()));
+		maxx = Math.max(maxx, Math.max(l.getX1(), l.getX2()));
+		maxy = Math.max(maxy, Math.max(l.getY1(), l.getY2()));
+	}
+
+	private int col(double x) {
+		int c = (int)Math.floor((x - ox) / cell);
+		if (c < 0) return 0;
+		if (c >= cols) return cols - 1;
+		return c;
+	}
+
+	private int row(double y) {
+		int r = (int)Math.floor((y - oy) / cell);
+		if (r < 0) return 0;
+		if (r >= rows) return rows - 1;
+		return r;
+	}
+
+	/**
+	 * File all added lines into the grid.  Must be called after the last
+	 * line is added and before any lookups.
+	 */
+	public synchronized void build() {
+		if (n == 0) return;
+
+		ox = minx; oy = miny;
+		double w = Math.max(maxx - minx, 1), h = Math.max(maxy - miny, 1);
+		cell = Math.max(CELL_SIZE.pixels(), 1);
+		cols = Math.min((int)Math.ceil(w / cell), MAX_CELLS);
+		rows = Math.min((int)Math.ceil(h / cell), MAX_CELLS);
+		cell = Math.max(w / cols, h / rows);
+
+		int k = cols * rows;
+		if (start.length < k + 1) {
+			start = new int[k + 1];
+			fill = new int[k];
+		}
+		Arrays.fill(start, 0, k + 1, 0);
+
+		// count the lines in each cell, then place them
+		nentries = 0;
+		for (int i = 0; i < n; i++)
+			for (int r = row(Math.min(lines[i*4+1], lines[i*4+3])); r <= row(Math.max(lines[i*4+1], lines[i*4+3])); r++)
+				for (int c = col(Math.min(lines[i*4], lines[i*4+2])); c <= col(Math.max(lines[i*4], lines[i*4+2])); c++) {
+					start[r * cols + c + 1]++;
+					nentries++;
+				}
+
+		for (int j = 1; j <= k; j++)
+			start[j] += start[j-1];
+
+		if (entries.length < nentries) entries = new int[nentries * 2];
+		System.arraycopy(start, 0, fill, 0, k);
+
+		for (int i = 0; i < n; i++)
+			for (int r = row(Math.min(lines[i*4+1], lines[i*4+3])); r <= row(Math.max(lines[i*4+1], lines[i*4+3])); r++)
+				for (int c = col(Math.min(lines[i*4], lines[i*4+2])); c <= col(Math.max(lines[i*4], lines[i*4+2])); c++)
+					entries[fill[r * cols + c]++] = i;
+	}
+
+	/**
+	 * Find the line nearest to a position on the map.
+	 *
+	 * @param x The X coordinate on the map
+	 * @param y The Y coordinate on the map
+	 * @param d How near the line must be
+	 * @return The number of the nearest line within the given distance, or -1
+	 * @see #car(int)
+	 * @see #train(int)
+	 */
+	public synchronized int lineAt(double x, double y, Distance d) {
+		if (cols == 0) return -1;
+
+		double px = d.pixels();
+		double best = px * px;
+		int found = -1;
+
+		if (x + px < minx || x - px > maxx || y + px < miny || y - px > maxy) return -1;
+
+		for (int r = row(y - px); r <= row(y + px); r++)
+			for (int c = col(x - px); c <= col(x + px); c++) {
+				int k = r * cols + c;
+				for (int j = start[k]; j < start[k+1]; j++) {
+					int i = entries[j];
+					double ds = Line2D.ptSegDistSq(lines[i*4], lines[i*4+1], lines[i*4+2], lines[i*4+3], x, y);
+					if (ds <= best) {
+						best = ds;
+						found = i;
+					}
+				}
+			}
+
+		return found;
+	}
+
+	/**
+	 *
+	 * @param line A line number from {@link #lineAt(double, double, Distance)}
+	 * @return The car the line belongs to
+	 */
+	public synchronized Car car(int line) { return cars[line]; }
+
+	/**
+	 *
+	 * @param line A line number from {@link #lineAt(double, double, Distance)}
+	 * @return The train the line belongs to
+	 */
+	public synchronized Train train(int line) { return trains[line]; }
+}
@@ -0,0 +1,87 @@
+package net.kolls.railworld.tuic;
+
+/*
+ * Copyright (C) 2026 Rick Rutt
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along
+ *  with this program; if not, write to the Free Software Foundation, Inc.,
+ *  51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Stroke;
+import java.awt.geom.Path2D;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lines waiting to be drawn with one stroke, gathered into a single path for each color.
+ * Many cars share a few colors, so drawing every car of every train
+ * takes one draw per color rather than one per line.
+ *
+ * @author Rick Rutt
+ *
+ */
+class LineBatch {
+
+	private Stroke stroke;
+
+	// in the order the colors were first seen, so drawing is repeatable
+	private LinkedHashMap<Color, Path2D.Float> paths = new LinkedHashMap<Color, Path2D.Float>();
+
+	/**
+	 *
+	 * @param s The stroke to draw all the lines with
+	 */
+	LineBatch(Stroke s) {
+		stroke = s;
+	}
+
+	/**
+	 * Find the path for a color, to append lines to with {@link #line(Path2D.Float, double, double, double, double)}.
+	 *
+	 * @param c The color
+	 * @return The path of lines in that color
+	 */
+	Path2D.Float path(Color c) {
+		Path2D.Float p = paths.get(c);
+		if (p == null) {
+			p = new Path2D.Float();
+			paths.put(c, p);
+		}
+		return p;
+	}
+
+	static void line(Path2D.Float p, double x1, double y1, double x2, double y2) {
+		p.moveTo(x1, y1);
+		p.lineTo(x2, y2);
+	}
+
+	/**
+	 * Draw every path and empty them, keeping their storage for the next batch.
+	 *
+	 * @param g The graphics context to draw on
+	 */
+	void draw(Graphics2D g) {
+		if (paths.isEmpty()) return;
+		g.setStroke(stroke);
+		for (Map.Entry<Color, Path2D.Float> e : paths.entrySet()) {
+			Path2D.Float p = e.getValue();
+			if (p.getCurrentPoint() == null) continue;
+			g.setPaint(e.getKey());
+			g.draw(p);
+			p.reset();
+		}
+	}
+}
@@ -30,7 +30,7 @@ import java.awt.geom.*;
  * @author Steve Kollmansberger
  *
  */
-public class TrainMiniPainter extends TrainUIController {
+public class TrainMiniPainter extends TrainUIController implements ConsistVisitor {
 
 	private Stroke ms;
 	
@@ -41,6 +41,9 @@ public class TrainMiniPainter extends TrainUIController {
 	
 	private double xscale, yscale;
 	
+	private Line2D.Double nl = new Line2D.Double();
+	private LineBatch batch;
+	
 	/**
 	 * 
 	 * @param mg The graphics context to draw on
@@ -59,6 +62,7 @@ public class TrainMiniPainter extends TrainUIController {
 
 		xscale = xs;
 		yscale = ys;
+		batch = new LineBatch(ms);
 	}
 	@Override
 	public void segment(Car c, Line2D l) {
@@ -67,7 +71,7 @@ public class TrainMiniPainter extends TrainUIController {
 		g.setPaint(c.color());
 
 		// scale line l
-		Line2D nl = new Line2D.Double(l.getX1() * xscale, l.getY1() * yscale, l.getX2() * xscale, l.getY2() * yscale);
+		nl.setLine(l.getX1() * xscale, l.getY1() * yscale, l.getX2() * xscale, l.getY2() * yscale);
 
 		g.setStroke(ms);
 		g.draw(nl);
@@ -76,5 +80,22 @@ public class TrainMiniPainter extends TrainUIController {
 	}
 	@Override
 	public void car(Car c, CLoc b, CLoc pos) { }
+	
+	/**
+	 * Add a car to the cars waiting to be drawn.  Nothing appears until {@link #flush()}.
+	 */
+	public void car(Train t, Car c, int idx, double[] lines, int n, double[] ends) {
+		Path2D.Float p = batch.path(t.consist().color(idx));
+		
+		for (int i = 0; i < n; i++)
+			LineBatch.line(p, lines[i*4] * xscale, lines[i*4+1] * yscale, lines[i*4+2] * xscale, lines[i*4+3] * yscale);
+	}
+	
+	/**
+	 * Draw the cars added since the last flush, one draw for each color.
+	 */
+	public void flush() {
+		batch.draw(g);
+	}
 
 }
@@ -31,7 +31,7 @@ import java.awt.*;
  * @author Steve Kollmansberger
  *
  */
-public class TrainPainter extends TrainUIController {
+public class TrainPainter extends TrainUIController implements ConsistVisitor {
 
 	private Stroke ms, ls;
 	
@@ -39,6 +39,14 @@ public class TrainPainter extends TrainUIController {
 	private Graphics2D g;
 	private boolean followMe;
 	private Car selected;
+	private CarLineIndex index;
+	private Line2D.Double ln = new Line2D.Double();
+	
+	// cars given by the consist are drawn together by flush
+	private LineBatch bodies, mids;
+	private Car selCar;
+	private double[] selEnds = new double[4];
+	private boolean selFollow;
 	
 	/**
 	 * Did we submit new coords for this train yet?
@@ -54,6 +62,19 @@ public class TrainPainter extends TrainUIController {
 	 * @param sel The selected car.  A green selected arrow will be drawn on it.
 	 */
 	public TrainPainter(RailCanvas rc, Graphics2D mg, boolean f, Car sel) { 
+		this(rc, mg, f, sel, null);
+	}
+	
+	/**
+	 * Create a new TrainPainter which also records every line it paints.
+	 * 
+	 * @param rc  The {@link RailCanvas} for submitting follow-me coordinates.
+	 * @param mg The graphics context to draw on
+	 * @param f Should we follow (move display to) the given car sel?
+	 * @param sel The selected car.  A green selected arrow will be drawn on it.
+	 * @param lines The {@link CarLineIndex} to add painted lines to, or <code>null</code>
+	 */
+	public TrainPainter(RailCanvas rc, Graphics2D mg, boolean f, Car sel, CarLineIndex lines) { 
 		// paint all cars
 		ms = new BasicStroke(Car.CAR_WIDTH.iPixels(), BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL);
 		ls = new BasicStroke(Math.round(Car.CAR_WIDTH.pixels() / 3.0), BasicStroke.CAP_BUTT, BasicStroke.JOIN_BEVEL);
@@ -62,17 +83,25 @@ public class TrainPainter extends TrainUIController {
 		g = mg;
 		followMe = f;
 		didFollow = false;
+		index = lines;
+		bodies = new LineBatch(ms);
+		mids = new LineBatch(ls);
 	}
 	@Override
 	public void segment(Car c, Line2D l) {
+		segment(c, l, c.color(), c.midColor());
+	}
+	
+	private void segment(Car c, Line2D l, Color color, Color mid) {
 		
+		if (index != null) index.add(c, l);
 
-		g.setPaint(c.color());
+		g.setPaint(color);
 		g.setStroke(ms);
 		g.draw(l);
 
-		if (c.color() != c.midColor()) {
-			g.setPaint(c.midColor());
+		if (color != mid) {
+			g.setPaint(mid);
 			g.setStroke(ls);
 			g.draw(l);
 		}
@@ -80,33 +109,83 @@ public class TrainPainter extends TrainUIController {
 
 	}
 	
+	/**
+	 * Set whether the selected car should be followed, for painting another train.
+	 * This also resets {@link #didFollow}.
+	 * 
+	 * @param f Should we follow (move display to) the selected car?
+	 */
+	public void setFollow(boolean f) {
+		followMe = f;
+		didFollow = false;
+	}
+	
 	@Override
 	public void car(Car c, CLoc begin, CLoc end) { 
 		if (myRC == null) return;
-
-		Point2D p1 = begin.getPoint();
-		Point2D p2 = end.getPoint();
+		if (selected == c) selected(c, begin.getPoint(), end.getPoint(), followMe);
+	}
+	
+	/**
+	 * Add a car to the cars waiting to be drawn.  Nothing appears until {@link #flush()}.
+	 * If the car is selected and followed, {@link #didFollow} is set straight away.
+	 */
+	public void car(Train t, Car c, int idx, double[] lines, int n, double[] ends) {
+		Consist cs = t.consist();
+		Color color = cs.color(idx), mid = cs.midColor(idx);
+		Path2D.Float body = bodies.path(color);
+		Path2D.Float middle = color != mid ? mids.path(mid) : null;
+		for (int i = 0; i < n; i++) {
+			double x1 = lines[i*4], y1 = lines[i*4+1], x2 = lines[i*4+2], y2 = lines[i*4+3];
+			if (index != null) {
+				ln.setLine(x1, y1, x2, y2);
+				index.add(c, ln);
+			}
+			LineBatch.line(body, x1, y1, x2, y2);
+			if (middle != null) LineBatch.line(middle, x1, y1, x2, y2);
+		}
+		
+		if (myRC == null) return;
+		if (selected == c) {
+			selCar = c;
+			System.arraycopy(ends, 0, selEnds, 0, 4);
+			selFollow = followMe;
+			if (followMe && ends[0] >= 0 && ends[1] >= 0) didFollow = true;
+		}
+	}
+	
+	/**
+	 * Draw the cars added since the last flush, all trains at once: first the bodies, then
+	 * the middle lines over them, then the selected car's arrow over everything.
+	 * Following the selected car also happens here.
+	 */
+	public void flush() {
+		bodies.draw(g);
+		mids.draw(g);
+		
+		if (selCar == null) return;
+		selected(selCar, new Point2D.Double(selEnds[0], selEnds[1]), new Point2D.Double(selEnds[2], selEnds[3]), selFollow);
+		selCar = null;
+	}
+	
+	private void selected(Car c, Point2D p1, Point2D p2, boolean follow) {
 		Line2D l = new Line2D.Double(p1, p2);
 
-		if (selected == c) { 
-			if (followMe && p1.getX() >= 0 && p1.getY() >= 0) {
-				// check if we need to adjust the view coordinates
-				// if following
-				didFollow = true;
-				
-				myRC.submitCenterCoords((int)p1.getX(), (int)p1.getY());
-			}
-			g.setPaint(Color.green);
+		if (follow && p1.getX() >= 0 && p1.getY() >= 0) {
+			// check if we need to adjust the view coordinates
+			// if following
+			didFollow = true;
 			
-			Distance d = new Distance(Car.CAR_WIDTH.feet() * 1.5, Distance.Measure.FEET);
-			g.setStroke(ls);
-			g.draw(RailCanvas.angle(l, p1, Math.PI / 4.0, d));
-			g.draw(RailCanvas.angle(l, p1, -1.0*Math.PI / 4.0, d));
-				
-			g.setPaint(Color.white);
-			
-
+			myRC.submitCenterCoords((int)p1.getX(), (int)p1.getY());
 		}
+		g.setPaint(Color.green);
+		
+		Distance d = new Distance(Car.CAR_WIDTH.feet() * 1.5, Distance.Measure.FEET);
+		g.setStroke(ls);
+		g.draw(RailCanvas.angle(l, p1, Math.PI / 4.0, d));
+		g.draw(RailCanvas.angle(l, p1, -1.0*Math.PI / 4.0, d));
+			
+		g.setPaint(Color.white);
 
 	}
 	